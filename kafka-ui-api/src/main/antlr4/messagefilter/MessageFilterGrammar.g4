@@ -0,0 +1,100 @@
+grammar MessageFilterGrammar;
+
+filter
+    : expression EOF
+    ;
+
+// alternatives order defines operators precedence
+expression
+    : '(' expression ')'                                          #parenthesizedExpression
+    | (NOT | NOT_WORD) expression                                 #notExpression
+    | left=operand operator=comparisonOperator right=operand     #comparisonExpression
+    | operand                                                     #operandExpression
+    | left=expression (AND | AND_WORD) right=expression           #andExpression
+    | left=expression (OR | OR_WORD) right=expression             #orExpression
+    ;
+
+comparisonOperator
+    : EQ | NEQ | LT | LTE | GT | GTE | MATCH
+    ;
+
+operand
+    : path
+    | literal
+    ;
+
+path
+    : IDENTIFIER pathElement*
+    ;
+
+pathElement
+    : '.' fieldName                                               #fieldElement
+    | '[' STRING ']'                                              #quotedFieldElement
+    | '[' INTEGER ']'                                             #indexElement
+    ;
+
+// keywords are valid json field names
+fieldName
+    : IDENTIFIER | AND_WORD | OR_WORD | NOT_WORD | TRUE | FALSE | NULL
+    ;
+
+literal
+    : STRING                                                      #stringLiteral
+    | MINUS? (INTEGER | DECIMAL)                                  #numberLiteral
+    | (TRUE | FALSE)                                              #booleanLiteral
+    | NULL                                                        #nullLiteral
+    ;
+
+AND: '&&';
+OR: '||';
+NOT: '!';
+AND_WORD: 'and';
+OR_WORD: 'or';
+NOT_WORD: 'not';
+
+EQ: '==';
+NEQ: '!=';
+LT: '<';
+LTE: '<=';
+GT: '>';
+GTE: '>=';
+MATCH: '=~';
+MINUS: '-';
+
+TRUE: 'true';
+FALSE: 'false';
+NULL: 'null';
+
+STRING
+    : '"' ( ~["\\] | '\\' . )* '"'
+    | '\'' ( ~['\\] | '\\' . )* '\''
+    ;
+
+INTEGER
+    : DIGIT+
+    ;
+
+DECIMAL
+    : DIGIT+ '.' DIGIT+ EXPONENT?
+    | DIGIT+ EXPONENT
+    ;
+
+IDENTIFIER
+    : (LETTER | '_') (LETTER | DIGIT | '_')*
+    ;
+
+fragment EXPONENT
+    : [eE] [+-]? DIGIT+
+    ;
+
+fragment DIGIT
+    : [0-9]
+    ;
+
+fragment LETTER
+    : [a-zA-Z]
+    ;
+
+WS
+    : [ \r\n\t]+ -> skip
+    ;
@@ -0,0 +1,78 @@
+package com.provectus.kafka.ui.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+/**
+ * Encodes streams as CBOR sequence (RFC 8742): CBOR data items are self-delimiting, so they are
+ * written one after another without additional framing. Each value is serialized directly into
+ * the response buffer, and the response is flushed after each value, like server-sent events.
+ */
+public class CborSequenceEncoder extends AbstractEncoder<Object> implements HttpMessageEncoder<Object> {
+
+  public static final MediaType APPLICATION_CBOR_SEQ = new MediaType("application", "cbor-seq");
+
+  private final ObjectWriter writer;
+
+  // mapper should be created with CBORFactory
+  public CborSequenceEncoder(ObjectMapper cborMapper) {
+    super(APPLICATION_CBOR_SEQ);
+    this.writer = cborMapper.writer();
+  }
+
+  @Override
+  public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+    Class<?> clazz = elementType.toClass();
+    return super.canEncode(elementType, mimeType)
+        && !String.class.isAssignableFrom(clazz)
+        && !DataBuffer.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                 ResolvableType elementType, @Nullable MimeType mimeType,
+                                 @Nullable Map<String, Object> hints) {
+    return Flux.from(inputStream)
+        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+  }
+
+  @Override
+  public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory,
+                                ResolvableType valueType, @Nullable MimeType mimeType,
+                                @Nullable Map<String, Object> hints) {
+    DataBuffer buffer = bufferFactory.allocateBuffer();
+    boolean release = true;
+    try (OutputStream out = buffer.asOutputStream()) {
+      writer.writeValue(out, value);
+      release = false;
+      return buffer;
+    } catch (IOException e) {
+      throw new EncodingException("Error encoding " + valueType + " to CBOR", e);
+    } finally {
+      if (release) {
+        DataBufferUtils.release(buffer);
+      }
+    }
+  }
+
+  @Override
+  public List<MediaType> getStreamingMediaTypes() {
+    return List.of(APPLICATION_CBOR_SEQ);
+  }
+}
@@ -1,5 +1,6 @@
 package com.provectus.kafka.ui.config;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -11,6 +12,7 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
 @Configuration
 @ConfigurationProperties("kafka")
@@ -40,6 +42,16 @@ public class ClustersProperties {
     Properties properties;
     boolean readOnly = false;
     boolean disableLogDirsCollection = false;
+    int deserializationParallelism = 1;
+    DataSize messagesBufferSize = DataSize.ofMegabytes(16);
+    Integer messagesPreviewLength;
+    int messagesSearchConcurrency = 4;
+    int messagesScanConcurrency = 16;
+    int messagesScanConcurrencyPerUser = 4;
+    DataSize messagesScanBytesBudget;
+    Duration messagesScanTimeBudget;
+    DataSize messagesCacheSize = DataSize.ofMegabytes(32);
+    List<String> keyIndexedTopics = new ArrayList<>();
   }
 
   @Data
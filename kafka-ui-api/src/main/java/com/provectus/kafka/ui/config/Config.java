@@ -1,5 +1,7 @@
 package com.provectus.kafka.ui.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.provectus.kafka.ui.model.JmxConnectionInfo;
 import com.provectus.kafka.ui.util.JmxPoolFactory;
 import java.util.Collections;
@@ -14,9 +16,11 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.autoconfigure.web.reactive.WebFluxProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.server.reactive.ContextPathCompositeHandler;
 import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.jmx.export.MBeanExporter;
@@ -24,6 +28,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Configuration
 @AllArgsConstructor
@@ -84,4 +90,23 @@ public class Config {
   public JsonNullableModule jsonNullableModule() {
     return new JsonNullableModule();
   }
+
+  // shared by messages scans of all clusters, number of records deserialized concurrently
+  // by each scan is limited by cluster's deserialization parallelism
+  @Bean(destroyMethod = "dispose")
+  public Scheduler messagesDeserializationScheduler(ClustersProperties clustersProperties) {
+    int maxParallelism = clustersProperties.getClusters().stream()
+        .mapToInt(ClustersProperties.Cluster::getDeserializationParallelism)
+        .max()
+        .orElse(1);
+    return Schedulers.newParallel("messages-deserialization",
+        Math.max(Runtime.getRuntime().availableProcessors(), maxParallelism), true);
+  }
+
+  // messages events can be requested in CBOR, mapper is configured the same way as json one
+  @Bean
+  public CodecCustomizer cborSequenceCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+    return configurer -> configurer.customCodecs().register(new CborSequenceEncoder(cborMapper));
+  }
 }
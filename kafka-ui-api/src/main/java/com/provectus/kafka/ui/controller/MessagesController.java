@@ -3,15 +3,25 @@ package com.provectus.kafka.ui.controller;
 import static java.util.stream.Collectors.toMap;
 
 import com.provectus.kafka.ui.api.MessagesApi;
+import com.provectus.kafka.ui.emitter.MessagePreview;
+import com.provectus.kafka.ui.emitter.MessageProjection;
+import com.provectus.kafka.ui.emitter.ScanAdmission;
 import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.CreateTopicMessageDTO;
+import com.provectus.kafka.ui.model.Cursor;
 import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.MessagesCopyProgressDTO;
+import com.provectus.kafka.ui.model.MessagesCopyRequestDTO;
+import com.provectus.kafka.ui.model.MessagesExportFormatDTO;
 import com.provectus.kafka.ui.model.SeekDirectionDTO;
 import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
 import com.provectus.kafka.ui.model.TopicMessageSchemaDTO;
 import com.provectus.kafka.ui.service.MessagesService;
 import com.provectus.kafka.ui.service.TopicsService;
+import java.net.InetSocketAddress;
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,11 +30,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.kafka.common.TopicPartition;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 @RestController
 @RequiredArgsConstructor
@@ -33,6 +50,7 @@ public class MessagesController extends AbstractController implements MessagesAp
 
   private static final int MAX_LOAD_RECORD_LIMIT = 100;
   private static final int DEFAULT_LOAD_RECORD_LIMIT = 20;
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
   private final MessagesService messagesService;
   private final TopicsService topicsService;
@@ -52,23 +70,128 @@ public class MessagesController extends AbstractController implements MessagesAp
   public Mono<ResponseEntity<Flux<TopicMessageEventDTO>>> getTopicMessages(
       String clusterName, String topicName, SeekTypeDTO seekType, List<String> seekTo,
       Integer limit, String q, MessageFilterTypeDTO filterQueryType,
-      SeekDirectionDTO seekDirection, ServerWebExchange exchange) {
-    var positions = new ConsumerPosition(
-        seekType != null ? seekType : SeekTypeDTO.BEGINNING,
-        parseSeekTo(topicName, seekTo),
-        seekDirection
+      SeekDirectionDTO seekDirection, Long seekBoundTimestamp, String cursor, List<String> fields,
+      ServerWebExchange exchange) {
+    int recordsLimit = Optional.ofNullable(limit)
+        .map(s -> Math.min(s, MAX_LOAD_RECORD_LIMIT))
+        .orElse(DEFAULT_LOAD_RECORD_LIMIT);
+    var projection = MessageProjection.compile(fields);
+    var cluster = getCluster(clusterName);
+    var preview = MessagePreview.create(cluster.getMessagesPreviewLength());
+    Flux<TopicMessageEventDTO> messages;
+    if (cursor != null) {
+      messages = messagesService.loadMessages(cluster, topicName, Cursor.decode(cursor), recordsLimit);
+    } else {
+      var positions = new ConsumerPosition(
+          seekType != null ? seekType : SeekTypeDTO.BEGINNING,
+          parseSeekTo(topicName, seekTo),
+          seekDirection,
+          seekBoundTimestamp
+      );
+      messages = messagesService.loadMessages(
+          cluster, topicName, positions, q, filterQueryType, recordsLimit);
+    }
+    // projected and truncated after filtering, since filters can use any fields
+    if (projection != null) {
+      messages = messages.map(projection);
+    }
+    if (preview != null) {
+      messages = messages.map(preview);
+    }
+    return withScanUser(messages, exchange).map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<TopicMessageEventDTO>>> searchMessages(
+      String clusterName, String q, List<String> topics, String topicPattern,
+      MessageFilterTypeDTO filterQueryType, SeekDirectionDTO seekDirection, Integer limit,
+      ServerWebExchange exchange) {
+    int recordsLimit = Optional.ofNullable(limit)
+        .map(s -> Math.min(s, MAX_LOAD_RECORD_LIMIT))
+        .orElse(DEFAULT_LOAD_RECORD_LIMIT);
+    var cluster = getCluster(clusterName);
+    var preview = MessagePreview.create(cluster.getMessagesPreviewLength());
+    Flux<TopicMessageEventDTO> messages = messagesService.searchMessages(
+        cluster,
+        topics,
+        topicPattern,
+        q,
+        Optional.ofNullable(filterQueryType).orElse(MessageFilterTypeDTO.STRING_CONTAINS),
+        Optional.ofNullable(seekDirection).orElse(SeekDirectionDTO.FORWARD),
+        recordsLimit
     );
+    return withScanUser(preview != null ? messages.map(preview) : messages, exchange)
+        .map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<TopicMessageDTO>> getTopicMessage(
+      String clusterName, String topicName, Integer partition, Long offset, ServerWebExchange exchange) {
+    return messagesService.loadMessage(getCluster(clusterName), topicName, partition, offset)
+        .map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<TopicMessageDTO>>> getTopicMessagesByKey(
+      String clusterName, String topicName, String key, Integer limit, ServerWebExchange exchange) {
     int recordsLimit = Optional.ofNullable(limit)
         .map(s -> Math.min(s, MAX_LOAD_RECORD_LIMIT))
         .orElse(DEFAULT_LOAD_RECORD_LIMIT);
     return Mono.just(
         ResponseEntity.ok(
-            messagesService.loadMessages(
-                getCluster(clusterName), topicName, positions, q, filterQueryType, recordsLimit)
+            messagesService.loadMessagesByKey(getCluster(clusterName), topicName, key, recordsLimit)
         )
     );
   }
 
+  @Override
+  public Mono<ResponseEntity<Resource>> exportTopicMessages(
+      String clusterName, String topicName, SeekTypeDTO seekType, List<String> seekTo,
+      Long seekBoundTimestamp, MessagesExportFormatDTO format, Boolean gzip,
+      ServerWebExchange exchange) {
+    var position = new ConsumerPosition(
+        seekType != null ? seekType : SeekTypeDTO.BEGINNING,
+        parseSeekTo(topicName, seekTo),
+        SeekDirectionDTO.FORWARD,
+        seekBoundTimestamp
+    );
+    boolean compress = Boolean.TRUE.equals(gzip);
+    final var chunks = messagesService.exportMessages(
+        getCluster(clusterName),
+        topicName,
+        position,
+        Optional.ofNullable(format).orElse(MessagesExportFormatDTO.DESERIALIZED),
+        compress
+    );
+    ServerHttpResponse response = exchange.getResponse();
+    response.getHeaders().setContentType(NDJSON);
+    response.getHeaders().setContentDisposition(
+        ContentDisposition.attachment().filename(topicName + ".ndjson").build());
+    if (compress) {
+      response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    // export is written to response directly, since Resource body can't be streamed
+    return withScanUser(chunks, exchange)
+        .flatMap(userChunks -> response.writeWith(userChunks.map(response.bufferFactory()::wrap)))
+        .then(Mono.empty());
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<MessagesCopyProgressDTO>>> copyTopicMessages(
+      String clusterName, String topicName, @Valid Mono<MessagesCopyRequestDTO> messagesCopyRequest,
+      ServerWebExchange exchange) {
+    return messagesCopyRequest.map(request -> {
+      var position = new ConsumerPosition(
+          request.getSeekType() != null ? request.getSeekType() : SeekTypeDTO.BEGINNING,
+          parseSeekTo(topicName, request.getSeekTo()),
+          SeekDirectionDTO.FORWARD,
+          request.getSeekBoundTimestamp()
+      );
+      return ResponseEntity.ok(
+          messagesService.copyMessages(getCluster(clusterName), topicName, position, request));
+    });
+  }
+
   @Override
   public Mono<ResponseEntity<TopicMessageSchemaDTO>> getTopicSchema(
       String clusterName, String topicName, ServerWebExchange exchange) {
@@ -85,6 +208,19 @@ public class MessagesController extends AbstractController implements MessagesAp
     ).map(ResponseEntity::ok);
   }
 
+  /**
+   * Scans are limited per user, anonymous users are told apart by their addresses.
+   */
+  private static <T> Mono<Flux<T>> withScanUser(Flux<T> messages, ServerWebExchange exchange) {
+    return exchange.getPrincipal()
+        .filter(principal -> !(principal instanceof AnonymousAuthenticationToken))
+        .map(Principal::getName)
+        .switchIfEmpty(Mono.fromSupplier(() -> Optional.ofNullable(exchange.getRequest().getRemoteAddress())
+            .map(InetSocketAddress::getHostString)
+            .orElse("anonymous")))
+        .map(user -> messages.contextWrite(Context.of(ScanAdmission.USER_CONTEXT_KEY, user)));
+  }
+
   /**
    * The format is [partition]::[offset] for specifying offsets
    * or [partition]::[timestamp in millis] for specifying timestamps.
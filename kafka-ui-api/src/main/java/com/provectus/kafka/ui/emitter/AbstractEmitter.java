@@ -3,56 +3,169 @@ package com.provectus.kafka.ui.emitter;
 import com.provectus.kafka.ui.model.TopicMessageDTO;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
 import com.provectus.kafka.ui.model.TopicMessagePhaseDTO;
-import com.provectus.kafka.ui.serde.RecordSerDe;
-import com.provectus.kafka.ui.util.ClusterUtil;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.Bytes;
 import reactor.core.publisher.FluxSink;
 
 public abstract class AbstractEmitter {
   private static final Duration POLL_TIMEOUT_MS = Duration.ofMillis(1000L);
+  // rough size of phase and consuming events, and of messages' fields other than key, content and headers
+  private static final long EVENT_OVERHEAD_BYTES = 128;
 
-  private final RecordSerDe recordDeserializer;
+  private final MessagesProcessing messagesProcessing;
   private final ConsumingStats consumingStats = new ConsumingStats();
+  // messages being deserialized in parallel, in order they should be sent
+  private final Deque<CompletableFuture<TopicMessageDTO>> inFlight = new ArrayDeque<>();
+  private final SinkBackpressure backpressure;
+  private boolean demandTracked;
 
-  protected AbstractEmitter(RecordSerDe recordDeserializer) {
-    this.recordDeserializer = recordDeserializer;
+  protected AbstractEmitter(MessagesProcessing messagesProcessing) {
+    this.messagesProcessing = messagesProcessing;
+    this.backpressure = new SinkBackpressure(messagesProcessing.maxBufferedBytes());
   }
 
   protected ConsumerRecords<Bytes, Bytes> poll(
       FluxSink<TopicMessageEventDTO> sink, Consumer<Bytes, Bytes> consumer) {
+    // not keeping messages in-flight while waiting for new records
+    flushMessages(sink);
+    awaitDemand(sink, consumer);
     Instant start = Instant.now();
     ConsumerRecords<Bytes, Bytes> records = consumer.poll(POLL_TIMEOUT_MS);
     Instant finish = Instant.now();
-    sendConsuming(sink, records, Duration.between(start, finish).toMillis());
+    long elapsed = Duration.between(start, finish).toMillis();
+    messagesProcessing.metrics().polled(records, elapsed);
+    sendConsuming(sink, records, elapsed);
     return records;
   }
 
+  protected <T> T discoverOffsets(Supplier<T> discovery) {
+    return messagesProcessing.metrics().timeOffsetsDiscovery(discovery);
+  }
+
+  /**
+   * Pauses all consumer's partitions while the sink's buffer is full, so nothing is fetched
+   * for the subscriber which doesn't keep up. Partitions are resumed when it requests more events.
+   */
+  private void awaitDemand(FluxSink<TopicMessageEventDTO> sink, Consumer<Bytes, Bytes> consumer) {
+    if (!backpressure.isFull()) {
+      return;
+    }
+    Set<TopicPartition> toPause = new HashSet<>(consumer.assignment());
+    toPause.removeAll(consumer.paused());
+    consumer.pause(toPause);
+    awaitCapacity(sink);
+    consumer.resume(toPause);
+  }
+
+  private void awaitCapacity(FluxSink<TopicMessageEventDTO> sink) {
+    try {
+      backpressure.awaitCapacity(sink::isCancelled);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void send(FluxSink<TopicMessageEventDTO> sink, TopicMessageEventDTO event, long bytes) {
+    if (!demandTracked) {
+      // called with already requested amount first, so should be registered before sending
+      sink.onRequest(backpressure::requested);
+      demandTracked = true;
+    }
+    backpressure.sent(bytes);
+    sink.next(event);
+  }
+
   protected void sendMessage(FluxSink<TopicMessageEventDTO> sink,
                                                        ConsumerRecord<Bytes, Bytes> msg) {
-    final TopicMessageDTO topicMessage = ClusterUtil.mapToTopicMessage(msg, recordDeserializer);
-    sink.next(
+    if (!messagesProcessing.passesRawFilter(msg)) {
+      return;
+    }
+    if (messagesProcessing.parallelism() == 1) {
+      emitMessage(sink, messagesProcessing.deserialize(msg));
+      return;
+    }
+    inFlight.addLast(messagesProcessing.deserializeAsync(msg));
+    while (inFlight.size() >= messagesProcessing.parallelism()) {
+      emitMessage(sink, join(inFlight.removeFirst()));
+    }
+  }
+
+  /**
+   * Sends all in-flight messages. Should be called before sink completion.
+   */
+  protected void flushMessages(FluxSink<TopicMessageEventDTO> sink) {
+    while (!inFlight.isEmpty()) {
+      var message = inFlight.removeFirst();
+      if (!sink.isCancelled()) {
+        emitMessage(sink, join(message));
+      }
+    }
+  }
+
+  private static TopicMessageDTO join(CompletableFuture<TopicMessageDTO> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void emitMessage(FluxSink<TopicMessageEventDTO> sink, TopicMessageDTO topicMessage) {
+    // other events are small and sent once per poll, which waits for demand itself
+    awaitCapacity(sink);
+    send(
+        sink,
         new TopicMessageEventDTO()
             .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
-            .message(topicMessage)
+            .message(topicMessage),
+        estimateSize(topicMessage)
     );
   }
 
   protected void sendPhase(FluxSink<TopicMessageEventDTO> sink, String name) {
-    sink.next(
+    send(
+        sink,
         new TopicMessageEventDTO()
             .type(TopicMessageEventDTO.TypeEnum.PHASE)
-            .phase(new TopicMessagePhaseDTO().name(name))
+            .phase(new TopicMessagePhaseDTO().name(name)),
+        EVENT_OVERHEAD_BYTES
     );
   }
 
   protected void sendConsuming(FluxSink<TopicMessageEventDTO> sink,
                                ConsumerRecords<Bytes, Bytes> records,
                                long elapsed) {
-    consumingStats.sendConsumingEvt(sink, records, elapsed);
+    send(sink, consumingStats.createConsumingEvt(records, elapsed, sink.isCancelled()), EVENT_OVERHEAD_BYTES);
+  }
+
+  // strings are counted as 2 bytes per char
+  static long estimateSize(TopicMessageDTO msg) {
+    long chars = length(msg.getKey()) + length(msg.getContent());
+    if (msg.getHeaders() != null) {
+      for (Map.Entry<String, String> header : msg.getHeaders().entrySet()) {
+        chars += length(header.getKey()) + length(header.getValue());
+      }
+    }
+    return EVENT_OVERHEAD_BYTES + chars * Character.BYTES;
+  }
+
+  private static long length(String str) {
+    return str == null ? 0 : str.length();
   }
-}
\ No newline at end of file
+}
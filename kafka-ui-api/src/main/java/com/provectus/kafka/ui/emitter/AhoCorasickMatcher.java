@@ -0,0 +1,140 @@
+package com.provectus.kafka.ui.emitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks if text contains any of precompiled terms using Aho-Corasick automaton: text is scanned
+ * once, and each symbol takes amortized constant number of transitions regardless of number of
+ * terms. Automaton is built either over chars or over UTF-8 bytes of terms, and should be used
+ * with the same kind of input. Instances are immutable and can be shared between threads.
+ */
+final class AhoCorasickMatcher {
+
+  private static final int ROOT = 0;
+
+  // trie edges of each state: sorted symbols and target states
+  private final int[][] symbols;
+  private final int[][] targets;
+  // state of the longest proper suffix of state's path which is also in the trie
+  private final int[] failures;
+  // some term ends at the state or at one of its failure states
+  private final boolean[] matches;
+
+  private AhoCorasickMatcher(List<int[]> terms) {
+    List<Map<Integer, Integer>> edges = new ArrayList<>();
+    edges.add(new HashMap<>());
+    List<Integer> terminals = new ArrayList<>();
+    for (int[] term : terms) {
+      int state = ROOT;
+      for (int symbol : term) {
+        Integer next = edges.get(state).get(symbol);
+        if (next == null) {
+          next = edges.size();
+          edges.add(new HashMap<>());
+          edges.get(state).put(symbol, next);
+        }
+        state = next;
+      }
+      terminals.add(state);
+    }
+    int states = edges.size();
+    symbols = new int[states][];
+    targets = new int[states][];
+    for (int s = 0; s < states; s++) {
+      symbols[s] = edges.get(s).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+      targets[s] = new int[symbols[s].length];
+      for (int i = 0; i < symbols[s].length; i++) {
+        targets[s][i] = edges.get(s).get(symbols[s][i]);
+      }
+    }
+    matches = new boolean[states];
+    terminals.forEach(s -> matches[s] = true);
+    failures = new int[states];
+    // states are visited by depth, so failure states are already resolved
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int child : targets[ROOT]) {
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int i = 0; i < symbols[state].length; i++) {
+        int child = targets[state][i];
+        int failure = step(failures[state], symbols[state][i]);
+        failures[child] = failure;
+        matches[child] |= matches[failure];
+        queue.add(child);
+      }
+    }
+  }
+
+  static AhoCorasickMatcher forChars(Collection<String> terms) {
+    List<int[]> converted = new ArrayList<>(terms.size());
+    for (String term : terms) {
+      converted.add(term.chars().toArray());
+    }
+    return new AhoCorasickMatcher(converted);
+  }
+
+  static AhoCorasickMatcher forUtf8Bytes(Collection<String> terms) {
+    List<int[]> converted = new ArrayList<>(terms.size());
+    for (String term : terms) {
+      byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+      int[] unsigned = new int[bytes.length];
+      for (int i = 0; i < bytes.length; i++) {
+        unsigned[i] = bytes[i] & 0xFF;
+      }
+      converted.add(unsigned);
+    }
+    return new AhoCorasickMatcher(converted);
+  }
+
+  boolean containedIn(CharSequence text) {
+    int state = ROOT;
+    if (matches[state]) {
+      return true;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      state = step(state, text.charAt(i));
+      if (matches[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  boolean containedIn(byte[] data) {
+    int state = ROOT;
+    if (matches[state]) {
+      return true;
+    }
+    for (byte b : data) {
+      state = step(state, b & 0xFF);
+      if (matches[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int step(int state, int symbol) {
+    int current = state;
+    while (true) {
+      int idx = Arrays.binarySearch(symbols[current], symbol);
+      if (idx >= 0) {
+        return targets[current][idx];
+      }
+      if (current == ROOT) {
+        return ROOT;
+      }
+      current = failures[current];
+    }
+  }
+}
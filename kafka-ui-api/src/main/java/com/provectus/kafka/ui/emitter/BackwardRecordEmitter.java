@@ -1,21 +1,25 @@
 package com.provectus.kafka.ui.emitter;
 
+import com.provectus.kafka.ui.model.Cursor;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
-import com.provectus.kafka.ui.serde.RecordSerDe;
 import com.provectus.kafka.ui.util.OffsetsSeekBackward;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.Bytes;
 import reactor.core.publisher.FluxSink;
@@ -25,99 +29,179 @@ public class BackwardRecordEmitter
     extends AbstractEmitter
     implements java.util.function.Consumer<FluxSink<TopicMessageEventDTO>> {
 
-  private final Function<Map<String, Object>, KafkaConsumer<Bytes, Bytes>> consumerSupplier;
+  // windows which were not read after this number of consecutive empty polls are left for the next round
+  static final int MAX_EMPTY_POLLS = 3;
+
+  private final Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier;
   private final OffsetsSeekBackward offsetsSeek;
+  @Nullable
+  private final CursorTracker cursorTracker;
+
+  public BackwardRecordEmitter(
+      Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier,
+      OffsetsSeekBackward offsetsSeek,
+      MessagesProcessing messagesProcessing) {
+    this(consumerSupplier, offsetsSeek, messagesProcessing, null);
+  }
 
   public BackwardRecordEmitter(
-      Function<Map<String, Object>, KafkaConsumer<Bytes, Bytes>> consumerSupplier,
+      Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier,
       OffsetsSeekBackward offsetsSeek,
-      RecordSerDe recordDeserializer) {
-    super(recordDeserializer);
+      MessagesProcessing messagesProcessing,
+      @Nullable CursorTracker cursorTracker) {
+    super(messagesProcessing);
     this.offsetsSeek = offsetsSeek;
     this.consumerSupplier = consumerSupplier;
+    this.cursorTracker = cursorTracker;
   }
 
   @Override
   public void accept(FluxSink<TopicMessageEventDTO> sink) {
-    try (KafkaConsumer<Bytes, Bytes> configConsumer = consumerSupplier.apply(Map.of())) {
+    try (Consumer<Bytes, Bytes> consumer = consumerSupplier.get()) {
+      sendPhase(sink, "Created consumer");
       final List<TopicPartition> requestedPartitions =
-          offsetsSeek.getRequestedPartitions(configConsumer);
+          discoverOffsets(() -> offsetsSeek.getRequestedPartitions(consumer));
       sendPhase(sink, "Request partitions");
       final int msgsPerPartition = offsetsSeek.msgsPerPartition(requestedPartitions.size());
-      try (KafkaConsumer<Bytes, Bytes> consumer =
-               consumerSupplier.apply(
-                   Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, msgsPerPartition)
-               )
-      ) {
-        sendPhase(sink, "Created consumer");
-
-        SortedMap<TopicPartition, Long> partitionsOffsets =
-            new TreeMap<>(Comparator.comparingInt(TopicPartition::partition));
-        partitionsOffsets.putAll(offsetsSeek.getPartitionsOffsets(consumer));
-
-        sendPhase(sink, "Requested partitions offsets");
-        log.debug("partition offsets: {}", partitionsOffsets);
-        var waitingOffsets =
-            offsetsSeek.waitingOffsets(consumer, partitionsOffsets.keySet());
-        log.debug("waiting offsets {} {}",
-            waitingOffsets.getBeginOffsets(),
-            waitingOffsets.getEndOffsets()
-        );
+      SortedMap<TopicPartition, Long> partitionsOffsets =
+          new TreeMap<>(Comparator.comparingInt(TopicPartition::partition));
+      partitionsOffsets.putAll(discoverOffsets(() -> offsetsSeek.getPartitionsOffsets(consumer)));
 
-        while (!sink.isCancelled() && !waitingOffsets.beginReached()) {
-          for (Map.Entry<TopicPartition, Long> entry : partitionsOffsets.entrySet()) {
-            final Long lowest = waitingOffsets.getBeginOffsets().get(entry.getKey().partition());
-            if (lowest != null) {
-              consumer.assign(Collections.singleton(entry.getKey()));
-              final long offset = Math.max(lowest, entry.getValue() - msgsPerPartition);
-              log.debug("Polling {} from {}", entry.getKey(), offset);
-              consumer.seek(entry.getKey(), offset);
-              sendPhase(sink,
-                  String.format("Consuming partition: %s from %s", entry.getKey(), offset)
-              );
-              final ConsumerRecords<Bytes, Bytes> records = poll(sink, consumer);
-              final List<ConsumerRecord<Bytes, Bytes>> partitionRecords =
-                  records.records(entry.getKey()).stream()
-                      .filter(r -> r.offset() < partitionsOffsets.get(entry.getKey()))
-                      .collect(Collectors.toList());
-              Collections.reverse(partitionRecords);
+      sendPhase(sink, "Requested partitions offsets");
+      log.debug("partition offsets: {}", partitionsOffsets);
+      var waitingOffsets =
+          discoverOffsets(() -> offsetsSeek.waitingOffsets(consumer, partitionsOffsets.keySet()));
+      log.debug("waiting offsets {} {}",
+          waitingOffsets.getBeginOffsets(),
+          waitingOffsets.getEndOffsets()
+      );
 
-              log.debug("{} records polled", records.count());
-              log.debug("{} records sent", partitionRecords.size());
-
-              // This is workaround for case when partition begin offset is less than
-              // real minimal offset, usually appear in compcated topics
-              if (records.count() > 0 && partitionRecords.isEmpty()) {
-                waitingOffsets.markPolled(entry.getKey().partition());
-              }
+      var merger = new TimestampOrderedMerger(
+          partitionsOffsets.keySet().stream()
+              .filter(tp -> waitingOffsets.getBeginOffsets().containsKey(tp.partition()))
+              .collect(Collectors.toList()),
+          true
+      );
+      if (cursorTracker != null) {
+        cursorTracker.registerRanges(partitionsOffsets.entrySet().stream()
+            .filter(e -> merger.isOpen(e.getKey()))
+            .collect(Collectors.toMap(
+                Map.Entry::getKey,
+                e -> new Cursor.Range(
+                    waitingOffsets.getBeginOffsets().get(e.getKey().partition()), e.getValue() - 1))));
+      }
 
-              for (ConsumerRecord<Bytes, Bytes> msg : partitionRecords) {
-                if (!sink.isCancelled() && !waitingOffsets.beginReached()) {
-                  sendMessage(sink, msg);
-                  waitingOffsets.markPolled(msg);
-                } else {
-                  log.info("Begin reached");
-                  break;
-                }
-              }
-              partitionsOffsets.put(
-                  entry.getKey(),
-                  Math.max(offset, entry.getValue() - msgsPerPartition)
-              );
-            }
+      while (!sink.isCancelled()) {
+        // new window is polled only for partitions which previous windows were fully sent,
+        // window is [start, previous window start)
+        SortedMap<TopicPartition, Long> windowStarts =
+            new TreeMap<>(Comparator.comparingInt(TopicPartition::partition));
+        for (Map.Entry<TopicPartition, Long> entry : partitionsOffsets.entrySet()) {
+          if (merger.isOpen(entry.getKey()) && merger.buffered(entry.getKey()) == 0) {
+            final long lowest = waitingOffsets.getBeginOffsets().get(entry.getKey().partition());
+            windowStarts.put(entry.getKey(), Math.max(lowest, entry.getValue() - msgsPerPartition));
           }
-          if (waitingOffsets.beginReached()) {
-            log.info("begin reached after partitions");
-          } else if (sink.isCancelled()) {
-            log.info("sink is cancelled after partitions");
+        }
+        if (!windowStarts.isEmpty()) {
+          sendPhase(sink, String.format("Consuming %d partitions", windowStarts.size()));
+          log.debug("Polling windows {}, previous starts {}", windowStarts, partitionsOffsets);
+          final Map<TopicPartition, List<ConsumerRecord<Bytes, Bytes>>> polled = new HashMap<>();
+          final Set<TopicPartition> read = pollWindows(sink, consumer, windowStarts, partitionsOffsets, polled);
+          if (read.isEmpty() && !sink.isCancelled()) {
+            // partitions can't be read: their ranges are left in the next page cursor,
+            // records already polled from other partitions are sent
+            sendPhase(sink, String.format("Records of partitions %s could not be read, skipping them",
+                windowStarts.keySet().stream().map(TopicPartition::partition).collect(Collectors.toList())));
+            windowStarts.keySet().forEach(merger::finish);
           }
+          for (Map.Entry<TopicPartition, Long> entry : windowStarts.entrySet()) {
+            final TopicPartition tp = entry.getKey();
+            if (!read.contains(tp)) {
+              // window will be polled again in the next round
+              continue;
+            }
+            final List<ConsumerRecord<Bytes, Bytes>> partitionRecords =
+                polled.getOrDefault(tp, List.of());
+            log.debug("{} records polled for {}", partitionRecords.size(), tp);
+            for (int i = partitionRecords.size() - 1; i >= 0; i--) {
+              merger.add(partitionRecords.get(i));
+            }
+            // window started at the partition's begin offset - nothing left to read
+            // (begin offset can be less than real minimal offset in compacted topics)
+            if (entry.getValue() <= waitingOffsets.getBeginOffsets().get(tp.partition())) {
+              merger.finish(tp);
+            }
+            partitionsOffsets.put(tp, entry.getValue());
+          }
+        }
+        ConsumerRecord<Bytes, Bytes> next;
+        while (!sink.isCancelled() && (next = merger.next()) != null) {
+          sendMessage(sink, next);
         }
-        sink.complete();
-        log.info("Polling finished");
+        if (merger.isDone()) {
+          log.info("begin reached after partitions");
+          break;
+        }
+      }
+      if (sink.isCancelled()) {
+        log.info("sink is cancelled after partitions");
       }
+      flushMessages(sink);
+      sink.complete();
+      log.info("Polling finished");
     } catch (Exception e) {
       log.error("Error occurred while consuming records", e);
       sink.error(e);
     }
   }
+
+  /**
+   * Assigns all partitions at once, seeks each of them to its window start and polls
+   * until every window is read, or until {@link #MAX_EMPTY_POLLS} consecutive polls return
+   * nothing. Partitions which windows are already read are paused, so subsequent polls only
+   * fetch remaining ones. Records within [start, end) windows are put to result in offsets
+   * order, returns partitions which windows were read completely.
+   */
+  private Set<TopicPartition> pollWindows(
+      FluxSink<TopicMessageEventDTO> sink,
+      Consumer<Bytes, Bytes> consumer,
+      Map<TopicPartition, Long> windowStarts,
+      Map<TopicPartition, Long> windowEnds,
+      Map<TopicPartition, List<ConsumerRecord<Bytes, Bytes>>> result) {
+    Set<TopicPartition> read = new HashSet<>();
+    Set<TopicPartition> remaining = new HashSet<>();
+    windowStarts.forEach((tp, start) -> (start < windowEnds.get(tp) ? remaining : read).add(tp));
+    if (remaining.isEmpty()) {
+      return read;
+    }
+    consumer.resume(consumer.paused());
+    consumer.assign(remaining);
+    remaining.forEach(tp -> consumer.seek(tp, windowStarts.get(tp)));
+
+    int emptyPolls = 0;
+    while (!sink.isCancelled() && !remaining.isEmpty() && emptyPolls < MAX_EMPTY_POLLS) {
+      ConsumerRecords<Bytes, Bytes> records = poll(sink, consumer);
+      emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+      for (TopicPartition tp : records.partitions()) {
+        long end = windowEnds.get(tp);
+        for (ConsumerRecord<Bytes, Bytes> rec : records.records(tp)) {
+          if (rec.offset() < end) {
+            result.computeIfAbsent(tp, t -> new ArrayList<>()).add(rec);
+          }
+        }
+      }
+      for (Iterator<TopicPartition> it = remaining.iterator(); it.hasNext(); ) {
+        TopicPartition tp = it.next();
+        if (consumer.position(tp) >= windowEnds.get(tp)) {
+          consumer.pause(List.of(tp));
+          it.remove();
+          read.add(tp);
+        }
+      }
+    }
+    if (!remaining.isEmpty()) {
+      log.debug("Windows of partitions {} were not read after {} empty polls", remaining, MAX_EMPTY_POLLS);
+    }
+    return read;
+  }
 }
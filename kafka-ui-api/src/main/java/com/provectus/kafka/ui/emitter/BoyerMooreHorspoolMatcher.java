@@ -0,0 +1,43 @@
+package com.provectus.kafka.ui.emitter;
+
+import java.util.Arrays;
+
+/**
+ * Searches for precompiled pattern in byte arrays using Boyer-Moore-Horspool algorithm.
+ * Instances are immutable and can be shared between threads.
+ */
+final class BoyerMooreHorspoolMatcher {
+
+  private final byte[] pattern;
+  private final int[] shifts = new int[256];
+
+  BoyerMooreHorspoolMatcher(byte[] pattern) {
+    this.pattern = pattern.clone();
+    Arrays.fill(shifts, pattern.length);
+    for (int i = 0; i < pattern.length - 1; i++) {
+      shifts[pattern[i] & 0xFF] = pattern.length - 1 - i;
+    }
+  }
+
+  boolean containedIn(byte[] data) {
+    final int last = pattern.length - 1;
+    if (last < 0) {
+      return true;
+    }
+    int pos = 0;
+    while (pos <= data.length - pattern.length) {
+      byte b = data[pos + last];
+      if (b == pattern[last]) {
+        int i = last - 1;
+        while (i >= 0 && data[pos + i] == pattern[i]) {
+          i--;
+        }
+        if (i < 0) {
+          return true;
+        }
+      }
+      pos += shifts[b & 0xFF];
+    }
+    return false;
+  }
+}
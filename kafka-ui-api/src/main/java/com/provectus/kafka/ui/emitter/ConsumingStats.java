@@ -6,7 +6,6 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.utils.Bytes;
-import reactor.core.publisher.FluxSink;
 
 class ConsumingStats {
 
@@ -14,9 +13,9 @@ class ConsumingStats {
   private int records = 0;
   private long elapsed = 0;
 
-  void sendConsumingEvt(FluxSink<TopicMessageEventDTO> sink,
-                        ConsumerRecords<Bytes, Bytes> polledRecords,
-                        long elapsed) {
+  TopicMessageEventDTO createConsumingEvt(ConsumerRecords<Bytes, Bytes> polledRecords,
+                                          long elapsed,
+                                          boolean cancelled) {
     for (ConsumerRecord<Bytes, Bytes> rec : polledRecords) {
       for (Header header : rec.headers()) {
         bytes +=
@@ -30,12 +29,10 @@ class ConsumingStats {
     final TopicMessageConsumingDTO consuming = new TopicMessageConsumingDTO()
         .bytesConsumed(this.bytes)
         .elapsedMs(this.elapsed)
-        .isCancelled(sink.isCancelled())
+        .isCancelled(cancelled)
         .messagesConsumed(this.records);
-    sink.next(
-        new TopicMessageEventDTO()
-            .type(TopicMessageEventDTO.TypeEnum.CONSUMING)
-            .consuming(consuming)
-    );
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.CONSUMING)
+        .consuming(consuming);
   }
 }
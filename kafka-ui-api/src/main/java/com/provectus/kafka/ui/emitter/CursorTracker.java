@@ -0,0 +1,125 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.Cursor;
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracks which records of a paginated scan were consumed by client to build the cursor for
+ * the next page. Emitter registers offsets ranges it is going to read, messages are tracked
+ * before filtering ({@link #scanned}) and after limiting ({@link #delivered}): messages which
+ * were filtered out before the last delivered one are consumed as well.
+ * Expects all calls to be done sequentially (as reactor signals are).
+ */
+public class CursorTracker {
+
+  private final String topic;
+  private final SeekDirectionDTO seekDirection;
+  @Nullable
+  private final String query;
+  @Nullable
+  private final MessageFilterTypeDTO filterQueryType;
+
+  private final Map<TopicPartition, Cursor.Range> remaining = new HashMap<>();
+  // partition -> offset of the last scanned message which is not yet confirmed as consumed
+  private final Map<Integer, Long> pending = new HashMap<>();
+  private boolean rangesRegistered;
+  private boolean scanCompleted;
+  // last scanned message's partition and its previous pending offset, used to roll it back
+  // when it was rejected by limit
+  @Nullable
+  private Integer lastScannedPartition;
+  @Nullable
+  private Long lastScannedPrevPending;
+
+  public CursorTracker(String topic,
+                       SeekDirectionDTO seekDirection,
+                       @Nullable String query,
+                       @Nullable MessageFilterTypeDTO filterQueryType) {
+    this.topic = topic;
+    this.seekDirection = seekDirection;
+    this.query = query;
+    this.filterQueryType = filterQueryType;
+  }
+
+  /**
+   * Called by emitter before messages are sent with [from, to] ranges of offsets to be read.
+   */
+  void registerRanges(Map<TopicPartition, Cursor.Range> ranges) {
+    ranges.forEach((tp, range) -> {
+      if (range.getFrom() <= range.getTo()) {
+        remaining.put(tp, range);
+      }
+    });
+    rangesRegistered = true;
+  }
+
+  public void scanned(TopicMessageEventDTO event) {
+    if (event.getType() != TopicMessageEventDTO.TypeEnum.MESSAGE) {
+      return;
+    }
+    TopicMessageDTO msg = event.getMessage();
+    lastScannedPartition = msg.getPartition();
+    lastScannedPrevPending = pending.put(msg.getPartition(), msg.getOffset());
+  }
+
+  public void delivered(TopicMessageEventDTO event) {
+    if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE) {
+      commitPending();
+    }
+  }
+
+  public void scanCompleted() {
+    scanCompleted = true;
+  }
+
+  /**
+   * Returns cursor for the next page, or null if nothing is left to read.
+   */
+  @Nullable
+  public Cursor nextPageCursor() {
+    if (!rangesRegistered || scanCompleted) {
+      return null;
+    }
+    // scan was stopped by limit on last scanned message - it was not delivered
+    if (lastScannedPartition != null) {
+      if (lastScannedPrevPending == null) {
+        pending.remove(lastScannedPartition);
+      } else {
+        pending.put(lastScannedPartition, lastScannedPrevPending);
+      }
+      lastScannedPartition = null;
+    }
+    commitPending();
+    if (remaining.isEmpty()) {
+      return null;
+    }
+    return new Cursor(topic, seekDirection, query, filterQueryType, Map.copyOf(remaining));
+  }
+
+  private void commitPending() {
+    pending.forEach((partition, offset) -> {
+      var tp = new TopicPartition(topic, partition);
+      var range = remaining.get(tp);
+      if (range == null) {
+        return;
+      }
+      var left = seekDirection == SeekDirectionDTO.BACKWARD
+          ? new Cursor.Range(range.getFrom(), Math.min(range.getTo(), offset - 1))
+          : new Cursor.Range(Math.max(range.getFrom(), offset + 1), range.getTo());
+      if (left.getFrom() > left.getTo()) {
+        remaining.remove(tp);
+      } else {
+        remaining.put(tp, left);
+      }
+    });
+    pending.clear();
+    lastScannedPartition = null;
+  }
+}
@@ -0,0 +1,411 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nullable;
+import messagefilter.MessageFilterGrammarLexer;
+import messagefilter.MessageFilterGrammarParser;
+import messagefilter.MessageFilterGrammarParser.AndExpressionContext;
+import messagefilter.MessageFilterGrammarParser.BooleanLiteralContext;
+import messagefilter.MessageFilterGrammarParser.ComparisonExpressionContext;
+import messagefilter.MessageFilterGrammarParser.ExpressionContext;
+import messagefilter.MessageFilterGrammarParser.FieldElementContext;
+import messagefilter.MessageFilterGrammarParser.IndexElementContext;
+import messagefilter.MessageFilterGrammarParser.LiteralContext;
+import messagefilter.MessageFilterGrammarParser.NotExpressionContext;
+import messagefilter.MessageFilterGrammarParser.NullLiteralContext;
+import messagefilter.MessageFilterGrammarParser.NumberLiteralContext;
+import messagefilter.MessageFilterGrammarParser.OperandContext;
+import messagefilter.MessageFilterGrammarParser.OperandExpressionContext;
+import messagefilter.MessageFilterGrammarParser.OrExpressionContext;
+import messagefilter.MessageFilterGrammarParser.ParenthesizedExpressionContext;
+import messagefilter.MessageFilterGrammarParser.PathContext;
+import messagefilter.MessageFilterGrammarParser.PathElementContext;
+import messagefilter.MessageFilterGrammarParser.QuotedFieldElementContext;
+import messagefilter.MessageFilterGrammarParser.StringLiteralContext;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+/**
+ * Filter defined by simple typed expression, for example:
+ * <pre>
+ *   value.order.total &gt; 100 &amp;&amp; (headers.source == "web" || keyAsText =~ "^user-\d+")
+ * </pre>
+ * Expression is parsed and compiled once into predicates tree. Message's key and value are
+ * parsed as json lazily - only when expression references them, and at most once per message.
+ *
+ * <p>Available roots: key, value (json), keyAsText, valueAsText, headers, partition, offset,
+ * timestampMs. Json fields are accessed with {@code .field}, {@code ["field"]} or {@code [index]}.
+ * Comparing values of different types (or missing fields) evaluates to false.
+ */
+final class ExpressionFilter {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final int NOT_COMPARABLE = Integer.MIN_VALUE;
+
+  private ExpressionFilter() {
+  }
+
+  static Predicate<TopicMessageDTO> compile(String expression) {
+    Condition condition = compileExpression(parse(expression).expression());
+    return msg -> condition.test(new EvalContext(msg));
+  }
+
+  private static MessageFilterGrammarParser.FilterContext parse(String expression) {
+    var errorListener = new BaseErrorListener() {
+      @Override
+      public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                              int line, int charPositionInLine,
+                              String msg, RecognitionException e) {
+        throw new ValidationException(
+            String.format("Filter expression syntax error at position %d: %s", charPositionInLine, msg));
+      }
+    };
+    var lexer = new MessageFilterGrammarLexer(CharStreams.fromString(expression));
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+    var parser = new MessageFilterGrammarParser(new CommonTokenStream(lexer));
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+    return parser.filter();
+  }
+
+  private static Condition compileExpression(ExpressionContext ctx) {
+    if (ctx instanceof ParenthesizedExpressionContext) {
+      return compileExpression(((ParenthesizedExpressionContext) ctx).expression());
+    }
+    if (ctx instanceof NotExpressionContext) {
+      Condition condition = compileExpression(((NotExpressionContext) ctx).expression());
+      return evalCtx -> !condition.test(evalCtx);
+    }
+    if (ctx instanceof AndExpressionContext) {
+      Condition left = compileExpression(((AndExpressionContext) ctx).left);
+      Condition right = compileExpression(((AndExpressionContext) ctx).right);
+      return evalCtx -> left.test(evalCtx) && right.test(evalCtx);
+    }
+    if (ctx instanceof OrExpressionContext) {
+      Condition left = compileExpression(((OrExpressionContext) ctx).left);
+      Condition right = compileExpression(((OrExpressionContext) ctx).right);
+      return evalCtx -> left.test(evalCtx) || right.test(evalCtx);
+    }
+    if (ctx instanceof OperandExpressionContext) {
+      Operand operand = compileOperand(((OperandExpressionContext) ctx).operand());
+      return evalCtx -> Boolean.TRUE.equals(operand.get(evalCtx));
+    }
+    if (ctx instanceof ComparisonExpressionContext) {
+      return compileComparison((ComparisonExpressionContext) ctx);
+    }
+    throw new ValidationException("Unsupported expression: " + ctx.getText());
+  }
+
+  private static Condition compileComparison(ComparisonExpressionContext ctx) {
+    Operand left = compileOperand(ctx.left);
+    String operator = ctx.operator.getText();
+    if (operator.equals("=~")) {
+      Pattern pattern = compilePattern(ctx.right);
+      return evalCtx -> {
+        Object value = left.get(evalCtx);
+        return value != null
+            && !(value instanceof JsonNode)
+            && pattern.matcher(value.toString()).find();
+      };
+    }
+    Operand right = compileOperand(ctx.right);
+    switch (operator) {
+      case "==":
+        return evalCtx -> valuesEqual(left.get(evalCtx), right.get(evalCtx));
+      case "!=":
+        return evalCtx -> !valuesEqual(left.get(evalCtx), right.get(evalCtx));
+      case "<":
+        return ordering(left, right, cmp -> cmp < 0);
+      case "<=":
+        return ordering(left, right, cmp -> cmp <= 0);
+      case ">":
+        return ordering(left, right, cmp -> cmp > 0);
+      case ">=":
+        return ordering(left, right, cmp -> cmp >= 0);
+      default:
+        throw new ValidationException("Unsupported operator: " + operator);
+    }
+  }
+
+  private static Condition ordering(Operand left, Operand right, IntPredicate cmpCheck) {
+    return evalCtx -> {
+      int cmp = compare(left.get(evalCtx), right.get(evalCtx));
+      return cmp != NOT_COMPARABLE && cmpCheck.test(cmp);
+    };
+  }
+
+  private static Pattern compilePattern(OperandContext ctx) {
+    if (!(ctx.literal() instanceof StringLiteralContext)) {
+      throw new ValidationException("Right side of =~ operator should be a string literal");
+    }
+    String regex = unquote(((StringLiteralContext) ctx.literal()).STRING().getText());
+    try {
+      return Pattern.compile(regex);
+    } catch (PatternSyntaxException e) {
+      throw new ValidationException("Invalid regular expression: " + e.getMessage());
+    }
+  }
+
+  private static Operand compileOperand(OperandContext ctx) {
+    if (ctx.literal() != null) {
+      Object literal = literalValue(ctx.literal());
+      return evalCtx -> literal;
+    }
+    return compilePath(ctx.path());
+  }
+
+  @Nullable
+  private static Object literalValue(LiteralContext ctx) {
+    if (ctx instanceof StringLiteralContext) {
+      return unquote(((StringLiteralContext) ctx).STRING().getText());
+    }
+    if (ctx instanceof NumberLiteralContext) {
+      return parseNumber(ctx.getText());
+    }
+    if (ctx instanceof BooleanLiteralContext) {
+      return ((BooleanLiteralContext) ctx).TRUE() != null;
+    }
+    if (ctx instanceof NullLiteralContext) {
+      return null;
+    }
+    throw new ValidationException("Unsupported literal: " + ctx.getText());
+  }
+
+  private static Number parseNumber(String text) {
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException e) {
+      return Double.parseDouble(text);
+    }
+  }
+
+  private static Operand compilePath(PathContext ctx) {
+    String root = ctx.IDENTIFIER().getText();
+    List<PathElementContext> elements = ctx.pathElement();
+    switch (root) {
+      case "partition":
+        checkNoPathElements(root, elements);
+        return evalCtx -> evalCtx.msg.getPartition().longValue();
+      case "offset":
+        checkNoPathElements(root, elements);
+        return evalCtx -> evalCtx.msg.getOffset();
+      case "timestampMs":
+        checkNoPathElements(root, elements);
+        return evalCtx -> evalCtx.msg.getTimestamp().toInstant().toEpochMilli();
+      case "keyAsText":
+        checkNoPathElements(root, elements);
+        return evalCtx -> evalCtx.msg.getKey();
+      case "valueAsText":
+        checkNoPathElements(root, elements);
+        return evalCtx -> evalCtx.msg.getContent();
+      case "headers":
+        if (elements.size() != 1 || elements.get(0) instanceof IndexElementContext) {
+          throw new ValidationException("Header should be accessed as headers.name or headers[\"name\"]");
+        }
+        String header = fieldName(elements.get(0));
+        return evalCtx -> evalCtx.msg.getHeaders() == null ? null : evalCtx.msg.getHeaders().get(header);
+      case "key": {
+        JsonAccessor accessor = compileJsonAccessor(elements);
+        return evalCtx -> jsonValue(accessor.get(evalCtx.key()));
+      }
+      case "value": {
+        JsonAccessor accessor = compileJsonAccessor(elements);
+        return evalCtx -> jsonValue(accessor.get(evalCtx.value()));
+      }
+      default:
+        throw new ValidationException("Unknown field '" + root + "'. Expression should reference one of: "
+            + "key, value, keyAsText, valueAsText, headers, partition, offset, timestampMs");
+    }
+  }
+
+  private static void checkNoPathElements(String root, List<PathElementContext> elements) {
+    if (!elements.isEmpty()) {
+      throw new ValidationException("'" + root + "' can't have nested fields");
+    }
+  }
+
+  private static String fieldName(PathElementContext ctx) {
+    if (ctx instanceof FieldElementContext) {
+      return ((FieldElementContext) ctx).fieldName().getText();
+    }
+    return unquote(((QuotedFieldElementContext) ctx).STRING().getText());
+  }
+
+  private static JsonAccessor compileJsonAccessor(List<PathElementContext> elements) {
+    List<JsonAccessor> steps = new ArrayList<>();
+    for (PathElementContext element : elements) {
+      if (element instanceof IndexElementContext) {
+        int idx = Integer.parseInt(((IndexElementContext) element).INTEGER().getText());
+        steps.add(node -> node.get(idx));
+      } else {
+        String field = fieldName(element);
+        steps.add(node -> node.get(field));
+      }
+    }
+    JsonAccessor[] path = steps.toArray(JsonAccessor[]::new);
+    return node -> {
+      for (int i = 0; i < path.length && node != null; i++) {
+        node = path[i].get(node);
+      }
+      return node;
+    };
+  }
+
+  private static String unquote(String quoted) {
+    String str = quoted.substring(1, quoted.length() - 1);
+    if (str.indexOf('\\') < 0) {
+      return str;
+    }
+    StringBuilder sb = new StringBuilder(str.length());
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (c == '\\' && i + 1 < str.length()) {
+        char next = str.charAt(++i);
+        switch (next) {
+          case 'n':
+            sb.append('\n');
+            break;
+          case 't':
+            sb.append('\t');
+            break;
+          case '"':
+          case '\'':
+          case '\\':
+            sb.append(next);
+            break;
+          default:
+            // keeping escape as is - can be a part of regex (ex. "\d")
+            sb.append(c).append(next);
+        }
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Converts json scalars to String, Long, Double, Boolean or null. Containers
+   * are returned as is and can only be compared with null.
+   */
+  @Nullable
+  private static Object jsonValue(@Nullable JsonNode node) {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isIntegralNumber() && node.canConvertToLong()) {
+      return node.longValue();
+    }
+    if (node.isNumber()) {
+      return node.doubleValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node;
+  }
+
+  private static boolean valuesEqual(@Nullable Object left, @Nullable Object right) {
+    if (left == null || right == null) {
+      return left == right;
+    }
+    if (left instanceof Number && right instanceof Number) {
+      return compareNumbers((Number) left, (Number) right) == 0;
+    }
+    return left.equals(right);
+  }
+
+  private static int compare(@Nullable Object left, @Nullable Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      return compareNumbers((Number) left, (Number) right);
+    }
+    if (left instanceof String && right instanceof String) {
+      return Integer.signum(((String) left).compareTo((String) right));
+    }
+    return NOT_COMPARABLE;
+  }
+
+  private static int compareNumbers(Number left, Number right) {
+    if (left instanceof Long && right instanceof Long) {
+      return Long.compare(left.longValue(), right.longValue());
+    }
+    return Double.compare(left.doubleValue(), right.doubleValue());
+  }
+
+  @FunctionalInterface
+  private interface Condition {
+    boolean test(EvalContext ctx);
+  }
+
+  @FunctionalInterface
+  private interface Operand {
+    @Nullable
+    Object get(EvalContext ctx);
+  }
+
+  @FunctionalInterface
+  private interface JsonAccessor {
+    @Nullable
+    JsonNode get(@Nullable JsonNode node);
+  }
+
+  private static class EvalContext {
+    final TopicMessageDTO msg;
+    @Nullable
+    private JsonNode key;
+    @Nullable
+    private JsonNode value;
+    private boolean keyParsed;
+    private boolean valueParsed;
+
+    EvalContext(TopicMessageDTO msg) {
+      this.msg = msg;
+    }
+
+    @Nullable
+    JsonNode key() {
+      if (!keyParsed) {
+        key = parseJson(msg.getKey());
+        keyParsed = true;
+      }
+      return key;
+    }
+
+    @Nullable
+    JsonNode value() {
+      if (!valueParsed) {
+        value = parseJson(msg.getContent());
+        valueParsed = true;
+      }
+      return value;
+    }
+
+    @Nullable
+    private static JsonNode parseJson(@Nullable String str) {
+      if (str == null) {
+        return null;
+      }
+      try {
+        return OBJECT_MAPPER.readTree(str);
+      } catch (Exception e) {
+        return null;
+      }
+    }
+  }
+}
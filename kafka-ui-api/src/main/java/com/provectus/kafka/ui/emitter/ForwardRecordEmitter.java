@@ -1,13 +1,22 @@
 package com.provectus.kafka.ui.emitter;
 
+import com.provectus.kafka.ui.model.Cursor;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
-import com.provectus.kafka.ui.serde.RecordSerDe;
 import com.provectus.kafka.ui.util.OffsetsSeek;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.Bytes;
 import reactor.core.publisher.FluxSink;
 
@@ -16,37 +25,71 @@ public class ForwardRecordEmitter
     extends AbstractEmitter
     implements java.util.function.Consumer<FluxSink<TopicMessageEventDTO>> {
 
+  // max number of records buffered per partition before it is paused
+  private static final int PARTITION_LOOKAHEAD = 100;
+
   private final Supplier<KafkaConsumer<Bytes, Bytes>> consumerSupplier;
   private final OffsetsSeek offsetsSeek;
+  @Nullable
+  private final CursorTracker cursorTracker;
+
+  public ForwardRecordEmitter(
+      Supplier<KafkaConsumer<Bytes, Bytes>> consumerSupplier,
+      OffsetsSeek offsetsSeek,
+      MessagesProcessing messagesProcessing) {
+    this(consumerSupplier, offsetsSeek, messagesProcessing, null);
+  }
 
   public ForwardRecordEmitter(
       Supplier<KafkaConsumer<Bytes, Bytes>> consumerSupplier,
       OffsetsSeek offsetsSeek,
-      RecordSerDe recordDeserializer) {
-    super(recordDeserializer);
+      MessagesProcessing messagesProcessing,
+      @Nullable CursorTracker cursorTracker) {
+    super(messagesProcessing);
     this.consumerSupplier = consumerSupplier;
     this.offsetsSeek = offsetsSeek;
+    this.cursorTracker = cursorTracker;
   }
 
   @Override
   public void accept(FluxSink<TopicMessageEventDTO> sink) {
     try (KafkaConsumer<Bytes, Bytes> consumer = consumerSupplier.get()) {
       sendPhase(sink, "Assigning partitions");
-      var waitingOffsets = offsetsSeek.assignAndSeek(consumer);
-      while (!sink.isCancelled() && !waitingOffsets.endReached()) {
+      var waitingOffsets = discoverOffsets(() -> offsetsSeek.assignAndSeek(consumer));
+      // partition -> last offset to read
+      final Map<TopicPartition, Long> lastOffsets = waitingOffsets.topicPartitions().stream()
+          .collect(Collectors.toMap(tp -> tp, tp -> waitingOffsets.getEndOffsets().get(tp.partition())));
+      var merger = new TimestampOrderedMerger(lastOffsets.keySet(), false);
+      Set<TopicPartition> nothingToRead = new HashSet<>(consumer.assignment());
+      nothingToRead.removeAll(lastOffsets.keySet());
+      consumer.pause(nothingToRead);
+      if (cursorTracker != null) {
+        cursorTracker.registerRanges(lastOffsets.entrySet().stream()
+            .collect(Collectors.toMap(
+                Map.Entry::getKey,
+                e -> new Cursor.Range(consumer.position(e.getKey()), e.getValue()))));
+      }
+
+      while (!sink.isCancelled()) {
+        updatePartitionsState(consumer, merger, lastOffsets);
+        ConsumerRecord<Bytes, Bytes> next;
+        while (!sink.isCancelled() && (next = merger.next()) != null) {
+          sendMessage(sink, next);
+        }
+        if (merger.isDone()) {
+          break;
+        }
         sendPhase(sink, "Polling");
         ConsumerRecords<Bytes, Bytes> records = poll(sink, consumer);
         log.info("{} records polled", records.count());
-
         for (ConsumerRecord<Bytes, Bytes> msg : records) {
-          if (!sink.isCancelled() && !waitingOffsets.endReached()) {
-            sendMessage(sink, msg);
-            waitingOffsets.markPolled(msg);
-          } else {
-            break;
+          TopicPartition tp = new TopicPartition(msg.topic(), msg.partition());
+          if (merger.isOpen(tp) && msg.offset() <= lastOffsets.get(tp)) {
+            merger.add(msg);
           }
         }
       }
+      flushMessages(sink);
       sink.complete();
       log.info("Polling finished");
     } catch (Exception e) {
@@ -54,4 +97,31 @@ public class ForwardRecordEmitter
       sink.error(e);
     }
   }
+
+  /**
+   * Finishes partitions which were read up to their last offsets and pauses
+   * partitions with full lookahead buffers, so they don't grow while we wait for others.
+   */
+  private void updatePartitionsState(Consumer<Bytes, Bytes> consumer,
+                                     TimestampOrderedMerger merger,
+                                     Map<TopicPartition, Long> lastOffsets) {
+    List<TopicPartition> toPause = new ArrayList<>();
+    List<TopicPartition> toResume = new ArrayList<>();
+    for (Map.Entry<TopicPartition, Long> entry : lastOffsets.entrySet()) {
+      TopicPartition tp = entry.getKey();
+      if (!merger.isOpen(tp)) {
+        continue;
+      }
+      if (consumer.position(tp) > entry.getValue()) {
+        merger.finish(tp);
+        toPause.add(tp);
+      } else if (merger.buffered(tp) >= PARTITION_LOOKAHEAD) {
+        toPause.add(tp);
+      } else {
+        toResume.add(tp);
+      }
+    }
+    consumer.pause(toPause);
+    consumer.resume(toResume);
+  }
 }
@@ -0,0 +1,228 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.Cursor;
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.Value;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Caches pages of the latest topic's messages (backward scans from the end of topic), since the
+ * same page is requested by many users and on every refresh. Page is stored with partitions'
+ * begin and end offsets it was read at: it is served as is while offsets are the same, and can be
+ * extended with messages appended after it ({@link #extend}). Pages are evicted in LRU order when
+ * their total estimated size exceeds the limit, or when they expire.
+ */
+public class LatestMessagesCache {
+
+  private static final String PREFIX = "kafka.ui.messages.cache.";
+
+  private final long maxBytes;
+  private final Duration ttl;
+  private final Clock clock;
+  private final LinkedHashMap<Key, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong size = new AtomicLong();
+  private final Counter hits;
+  private final Counter extensions;
+  private final Counter misses;
+
+  public LatestMessagesCache(long maxBytes, Duration ttl, Clock clock, MeterRegistry registry, String cluster) {
+    this.maxBytes = maxBytes;
+    this.ttl = ttl;
+    this.clock = clock;
+    this.hits = counter(registry, cluster, "hit");
+    this.extensions = counter(registry, cluster, "extended");
+    this.misses = counter(registry, cluster, "miss");
+    Gauge.builder(PREFIX + "size", size, AtomicLong::get)
+        .description("Estimated size of cached messages")
+        .baseUnit("bytes")
+        .tag("cluster", cluster)
+        .register(registry);
+  }
+
+  private static Counter counter(MeterRegistry registry, String cluster, String result) {
+    return Counter.builder(PREFIX + "requests")
+        .description("Number of latest messages requests by cache lookup result")
+        .tags("cluster", cluster, "result", result)
+        .register(registry);
+  }
+
+  /**
+   * Only scans from the end of partitions without bounds depend on partitions' end offsets only.
+   * Backward scan of both seek types starts from the end of requested partitions, seekTo offsets
+   * are not used by them.
+   */
+  public static boolean cacheable(SeekTypeDTO seekType,
+                                  SeekDirectionDTO seekDirection,
+                                  @Nullable Long boundTimestamp) {
+    return seekDirection == SeekDirectionDTO.BACKWARD
+        && boundTimestamp == null
+        && (seekType == SeekTypeDTO.BEGINNING || seekType == SeekTypeDTO.LATEST);
+  }
+
+  @Nullable
+  public synchronized Page get(Key key) {
+    Page page = pages.get(key);
+    if (page != null && clock.millis() - page.getCreatedAt() > ttl.toMillis()) {
+      remove(key);
+      return null;
+    }
+    return page;
+  }
+
+  public synchronized void put(Key key, Page page) {
+    remove(key);
+    if (page.getSize() > maxBytes) {
+      return;
+    }
+    pages.put(key, page);
+    size.addAndGet(page.getSize());
+    for (Iterator<Page> it = pages.values().iterator(); size.get() > maxBytes && it.hasNext(); ) {
+      size.addAndGet(-it.next().getSize());
+      it.remove();
+    }
+  }
+
+  private void remove(Key key) {
+    Page removed = pages.remove(key);
+    if (removed != null) {
+      size.addAndGet(-removed.getSize());
+    }
+  }
+
+  public void hit() {
+    hits.increment();
+  }
+
+  public void extended() {
+    extensions.increment();
+  }
+
+  public void miss() {
+    misses.increment();
+  }
+
+  public Page page(List<TopicMessageDTO> messages,
+                   @Nullable Cursor nextPage,
+                   Map<TopicPartition, Long> beginOffsets,
+                   Map<TopicPartition, Long> endOffsets) {
+    long bytes = 0;
+    for (TopicMessageDTO msg : messages) {
+      bytes += AbstractEmitter.estimateSize(msg);
+    }
+    return new Page(List.copyOf(messages), nextPage, Map.copyOf(beginOffsets), Map.copyOf(endOffsets),
+        clock.millis(), bytes);
+  }
+
+  /**
+   * Creates page with messages appended to partitions since cached page was read (tail, which was
+   * read completely) followed by the newest cached messages, up to limit. Cached messages which
+   * don't fit into the page anymore are added to the next page cursor. Returns null if they can't
+   * be added: since timestamps can be non-monotonic, dropped messages of partition can be
+   * interleaved with the kept ones, and page should be read again in that case.
+   */
+  @Nullable
+  public Page extend(Key key, Page cached, List<TopicMessageDTO> tail, Map<TopicPartition, Long> endOffsets) {
+    List<TopicMessageDTO> merged = new ArrayList<>(tail.size() + cached.getMessages().size());
+    merged.addAll(tail);
+    merged.addAll(cached.getMessages());
+    // stable sort keeps tail messages first for equal timestamps
+    merged.sort(Comparator.comparing(TopicMessageDTO::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder())));
+    if (merged.size() <= key.getLimit()) {
+      return page(merged, cached.getNextPage(), cached.getBeginOffsets(), endOffsets);
+    }
+    Map<TopicPartition, Cursor.Range> ranges = new HashMap<>(
+        cached.getNextPage() != null ? cached.getNextPage().getRanges() : Map.of());
+    for (TopicMessageDTO msg : merged.subList(key.getLimit(), merged.size())) {
+      // range left to read is extended up to the dropped message
+      ranges.merge(
+          new TopicPartition(key.getTopic(), msg.getPartition()),
+          new Cursor.Range(msg.getOffset(), msg.getOffset()),
+          (r1, r2) -> new Cursor.Range(Math.min(r1.getFrom(), r2.getFrom()), Math.max(r1.getTo(), r2.getTo())));
+    }
+    List<TopicMessageDTO> kept = merged.subList(0, key.getLimit());
+    for (TopicMessageDTO msg : kept) {
+      Cursor.Range range = ranges.get(new TopicPartition(key.getTopic(), msg.getPartition()));
+      if (range != null && range.getFrom() <= msg.getOffset() && msg.getOffset() <= range.getTo()) {
+        return null;
+      }
+    }
+    var nextPage = new Cursor(key.getTopic(), SeekDirectionDTO.BACKWARD, key.getQuery(), key.getFilterQueryType(),
+        Map.copyOf(ranges));
+    return page(kept, nextPage, cached.getBeginOffsets(), endOffsets);
+  }
+
+  /**
+   * Returns number of records appended since page was read, or -1 if page can't be extended,
+   * since records were deleted or partitions were changed.
+   */
+  public static long appendedSince(Page page,
+                                   Map<TopicPartition, Long> beginOffsets,
+                                   Map<TopicPartition, Long> endOffsets) {
+    if (!page.getBeginOffsets().equals(beginOffsets) || !page.getEndOffsets().keySet().equals(endOffsets.keySet())) {
+      return -1;
+    }
+    long appended = 0;
+    for (Map.Entry<TopicPartition, Long> e : endOffsets.entrySet()) {
+      long diff = e.getValue() - page.getEndOffsets().get(e.getKey());
+      if (diff < 0) {
+        return -1;
+      }
+      appended += diff;
+    }
+    return appended;
+  }
+
+  /**
+   * Offsets ranges of records appended since page was read.
+   */
+  public static Map<TopicPartition, Cursor.Range> appendedRanges(Page page, Map<TopicPartition, Long> endOffsets) {
+    return endOffsets.entrySet().stream()
+        .filter(e -> e.getValue() > page.getEndOffsets().get(e.getKey()))
+        .collect(Collectors.toMap(
+            Map.Entry::getKey,
+            e -> new Cursor.Range(page.getEndOffsets().get(e.getKey()), e.getValue() - 1)));
+  }
+
+  @Value
+  public static class Key {
+    String topic;
+    SeekTypeDTO seekType;
+    // empty set means all partitions
+    Set<Integer> partitions;
+    @Nullable
+    String query;
+    @Nullable
+    MessageFilterTypeDTO filterQueryType;
+    int limit;
+  }
+
+  @Value
+  public static class Page {
+    List<TopicMessageDTO> messages;
+    @Nullable
+    Cursor nextPage;
+    Map<TopicPartition, Long> beginOffsets;
+    Map<TopicPartition, Long> endOffsets;
+    long createdAt;
+    long size;
+  }
+}
@@ -3,14 +3,25 @@ package com.provectus.kafka.ui.emitter;
 import com.provectus.kafka.ui.exception.ValidationException;
 import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
 import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.serde.RecordSerDe;
 import groovy.json.JsonSlurper;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.utils.Bytes;
 import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
 
 @Slf4j
@@ -27,16 +38,141 @@ public class MessageFilters {
         return containsStringFilter(query);
       case GROOVY_SCRIPT:
         return groovyScriptFilter(query);
+      case EXPRESSION:
+        return ExpressionFilter.compile(query);
+      case CONTAINS_ANY:
+        return containsAnyFilter(parseTerms(query));
+      case REGEX:
+        return regexFilter(query);
+      case KEY_EQUALS:
+        // keys are compared before deserialization, see keyEqualsRawFilter
+        return msg -> true;
       default:
         throw new IllegalStateException("Unknown query type: " + type);
     }
   }
 
+  /**
+   * Creates filter that is applied to records before deserialization to skip records that
+   * can't match the query. It never rejects records which would match the query after
+   * deserialization, records that can't be checked on raw bytes are always passed.
+   */
+  public static Predicate<ConsumerRecord<Bytes, Bytes>> createRawFilter(String query,
+                                                                       MessageFilterTypeDTO type,
+                                                                       RecordSerDe serde) {
+    // replacement char can appear in deserialized string from malformed bytes
+    if (type == MessageFilterTypeDTO.STRING_CONTAINS && query.indexOf(0xFFFD) < 0) {
+      return containsStringRawFilter(query, serde);
+    }
+    if (type == MessageFilterTypeDTO.CONTAINS_ANY && query.indexOf(0xFFFD) < 0) {
+      return containsAnyRawFilter(parseTerms(query), serde);
+    }
+    return rec -> true;
+  }
+
+  /**
+   * Passes records which key bytes are equal to the given (serialized) key.
+   */
+  public static Predicate<ConsumerRecord<Bytes, Bytes>> keyEqualsRawFilter(byte[] key) {
+    return rec -> rec.key() != null && Arrays.equals(rec.key().get(), key);
+  }
+
+  static Predicate<ConsumerRecord<Bytes, Bytes>> containsStringRawFilter(String string,
+                                                                       RecordSerDe serde) {
+    var matcher = new BoyerMooreHorspoolMatcher(string.getBytes(StandardCharsets.UTF_8));
+    return rec -> rawMatches(rec, true, matcher::containedIn, serde)
+        || rawMatches(rec, false, matcher::containedIn, serde);
+  }
+
+  static Predicate<ConsumerRecord<Bytes, Bytes>> containsAnyRawFilter(List<String> terms,
+                                                                    RecordSerDe serde) {
+    var matcher = AhoCorasickMatcher.forUtf8Bytes(terms);
+    return rec -> rawMatches(rec, true, matcher::containedIn, serde)
+        || rawMatches(rec, false, matcher::containedIn, serde)
+        || rawHeadersMatch(rec, matcher::containedIn);
+  }
+
+  private static boolean rawMatches(ConsumerRecord<Bytes, Bytes> rec,
+                                    boolean isKey,
+                                    Predicate<byte[]> matcher,
+                                    RecordSerDe serde) {
+    Bytes bytes = isKey ? rec.key() : rec.value();
+    if (bytes == null) {
+      return false;
+    }
+    if (!serde.deserializesToRawString(rec, isKey)) {
+      // can't say anything before deserialization
+      return true;
+    }
+    return matcher.test(bytes.get());
+  }
+
+  private static boolean rawHeadersMatch(ConsumerRecord<Bytes, Bytes> rec, Predicate<byte[]> matcher) {
+    // headers values are converted to strings with default charset
+    if (!Charset.defaultCharset().equals(StandardCharsets.UTF_8)) {
+      return rec.headers().iterator().hasNext();
+    }
+    for (Header header : rec.headers()) {
+      if (header.value() != null && matcher.test(header.value())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   static Predicate<TopicMessageDTO> containsStringFilter(String string) {
     return msg -> StringUtils.contains(msg.getKey(), string)
         || StringUtils.contains(msg.getContent(), string);
   }
 
+  static Predicate<TopicMessageDTO> containsAnyFilter(List<String> terms) {
+    var matcher = AhoCorasickMatcher.forChars(terms);
+    return msg -> anyTextMatches(msg, matcher::containedIn);
+  }
+
+  static Predicate<TopicMessageDTO> regexFilter(String regex) {
+    Pattern pattern;
+    try {
+      pattern = Pattern.compile(regex);
+    } catch (PatternSyntaxException e) {
+      throw new ValidationException("Invalid regular expression: " + e.getMessage());
+    }
+    return msg -> anyTextMatches(msg, text -> pattern.matcher(text).find());
+  }
+
+  // key, content or one of headers values
+  private static boolean anyTextMatches(TopicMessageDTO msg, Predicate<String> matcher) {
+    if (msg.getKey() != null && matcher.test(msg.getKey())) {
+      return true;
+    }
+    if (msg.getContent() != null && matcher.test(msg.getContent())) {
+      return true;
+    }
+    if (msg.getHeaders() != null) {
+      for (String value : msg.getHeaders().values()) {
+        if (value != null && matcher.test(value)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Terms of CONTAINS_ANY query are separated by commas or new lines.
+   */
+  static List<String> parseTerms(String query) {
+    List<String> terms = Arrays.stream(query.split("[,\\n]"))
+        .map(String::trim)
+        .filter(t -> !t.isEmpty())
+        .distinct()
+        .collect(Collectors.toList());
+    if (terms.isEmpty()) {
+      throw new ValidationException("No search terms in query");
+    }
+    return terms;
+  }
+
   static Predicate<TopicMessageDTO> groovyScriptFilter(String script) {
     var compiledScript = compileScript(script);
     var jsonSlurper = new JsonSlurper();
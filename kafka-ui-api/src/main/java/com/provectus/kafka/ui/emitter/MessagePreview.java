@@ -0,0 +1,74 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.util.ClusterUtil;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Cuts messages' keys and contents to the preview length, so lists of messages stay light for
+ * topics with large records. Cut messages are marked as truncated, full message can be fetched
+ * by its partition and offset.
+ */
+public final class MessagePreview implements UnaryOperator<TopicMessageEventDTO> {
+
+  private final int maxLength;
+
+  private MessagePreview(int maxLength) {
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Returns null if messages should not be truncated.
+   */
+  @Nullable
+  public static MessagePreview create(@Nullable Integer maxLength) {
+    return maxLength == null || maxLength <= 0 ? null : new MessagePreview(maxLength);
+  }
+
+  @Override
+  public TopicMessageEventDTO apply(TopicMessageEventDTO event) {
+    // events can be shared between subscribers, so they are copied
+    if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE && event.getMessage() != null) {
+      return new TopicMessageEventDTO()
+          .type(event.getType())
+          .message(preview(event.getMessage()));
+    }
+    if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES && event.getMessages() != null) {
+      return new TopicMessageEventDTO()
+          .type(event.getType())
+          .messages(event.getMessages().stream().map(this::preview).collect(Collectors.toList()));
+    }
+    return event;
+  }
+
+  private TopicMessageDTO preview(TopicMessageDTO msg) {
+    if (fits(msg.getKey()) && fits(msg.getContent())) {
+      return msg;
+    }
+    TopicMessageDTO preview = ClusterUtil.copyTopicMessage(msg);
+    preview.setKey(truncate(msg.getKey()));
+    preview.setContent(truncate(msg.getContent()));
+    preview.setTruncated(true);
+    return preview;
+  }
+
+  private boolean fits(@Nullable String str) {
+    return str == null || str.length() <= maxLength;
+  }
+
+  @Nullable
+  private String truncate(@Nullable String str) {
+    if (fits(str)) {
+      return str;
+    }
+    int end = maxLength;
+    // not splitting surrogate pair
+    if (Character.isHighSurrogate(str.charAt(end - 1))) {
+      end--;
+    }
+    return str.substring(0, end);
+  }
+}
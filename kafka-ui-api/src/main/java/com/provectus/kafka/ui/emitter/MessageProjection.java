@@ -0,0 +1,201 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.util.ClusterUtil;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Leaves only requested json fields in messages' keys and values, for example:
+ * <pre>
+ *   value.order.id, value.items[*].sku, value["field.with.dots"], key.userId
+ * </pre>
+ * Key and value are parsed with streaming parser: selected fields are copied to output as is,
+ * others are skipped without building json tree. Projected json keeps fields nesting, arrays
+ * contain only selected elements. Key or value is returned unchanged if it is not a json object
+ * or array, or if no paths were requested for it.
+ */
+public final class MessageProjection implements UnaryOperator<TopicMessageEventDTO> {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final Pattern PATH_ELEMENT =
+      Pattern.compile("\\.([A-Za-z_$][\\w$-]*)|\\[\"((?:[^\"\\\\]|\\\\.)*)\"]|\\[(\\d+|\\*)]");
+
+  @Nullable
+  private final Node key;
+  @Nullable
+  private final Node value;
+
+  private MessageProjection(@Nullable Node key, @Nullable Node value) {
+    this.key = key;
+    this.value = value;
+  }
+
+  /**
+   * Returns null if there is nothing to project.
+   */
+  @Nullable
+  public static MessageProjection compile(@Nullable List<String> paths) {
+    if (paths == null || paths.isEmpty()) {
+      return null;
+    }
+    Node key = null;
+    Node value = null;
+    for (String path : paths) {
+      String trimmed = path.trim();
+      if (trimmed.startsWith("key")) {
+        key = addPath(key == null ? new Node() : key, trimmed, "key".length());
+      } else if (trimmed.startsWith("value")) {
+        value = addPath(value == null ? new Node() : value, trimmed, "value".length());
+      } else {
+        throw new ValidationException("Projection path should start with 'key' or 'value': " + path);
+      }
+    }
+    return new MessageProjection(key, value);
+  }
+
+  private static Node addPath(Node root, String path, int start) {
+    Node node = root;
+    Matcher matcher = PATH_ELEMENT.matcher(path);
+    int pos = start;
+    while (pos < path.length()) {
+      if (!matcher.find(pos) || matcher.start() != pos) {
+        throw new ValidationException(
+            String.format("Invalid projection path '%s' at position %d", path, pos));
+      }
+      if (matcher.group(1) != null) {
+        node = node.fields.computeIfAbsent(matcher.group(1), f -> new Node());
+      } else if (matcher.group(2) != null) {
+        node = node.fields.computeIfAbsent(
+            matcher.group(2).replaceAll("\\\\(.)", "$1"), f -> new Node());
+      } else if (matcher.group(3).equals("*")) {
+        if (node.anyElement == null) {
+          node.anyElement = new Node();
+        }
+        node = node.anyElement;
+      } else {
+        node = node.elements.computeIfAbsent(Integer.parseInt(matcher.group(3)), i -> new Node());
+      }
+      pos = matcher.end();
+    }
+    node.whole = true;
+    return root;
+  }
+
+  @Override
+  public TopicMessageEventDTO apply(TopicMessageEventDTO event) {
+    // events can be shared between subscribers, so they are copied
+    if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE && event.getMessage() != null) {
+      return new TopicMessageEventDTO()
+          .type(event.getType())
+          .message(project(event.getMessage()));
+    }
+    if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES && event.getMessages() != null) {
+      return new TopicMessageEventDTO()
+          .type(event.getType())
+          .messages(event.getMessages().stream().map(this::project).collect(Collectors.toList()));
+    }
+    return event;
+  }
+
+  private TopicMessageDTO project(TopicMessageDTO msg) {
+    TopicMessageDTO projected = ClusterUtil.copyTopicMessage(msg);
+    if (key != null) {
+      projected.setKey(project(msg.getKey(), key));
+    }
+    if (value != null) {
+      projected.setContent(project(msg.getContent(), value));
+    }
+    return projected;
+  }
+
+  @Nullable
+  private static String project(@Nullable String json, Node root) {
+    if (json == null || root.whole) {
+      return json;
+    }
+    var out = new StringWriter();
+    try (JsonParser parser = JSON_FACTORY.createParser(json);
+         JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      JsonToken token = parser.nextToken();
+      if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+        return json;
+      }
+      copySelected(parser, generator, root);
+    } catch (IOException e) {
+      // not a json, leaving as is
+      return json;
+    }
+    return out.toString();
+  }
+
+  // parser should point to the container's start token, which is written with its selected children
+  private static void copySelected(JsonParser parser, JsonGenerator generator, Node node) throws IOException {
+    if (parser.currentToken() == JsonToken.START_OBJECT) {
+      generator.writeStartObject();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        Node child = node.fields.get(name);
+        if (child != null && child.accepts(parser.currentToken())) {
+          generator.writeFieldName(name);
+          copy(parser, generator, child);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      generator.writeEndObject();
+    } else {
+      generator.writeStartArray();
+      for (int i = 0; parser.nextToken() != JsonToken.END_ARRAY; i++) {
+        Node child = node.elements.getOrDefault(i, node.anyElement);
+        if (child != null && child.accepts(parser.currentToken())) {
+          copy(parser, generator, child);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  private static void copy(JsonParser parser, JsonGenerator generator, Node node) throws IOException {
+    if (node.whole) {
+      generator.copyCurrentStructure(parser);
+    } else {
+      copySelected(parser, generator, node);
+    }
+  }
+
+  private static final class Node {
+    private final Map<String, Node> fields = new HashMap<>();
+    private final Map<Integer, Node> elements = new HashMap<>();
+    @Nullable
+    private Node anyElement;
+    // whole value is selected
+    private boolean whole;
+
+    private boolean accepts(JsonToken token) {
+      if (whole) {
+        return true;
+      }
+      // scalars on the path to selected fields are skipped
+      return (token == JsonToken.START_OBJECT && !fields.isEmpty())
+          || (token == JsonToken.START_ARRAY && (!elements.isEmpty() || anyElement != null));
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.MessagesCopyProgressDTO;
+import com.provectus.kafka.ui.util.OffsetsSeek;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Copies records to the target topic as they are, without deserialization. Job's consumer should
+ * have its own group: position of each partition is committed to it together with partition's
+ * last offset to copy and request digest (as commit metadata) on every checkpoint, so stopped job
+ * is continued from the last checkpoint with the same offsets range. Job can't be continued with
+ * request which digest differs from the committed one. Producer's buffers are flushed before
+ * commit, so records are copied at least once.
+ */
+@Slf4j
+public class MessagesCopyJob implements java.util.function.Consumer<FluxSink<MessagesCopyProgressDTO>> {
+
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(1000);
+  private static final String METADATA_SEPARATOR = "/";
+
+  private final String jobId;
+  // identifies position, filter and target of the request
+  private final String requestDigest;
+  private final Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier;
+  private final Supplier<? extends Producer<Bytes, Bytes>> producerSupplier;
+  private final OffsetsSeek offsetsSeek;
+  private final String targetTopic;
+  private final boolean keepPartitions;
+  // records per second, 0 means no limit
+  private final int rateLimit;
+  private final Predicate<ConsumerRecord<Bytes, Bytes>> filter;
+  private final Duration checkpointInterval;
+
+  // producer's callbacks are invoked on its io thread
+  private final AtomicReference<Exception> sendError = new AtomicReference<>();
+  private long copied;
+  private long filtered;
+  private long bytesCopied;
+
+  public MessagesCopyJob(String jobId,
+                         String requestDigest,
+                         Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier,
+                         Supplier<? extends Producer<Bytes, Bytes>> producerSupplier,
+                         OffsetsSeek offsetsSeek,
+                         String targetTopic,
+                         boolean keepPartitions,
+                         int rateLimit,
+                         Predicate<ConsumerRecord<Bytes, Bytes>> filter,
+                         Duration checkpointInterval) {
+    this.jobId = jobId;
+    this.requestDigest = requestDigest;
+    this.consumerSupplier = consumerSupplier;
+    this.producerSupplier = producerSupplier;
+    this.offsetsSeek = offsetsSeek;
+    this.targetTopic = targetTopic;
+    this.keepPartitions = keepPartitions;
+    this.rateLimit = rateLimit;
+    this.filter = filter;
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  @Override
+  public void accept(FluxSink<MessagesCopyProgressDTO> sink) {
+    long started = System.currentTimeMillis();
+    try (Consumer<Bytes, Bytes> consumer = consumerSupplier.get();
+         Producer<Bytes, Bytes> producer = producerSupplier.get()) {
+      // partition -> last offset to copy
+      Map<TopicPartition, Long> lastOffsets = assignAndSeek(consumer);
+      // range is committed before copying, so it is known if job is stopped before the first checkpoint
+      checkpoint(consumer, producer, lastOffsets);
+      Set<TopicPartition> open = new HashSet<>(lastOffsets.keySet());
+      long lastCheckpoint = System.currentTimeMillis();
+      while (!sink.isCancelled() && !finishPartitions(consumer, lastOffsets, open)) {
+        ConsumerRecords<Bytes, Bytes> records = consumer.poll(POLL_TIMEOUT);
+        for (TopicPartition tp : records.partitions()) {
+          long lastOffset = lastOffsets.getOrDefault(tp, -1L);
+          for (ConsumerRecord<Bytes, Bytes> rec : records.records(tp)) {
+            if (rec.offset() > lastOffset) {
+              break;
+            }
+            if (filter.test(rec)) {
+              send(producer, rec);
+            } else {
+              filtered++;
+            }
+          }
+        }
+        throwIfSendFailed();
+        throttle(started);
+        if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval.toMillis()) {
+          long remaining = checkpoint(consumer, producer, lastOffsets);
+          sink.next(progress(MessagesCopyProgressDTO.StateEnum.RUNNING, remaining, started));
+          lastCheckpoint = System.currentTimeMillis();
+        }
+      }
+      long remaining = checkpoint(consumer, producer, lastOffsets);
+      if (!sink.isCancelled()) {
+        sink.next(progress(MessagesCopyProgressDTO.StateEnum.DONE, remaining, started));
+        sink.complete();
+      }
+      log.info("Copy job {} finished, {} records copied", jobId, copied);
+    } catch (Exception e) {
+      log.error("Error occurred while copying records, job {}", jobId, e);
+      sink.error(e);
+    }
+  }
+
+  private Map<TopicPartition, Long> assignAndSeek(Consumer<Bytes, Bytes> consumer) {
+    var partitions = new HashSet<>(offsetsSeek.getRequestedPartitions(consumer));
+    Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>(consumer.committed(partitions));
+    committed.values().removeIf(om -> om == null || om.metadata() == null || om.metadata().isEmpty());
+    if (!committed.isEmpty()) {
+      Set<String> digests = committed.values().stream()
+          .map(om -> om.metadata().split(METADATA_SEPARATOR))
+          // metadata without digest is accepted
+          .filter(metadata -> metadata.length > 1)
+          .map(metadata -> metadata[1])
+          .collect(Collectors.toSet());
+      if (!digests.isEmpty() && !digests.equals(Set.of(requestDigest))) {
+        throw new ValidationException(String.format(
+            "Copy job %s was started with another position, filter or target, they can't be changed", jobId));
+      }
+      log.info("Continuing copy job {} from {}", jobId, committed);
+      consumer.assign(committed.keySet());
+      committed.forEach((tp, om) -> consumer.seek(tp, om.offset()));
+      return committed.entrySet().stream()
+          .collect(Collectors.toMap(Map.Entry::getKey,
+              e -> Long.parseLong(e.getValue().metadata().split(METADATA_SEPARATOR)[0])));
+    }
+    var waitingOffsets = offsetsSeek.assignAndSeek(consumer);
+    Map<TopicPartition, Long> lastOffsets = waitingOffsets.topicPartitions().stream()
+        .collect(Collectors.toMap(tp -> tp, tp -> waitingOffsets.getEndOffsets().get(tp.partition())));
+    Set<TopicPartition> nothingToCopy = new HashSet<>(consumer.assignment());
+    nothingToCopy.removeAll(lastOffsets.keySet());
+    consumer.pause(nothingToCopy);
+    return lastOffsets;
+  }
+
+  /**
+   * Pauses partitions which were read up to their last offsets, returns true if all partitions are read.
+   */
+  private static boolean finishPartitions(Consumer<Bytes, Bytes> consumer,
+                                          Map<TopicPartition, Long> lastOffsets,
+                                          Set<TopicPartition> open) {
+    List<TopicPartition> finished = open.stream()
+        .filter(tp -> consumer.position(tp) > lastOffsets.get(tp))
+        .collect(Collectors.toList());
+    consumer.pause(finished);
+    finished.forEach(open::remove);
+    return open.isEmpty();
+  }
+
+  private void send(Producer<Bytes, Bytes> producer, ConsumerRecord<Bytes, Bytes> rec) {
+    producer.send(
+        new ProducerRecord<>(
+            targetTopic,
+            keepPartitions ? rec.partition() : null,
+            rec.key(),
+            rec.value(),
+            rec.headers()),
+        (metadata, exception) -> {
+          if (exception != null) {
+            sendError.compareAndSet(null, exception);
+          }
+        });
+    copied++;
+    bytesCopied += Math.max(0, rec.serializedKeySize()) + Math.max(0, rec.serializedValueSize());
+  }
+
+  private void throwIfSendFailed() throws Exception {
+    Exception error = sendError.get();
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void throttle(long started) throws InterruptedException {
+    if (rateLimit <= 0) {
+      return;
+    }
+    long ahead = copied * 1000 / rateLimit - (System.currentTimeMillis() - started);
+    if (ahead > 0) {
+      Thread.sleep(ahead);
+    }
+  }
+
+  /**
+   * Commits positions of all partitions after sent records are acknowledged,
+   * returns number of records left to read.
+   */
+  private long checkpoint(Consumer<Bytes, Bytes> consumer,
+                          Producer<Bytes, Bytes> producer,
+                          Map<TopicPartition, Long> lastOffsets) throws Exception {
+    producer.flush();
+    throwIfSendFailed();
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    long remaining = 0;
+    for (Map.Entry<TopicPartition, Long> entry : lastOffsets.entrySet()) {
+      long next = Math.min(consumer.position(entry.getKey()), entry.getValue() + 1);
+      offsets.put(entry.getKey(),
+          new OffsetAndMetadata(next, entry.getValue() + METADATA_SEPARATOR + requestDigest));
+      remaining += entry.getValue() + 1 - next;
+    }
+    if (!offsets.isEmpty()) {
+      consumer.commitSync(offsets);
+    }
+    return remaining;
+  }
+
+  private MessagesCopyProgressDTO progress(MessagesCopyProgressDTO.StateEnum state, long remaining, long started) {
+    return new MessagesCopyProgressDTO()
+        .jobId(jobId)
+        .state(state)
+        .copied(copied)
+        .filtered(filtered)
+        .bytesCopied(bytesCopied)
+        .remaining(remaining)
+        .elapsedMs(System.currentTimeMillis() - started);
+  }
+}
@@ -0,0 +1,189 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.provectus.kafka.ui.serde.RecordSerDe;
+import com.provectus.kafka.ui.util.ClusterUtil;
+import com.provectus.kafka.ui.util.OffsetsSeekForward;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.utils.Bytes;
+
+/**
+ * Reads topic from position defined by {@link OffsetsSeekForward} up to partitions' end offsets
+ * and writes records as newline-delimited JSON. Output is returned in chunks of about
+ * {@link #CHUNK_SIZE} bytes (compressed, if gzip is enabled), records are polled only when
+ * the next chunk is requested, so memory usage doesn't depend on export size.
+ * Records are deserialized with serde, or written as base64-encoded bytes if serde is null.
+ */
+@Slf4j
+public class MessagesExporter implements Closeable {
+
+  static final int CHUNK_SIZE = 256 * 1024;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(1000);
+
+  private final Consumer<Bytes, Bytes> consumer;
+  private final OffsetsSeekForward offsetsSeek;
+  @Nullable
+  private final RecordSerDe serde;
+  private final ObjectMapper objectMapper;
+  private final ChunkOutputStream chunk = new ChunkOutputStream();
+  private final OutputStream out;
+  private final JsonGenerator generator;
+
+  // partition -> last offset to export, partitions are removed when exported
+  private Map<TopicPartition, Long> lastOffsets;
+  private Iterator<ConsumerRecord<Bytes, Bytes>> polled = Collections.emptyIterator();
+  private boolean finished;
+
+  public MessagesExporter(Consumer<Bytes, Bytes> consumer,
+                          OffsetsSeekForward offsetsSeek,
+                          @Nullable RecordSerDe serde,
+                          ObjectMapper objectMapper,
+                          boolean gzip) {
+    this.consumer = consumer;
+    this.offsetsSeek = offsetsSeek;
+    this.serde = serde;
+    this.objectMapper = objectMapper;
+    try {
+      this.out = gzip ? new GZIPOutputStream(chunk, 64 * 1024) : chunk;
+      this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+      // each record is written as a separate root value
+      this.generator.setRootValueSeparator(null);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the next chunk of export or null if everything was already returned.
+   */
+  @Nullable
+  public byte[] nextChunk() {
+    if (finished) {
+      return null;
+    }
+    if (lastOffsets == null) {
+      var waitingOffsets = offsetsSeek.assignAndSeek(consumer);
+      lastOffsets = waitingOffsets.topicPartitions().stream()
+          .collect(Collectors.toMap(tp -> tp, tp -> waitingOffsets.getEndOffsets().get(tp.partition())));
+      Set<TopicPartition> nothingToExport = new HashSet<>(consumer.assignment());
+      nothingToExport.removeAll(lastOffsets.keySet());
+      consumer.pause(nothingToExport);
+      log.info("Exporting {} partitions of {}", lastOffsets.size(), offsetsSeek.getConsumerPosition());
+    }
+    try {
+      while (chunk.size() < CHUNK_SIZE) {
+        if (polled.hasNext()) {
+          write(polled.next());
+        } else if (lastOffsets.isEmpty()) {
+          // closes gzip stream as well, writing its trailer
+          generator.close();
+          out.close();
+          finished = true;
+          break;
+        } else {
+          poll();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return chunk.take();
+  }
+
+  private void poll() {
+    List<ConsumerRecord<Bytes, Bytes>> records = new ArrayList<>();
+    for (ConsumerRecord<Bytes, Bytes> rec : consumer.poll(POLL_TIMEOUT)) {
+      Long last = lastOffsets.get(new TopicPartition(rec.topic(), rec.partition()));
+      if (last != null && rec.offset() <= last) {
+        records.add(rec);
+      }
+    }
+    polled = records.iterator();
+    // partitions are finished by position, since last offsets can be transaction markers
+    List<TopicPartition> exported = lastOffsets.entrySet().stream()
+        .filter(e -> consumer.position(e.getKey()) > e.getValue())
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList());
+    consumer.pause(exported);
+    exported.forEach(lastOffsets::remove);
+  }
+
+  private void write(ConsumerRecord<Bytes, Bytes> rec) throws IOException {
+    if (serde != null) {
+      objectMapper.writeValue(generator, ClusterUtil.mapToTopicMessage(rec, serde));
+    } else {
+      writeRaw(rec);
+    }
+    generator.writeRaw('\n');
+    // flushing generator's buffer, so chunk size is known
+    generator.flush();
+  }
+
+  private void writeRaw(ConsumerRecord<Bytes, Bytes> rec) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("partition", rec.partition());
+    generator.writeNumberField("offset", rec.offset());
+    generator.writeNumberField("timestamp", rec.timestamp());
+    generator.writeStringField("timestampType", rec.timestampType().name());
+    writeBinaryField("key", rec.key() != null ? rec.key().get() : null);
+    writeBinaryField("value", rec.value() != null ? rec.value().get() : null);
+    // headers keys can repeat, so they are written as array of key-value pairs
+    generator.writeArrayFieldStart("headers");
+    for (Header header : rec.headers()) {
+      generator.writeStartObject();
+      generator.writeStringField("key", header.key());
+      writeBinaryField("value", header.value());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  private void writeBinaryField(String name, @Nullable byte[] value) throws IOException {
+    if (value == null) {
+      generator.writeNullField(name);
+    } else {
+      generator.writeBinaryField(name, value);
+    }
+  }
+
+  @Override
+  public void close() {
+    consumer.close();
+  }
+
+  private static class ChunkOutputStream extends ByteArrayOutputStream {
+
+    ChunkOutputStream() {
+      super(CHUNK_SIZE + CHUNK_SIZE / 4);
+    }
+
+    byte[] take() {
+      byte[] result = toByteArray();
+      reset();
+      return result;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.serde.RecordSerDe;
+import com.provectus.kafka.ui.util.ClusterUtil;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Defines how polled records are converted to messages: raw filtering (see
+ * {@link MessageFilters#createRawFilter}) and deserialization. When parallelism is greater
+ * than 1, records are deserialized on the given scheduler, emitters keep up to
+ * {@code parallelism} records in-flight and send them in polling order.
+ * Emitters stop polling when messages which were not requested by subscriber yet
+ * take more than {@code maxBufferedBytes}.
+ */
+public class MessagesProcessing {
+
+  private final RecordSerDe recordDeserializer;
+  private final Predicate<ConsumerRecord<Bytes, Bytes>> rawFilter;
+  private final int parallelism;
+  private final Executor deserializationExecutor;
+  private final long maxBufferedBytes;
+  private final ScanMetrics metrics;
+
+  public MessagesProcessing(RecordSerDe recordDeserializer,
+                            Predicate<ConsumerRecord<Bytes, Bytes>> rawFilter,
+                            int parallelism,
+                            Scheduler deserializationScheduler,
+                            long maxBufferedBytes,
+                            ScanMetrics metrics) {
+    this.recordDeserializer = recordDeserializer;
+    this.rawFilter = rawFilter;
+    this.parallelism = Math.max(1, parallelism);
+    this.deserializationExecutor = deserializationScheduler::schedule;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.metrics = metrics;
+  }
+
+  // sequential processing without filtering and buffer limit
+  public MessagesProcessing(RecordSerDe recordDeserializer) {
+    this(recordDeserializer, rec -> true, 1, Schedulers.immediate(), Long.MAX_VALUE, ScanMetrics.noop());
+  }
+
+  boolean passesRawFilter(ConsumerRecord<Bytes, Bytes> rec) {
+    return rawFilter.test(rec);
+  }
+
+  int parallelism() {
+    return parallelism;
+  }
+
+  long maxBufferedBytes() {
+    return maxBufferedBytes;
+  }
+
+  ScanMetrics metrics() {
+    return metrics;
+  }
+
+  TopicMessageDTO deserialize(ConsumerRecord<Bytes, Bytes> rec) {
+    var parsed = metrics.timeDeserialization(() -> recordDeserializer.deserialize(rec));
+    return metrics.timeMapping(() -> ClusterUtil.mapToTopicMessage(rec, parsed));
+  }
+
+  CompletableFuture<TopicMessageDTO> deserializeAsync(ConsumerRecord<Bytes, Bytes> rec) {
+    return CompletableFuture.supplyAsync(() -> deserialize(rec), deserializationExecutor);
+  }
+}
@@ -0,0 +1,182 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.util.OffsetsSeek;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Reads records from random points spread across requested partitions. Number of sampled records
+ * is split between partitions proportionally to their sizes, partition's offsets range is divided
+ * into up to {@link #MAX_FETCHES_PER_PARTITION} equal strata, and a few consecutive records are read
+ * from a random offset of each stratum. Strata are read in rounds - one stratum of every partition
+ * per round, so the whole sample takes a few polls regardless of topic size.
+ */
+@Slf4j
+public class SamplingRecordEmitter
+    extends AbstractEmitter
+    implements java.util.function.Consumer<FluxSink<TopicMessageEventDTO>> {
+
+  static final int MAX_FETCHES_PER_PARTITION = 4;
+  // polls to read single round, records that were not read by then are skipped
+  private static final int MAX_POLLS_PER_ROUND = 3;
+
+  private final Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier;
+  private final OffsetsSeek offsetsSeek;
+  private final int samples;
+
+  public SamplingRecordEmitter(Supplier<? extends Consumer<Bytes, Bytes>> consumerSupplier,
+                               OffsetsSeek offsetsSeek,
+                               int samples,
+                               MessagesProcessing messagesProcessing) {
+    super(messagesProcessing);
+    this.consumerSupplier = consumerSupplier;
+    this.offsetsSeek = offsetsSeek;
+    this.samples = samples;
+  }
+
+  @Value
+  static class Fetch {
+    long from;
+    int count;
+  }
+
+  @Override
+  public void accept(FluxSink<TopicMessageEventDTO> sink) {
+    try (Consumer<Bytes, Bytes> consumer = consumerSupplier.get()) {
+      sendPhase(sink, "Planning samples");
+      final Map<TopicPartition, List<Fetch>> plan = discoverOffsets(() -> {
+        List<TopicPartition> partitions = offsetsSeek.getRequestedPartitions(consumer);
+        return plan(consumer.beginningOffsets(partitions), consumer.endOffsets(partitions),
+            samples, ThreadLocalRandom.current());
+      });
+      consumer.assign(plan.keySet());
+      for (int round = 0; round < MAX_FETCHES_PER_PARTITION && !sink.isCancelled(); round++) {
+        Map<TopicPartition, Fetch> roundFetches = new HashMap<>();
+        for (Map.Entry<TopicPartition, List<Fetch>> e : plan.entrySet()) {
+          if (e.getValue().size() > round) {
+            roundFetches.put(e.getKey(), e.getValue().get(round));
+          }
+        }
+        if (roundFetches.isEmpty()) {
+          break;
+        }
+        sendPhase(sink, String.format("Sampling round %d", round + 1));
+        readRound(sink, consumer, roundFetches);
+      }
+      flushMessages(sink);
+      sink.complete();
+      log.info("Sampling finished");
+    } catch (Exception e) {
+      log.error("Error occurred while sampling records", e);
+      sink.error(e);
+    }
+  }
+
+  private void readRound(FluxSink<TopicMessageEventDTO> sink,
+                         Consumer<Bytes, Bytes> consumer,
+                         Map<TopicPartition, Fetch> fetches) {
+    Map<TopicPartition, Integer> remaining = new HashMap<>();
+    fetches.forEach((tp, fetch) -> {
+      consumer.seek(tp, fetch.getFrom());
+      remaining.put(tp, fetch.getCount());
+    });
+    Set<TopicPartition> notFetched = new HashSet<>(consumer.assignment());
+    notFetched.removeAll(fetches.keySet());
+    consumer.pause(notFetched);
+    consumer.resume(fetches.keySet());
+    for (int i = 0; i < MAX_POLLS_PER_ROUND && !remaining.isEmpty() && !sink.isCancelled(); i++) {
+      ConsumerRecords<Bytes, Bytes> records = poll(sink, consumer);
+      for (ConsumerRecord<Bytes, Bytes> rec : records) {
+        TopicPartition tp = new TopicPartition(rec.topic(), rec.partition());
+        Integer left = remaining.get(tp);
+        if (left == null || rec.offset() < fetches.get(tp).getFrom()) {
+          continue;
+        }
+        sendMessage(sink, rec);
+        if (left > 1) {
+          remaining.put(tp, left - 1);
+        } else {
+          remaining.remove(tp);
+          consumer.pause(List.of(tp));
+        }
+      }
+    }
+  }
+
+  /**
+   * Splits samples between partitions proportionally to their sizes (by largest remainder) and
+   * picks fetch points - one per stratum of partition's offsets range.
+   */
+  static Map<TopicPartition, List<Fetch>> plan(Map<TopicPartition, Long> beginOffsets,
+                                               Map<TopicPartition, Long> endOffsets,
+                                               int samples,
+                                               Random random) {
+    Map<TopicPartition, Long> sizes = new HashMap<>();
+    long total = 0;
+    for (Map.Entry<TopicPartition, Long> e : endOffsets.entrySet()) {
+      long size = e.getValue() - beginOffsets.get(e.getKey());
+      if (size > 0) {
+        sizes.put(e.getKey(), size);
+        total += size;
+      }
+    }
+    Map<TopicPartition, Long> counts = new HashMap<>();
+    if (total <= samples) {
+      counts.putAll(sizes);
+    } else {
+      long allocated = 0;
+      for (Map.Entry<TopicPartition, Long> e : sizes.entrySet()) {
+        long count = samples * e.getValue() / total;
+        counts.put(e.getKey(), count);
+        allocated += count;
+      }
+      final long totalSize = total;
+      List<TopicPartition> byRemainder = new ArrayList<>(sizes.keySet());
+      byRemainder.sort(Comparator.comparingLong(
+          (TopicPartition tp) -> samples * sizes.get(tp) % totalSize).reversed());
+      for (int i = 0; i < samples - allocated; i++) {
+        counts.merge(byRemainder.get(i), 1L, Long::sum);
+      }
+    }
+    Map<TopicPartition, List<Fetch>> plan = new HashMap<>();
+    counts.forEach((tp, count) -> {
+      if (count > 0) {
+        plan.put(tp, partitionFetches(beginOffsets.get(tp), sizes.get(tp), count.intValue(), random));
+      }
+    });
+    return plan;
+  }
+
+  private static List<Fetch> partitionFetches(long begin, long size, int count, Random random) {
+    int fetchesCount = Math.min(MAX_FETCHES_PER_PARTITION, count);
+    List<Fetch> fetches = new ArrayList<>(fetchesCount);
+    for (int i = 0; i < fetchesCount; i++) {
+      long stratumFrom = begin + size * i / fetchesCount;
+      long stratumSize = begin + size * (i + 1) / fetchesCount - stratumFrom;
+      // fetch should not cross stratum bounds, so records are not sampled twice
+      int fetchSize = (int) Math.min(
+          (long) count * (i + 1) / fetchesCount - (long) count * i / fetchesCount, stratumSize);
+      long maxShift = stratumSize - fetchSize;
+      long shift = Math.min(maxShift, (long) (random.nextDouble() * (maxShift + 1)));
+      fetches.add(new Fetch(stratumFrom + shift, fetchSize));
+    }
+    return fetches;
+  }
+}
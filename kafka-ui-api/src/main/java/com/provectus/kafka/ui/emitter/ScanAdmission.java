@@ -0,0 +1,142 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.model.TopicMessagePhaseDTO;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Limits number of messages scans running at once, in total and per user. Scans which can't be
+ * started wait in the queue and are started in arrival order, skipping scans of users who already
+ * run their max number of scans. Waiting scans get phase events when their queue position changes.
+ * User is taken from subscriber's context by {@link #USER_CONTEXT_KEY}.
+ */
+public class ScanAdmission {
+
+  public static final String USER_CONTEXT_KEY = ScanAdmission.class.getName() + ".user";
+  private static final String ANONYMOUS = "anonymous";
+
+  private final int maxScans;
+  private final int maxScansPerUser;
+
+  private final LinkedList<Ticket> queue = new LinkedList<>();
+  private final Map<String, Integer> runningByUser = new HashMap<>();
+  private int running;
+
+  /**
+   * Non-positive limit means that number of scans is not limited.
+   */
+  public ScanAdmission(int maxScans, int maxScansPerUser) {
+    this.maxScans = maxScans > 0 ? maxScans : Integer.MAX_VALUE;
+    this.maxScansPerUser = maxScansPerUser > 0 ? maxScansPerUser : Integer.MAX_VALUE;
+  }
+
+  public Flux<TopicMessageEventDTO> admit(Flux<TopicMessageEventDTO> scan) {
+    return admit(scan, phase -> new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.PHASE)
+        .phase(new TopicMessagePhaseDTO().name(phase)));
+  }
+
+  /**
+   * Admits scan emitting any elements (like export chunks), waiting scan's phases are emitted as
+   * elements created by phaseEvent, or are not emitted if it returns null.
+   */
+  public <T> Flux<T> admit(Flux<T> scan, Function<String, T> phaseEvent) {
+    return Flux.deferContextual(ctx -> {
+      var ticket = new Ticket(ctx.getOrDefault(USER_CONTEXT_KEY, ANONYMOUS));
+      return Flux.<T>create(sink -> enqueue(ticket, sink, phaseEvent))
+          .concatWith(scan)
+          .doFinally(s -> release(ticket));
+    });
+  }
+
+  private <T> void enqueue(Ticket ticket, FluxSink<T> sink, Function<String, T> phaseEvent) {
+    List<Runnable> notifications;
+    synchronized (this) {
+      ticket.onAdmit = sink::complete;
+      ticket.onPhase = phase -> {
+        T event = phaseEvent.apply(phase);
+        if (event != null) {
+          sink.next(event);
+        }
+      };
+      queue.add(ticket);
+      notifications = dispatch();
+    }
+    notifications.forEach(Runnable::run);
+  }
+
+  private void release(Ticket ticket) {
+    List<Runnable> notifications;
+    synchronized (this) {
+      if (ticket.admitted) {
+        running--;
+        runningByUser.computeIfPresent(ticket.user, (u, n) -> n > 1 ? n - 1 : null);
+      } else {
+        queue.remove(ticket);
+      }
+      notifications = dispatch();
+    }
+    notifications.forEach(Runnable::run);
+  }
+
+  /**
+   * Admits waiting scans while there are free slots. Sinks are notified by returned actions
+   * after the lock is released, since subscribers can be called back synchronously.
+   */
+  private List<Runnable> dispatch() {
+    List<Runnable> notifications = new ArrayList<>();
+    int ahead = 0;
+    for (Iterator<Ticket> it = queue.iterator(); it.hasNext(); ) {
+      Ticket ticket = it.next();
+      int userRunning = runningByUser.getOrDefault(ticket.user, 0);
+      if (running < maxScans && userRunning < maxScansPerUser) {
+        it.remove();
+        ticket.admitted = true;
+        running++;
+        runningByUser.put(ticket.user, userRunning + 1);
+        notifications.add(ticket.onAdmit);
+        continue;
+      }
+      String phase = userRunning >= maxScansPerUser
+          ? String.format("Waiting for one of %d running scans of the user to finish", userRunning)
+          : String.format("Waiting for free scan slot, %d scans ahead in queue", ahead);
+      if (!Objects.equals(phase, ticket.phase)) {
+        ticket.phase = phase;
+        var onPhase = ticket.onPhase;
+        notifications.add(() -> onPhase.accept(phase));
+      }
+      ahead++;
+    }
+    return notifications;
+  }
+
+  synchronized int running() {
+    return running;
+  }
+
+  synchronized int waiting() {
+    return queue.size();
+  }
+
+  private static class Ticket {
+    private final String user;
+    private Runnable onAdmit;
+    private Consumer<String> onPhase;
+    private boolean admitted;
+    private String phase;
+
+    Ticket(String user) {
+      this.user = user;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.model.TopicMessagePhaseDTO;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stops scan when it has read more bytes (as reported by consuming events) or ran longer than
+ * allowed, scan is cancelled and completed with BUDGET_EXHAUSTED event.
+ */
+public class ScanBudget implements Function<Flux<TopicMessageEventDTO>, Flux<TopicMessageEventDTO>> {
+
+  @Nullable
+  private final DataSize maxBytes;
+  @Nullable
+  private final Duration maxDuration;
+
+  public ScanBudget(@Nullable DataSize maxBytes, @Nullable Duration maxDuration) {
+    this.maxBytes = maxBytes;
+    this.maxDuration = maxDuration;
+  }
+
+  @Override
+  public Flux<TopicMessageEventDTO> apply(Flux<TopicMessageEventDTO> scan) {
+    if (maxBytes == null && maxDuration == null) {
+      return scan;
+    }
+    return Flux.defer(() -> {
+      AtomicReference<String> exhausted = new AtomicReference<>();
+      Flux<TopicMessageEventDTO> limited = scan;
+      if (maxBytes != null) {
+        long max = maxBytes.toBytes();
+        limited = limited.takeUntil(evt -> {
+          if (evt.getType() == TopicMessageEventDTO.TypeEnum.CONSUMING
+              && evt.getConsuming().getBytesConsumed() != null
+              && evt.getConsuming().getBytesConsumed() >= max) {
+            exhausted.compareAndSet(null, "Scan stopped after reading " + maxBytes);
+            return true;
+          }
+          return false;
+        });
+      }
+      if (maxDuration != null) {
+        limited = limited.takeUntilOther(Mono.delay(maxDuration)
+            .doOnNext(i -> exhausted.compareAndSet(null, "Scan stopped after " + maxDuration)));
+      }
+      return limited.concatWith(Mono.fromSupplier(() -> exhausted.get() == null
+          ? null
+          : new TopicMessageEventDTO()
+              .type(TopicMessageEventDTO.TypeEnum.BUDGET_EXHAUSTED)
+              .phase(new TopicMessagePhaseDTO().name(exhausted.get()))));
+    });
+  }
+}
@@ -0,0 +1,111 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.utils.Bytes;
+
+/**
+ * Timers and counters of messages scan stages, tagged by cluster, topic and seek direction.
+ * Registered meters are shared by all scans with the same tags, so they show where scans
+ * spend their time: consumer creation, offsets discovery, polling, records deserialization,
+ * mapping to DTOs and filters evaluation.
+ */
+public class ScanMetrics {
+
+  private static final String PREFIX = "kafka.ui.messages.";
+
+  private final Timer consumerCreation;
+  private final Timer offsetsDiscovery;
+  private final Timer poll;
+  private final Timer deserialization;
+  private final Timer mapping;
+  private final Timer filtering;
+  private final Counter polledRecords;
+  private final Counter polledBytes;
+
+  private ScanMetrics(MeterRegistry registry, Tags tags) {
+    this.consumerCreation = timer(registry, tags, "consumer.creation", "Time to create (or borrow) consumer");
+    this.offsetsDiscovery = timer(registry, tags, "offsets.discovery", "Time to find offsets to read");
+    this.poll = timer(registry, tags, "poll", "Time spent in consumer's poll");
+    this.deserialization = timer(registry, tags, "deserialization", "Time spent to deserialize polled records");
+    this.mapping = timer(registry, tags, "mapping", "Time spent to map deserialized records to messages");
+    this.filtering = timer(registry, tags, "filtering", "Time spent to evaluate messages filters");
+    this.polledRecords = Counter.builder(PREFIX + "polled.records")
+        .description("Number of polled records")
+        .tags(tags)
+        .register(registry);
+    this.polledBytes = Counter.builder(PREFIX + "polled.bytes")
+        .description("Size of polled records' keys and values")
+        .baseUnit("bytes")
+        .tags(tags)
+        .register(registry);
+  }
+
+  public static ScanMetrics create(MeterRegistry registry,
+                                   String cluster,
+                                   String topic,
+                                   SeekDirectionDTO seekDirection) {
+    return new ScanMetrics(
+        registry,
+        Tags.of("cluster", cluster, "topic", topic, "direction", seekDirection.name())
+    );
+  }
+
+  // meters of registry without underlying registries do nothing
+  public static ScanMetrics noop() {
+    return new ScanMetrics(new CompositeMeterRegistry(), Tags.empty());
+  }
+
+  private static Timer timer(MeterRegistry registry, Tags tags, String name, String description) {
+    return Timer.builder(PREFIX + name)
+        .description(description)
+        .tags(tags)
+        .register(registry);
+  }
+
+  public <T> T timeConsumerCreation(Supplier<T> creation) {
+    return consumerCreation.record(creation);
+  }
+
+  <T> T timeOffsetsDiscovery(Supplier<T> discovery) {
+    return offsetsDiscovery.record(discovery);
+  }
+
+  <T> T timeDeserialization(Supplier<T> deserialize) {
+    return deserialization.record(deserialize);
+  }
+
+  <T> T timeMapping(Supplier<T> map) {
+    return mapping.record(map);
+  }
+
+  public <T> Predicate<T> timedFilter(Predicate<T> filter) {
+    return value -> {
+      long start = System.nanoTime();
+      try {
+        return filter.test(value);
+      } finally {
+        filtering.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    };
+  }
+
+  void polled(ConsumerRecords<Bytes, Bytes> records, long elapsedMs) {
+    poll.record(elapsedMs, TimeUnit.MILLISECONDS);
+    long bytes = 0;
+    for (ConsumerRecord<Bytes, Bytes> rec : records) {
+      bytes += Math.max(0, rec.serializedKeySize()) + Math.max(0, rec.serializedValueSize());
+    }
+    polledRecords.increment(records.count());
+    polledBytes.increment(bytes);
+  }
+}
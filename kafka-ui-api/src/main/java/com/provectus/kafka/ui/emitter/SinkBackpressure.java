@@ -0,0 +1,72 @@
+package com.provectus.kafka.ui.emitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tracks events which were sent to the sink, but were not requested by its subscriber yet.
+ * Such events are kept in the sink's buffer, so emitters stop sending (and polling) when
+ * their estimated size exceeds maxBytes and wait for subscriber's demand.
+ * Demand is reported by sink's onRequest callback, which can be called from any thread.
+ */
+class SinkBackpressure {
+
+  private static final long WAIT_INTERVAL_MS = 100;
+
+  private final long maxBytes;
+  // sizes of events waiting for demand, in order they were sent
+  private final Deque<Long> buffered = new ArrayDeque<>();
+  private long bufferedBytes;
+  // demand which was not used by sent events yet
+  private long requested;
+
+  SinkBackpressure(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  synchronized void requested(long n) {
+    if (n == Long.MAX_VALUE || requested == Long.MAX_VALUE) {
+      requested = Long.MAX_VALUE;
+      buffered.clear();
+      bufferedBytes = 0;
+    } else {
+      // buffered events are delivered first
+      for (; n > 0 && !buffered.isEmpty(); n--) {
+        bufferedBytes -= buffered.removeFirst();
+      }
+      requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+    }
+    notifyAll();
+  }
+
+  synchronized void sent(long bytes) {
+    if (requested == Long.MAX_VALUE) {
+      return;
+    }
+    if (requested > 0) {
+      requested--;
+      return;
+    }
+    buffered.addLast(bytes);
+    bufferedBytes += bytes;
+  }
+
+  synchronized boolean isFull() {
+    return bufferedBytes >= maxBytes;
+  }
+
+  synchronized long bufferedBytes() {
+    return bufferedBytes;
+  }
+
+  /**
+   * Blocks until buffered events size is below the limit or until cancelled.
+   */
+  synchronized void awaitCapacity(BooleanSupplier cancelled) throws InterruptedException {
+    while (bufferedBytes >= maxBytes && !cancelled.getAsBoolean()) {
+      // cancellation is not signalled, so it is checked periodically
+      wait(WAIT_INTERVAL_MS);
+    }
+  }
+}
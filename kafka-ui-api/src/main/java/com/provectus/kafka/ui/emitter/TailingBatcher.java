@@ -0,0 +1,178 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Coalesces tailed messages into MESSAGES batch events. Batch is flushed when it reaches
+ * maxBatchSize messages or maxBatchBytes of estimated size, or after flushInterval - whichever
+ * comes first. Consuming stats are sent once per batch (the latest ones), other events flush
+ * current batch and are sent as is.
+ * <p/>
+ * Upstream is consumed without backpressure, so fast topic doesn't wait for slow client. Flushed
+ * batches wait for client's demand in bounded queue; when it is full, records are sampled - only
+ * every n-th record is kept (n is doubled while queue stays full and reset when it is drained),
+ * and SKIPPED event with number of dropped records is sent before the next batch.
+ * <p/>
+ * Since upstream demand is unbounded, emitter's sink backpressure (partitions pausing) never
+ * engages for tailing - dropping records here replaces it, so that shared tailing session is
+ * never paused by its slowest subscriber. Memory kept for a slow client is bounded by
+ * maxPendingBatches batches (plus the current one), regardless of how many records are tailed.
+ */
+public class TailingBatcher implements Function<Flux<TopicMessageEventDTO>, Flux<TopicMessageEventDTO>> {
+
+  private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+  private static final long DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+  private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(250);
+  private static final int DEFAULT_MAX_PENDING_BATCHES = 8;
+  static final int MAX_SAMPLE_RATE = 1024;
+
+  private final int maxBatchSize;
+  private final long maxBatchBytes;
+  private final Duration flushInterval;
+  private final int maxPendingBatches;
+  private final Scheduler timer;
+
+  public TailingBatcher() {
+    this(DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_BYTES, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_PENDING_BATCHES,
+        Schedulers.parallel());
+  }
+
+  TailingBatcher(int maxBatchSize,
+                 long maxBatchBytes,
+                 Duration flushInterval,
+                 int maxPendingBatches,
+                 Scheduler timer) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchBytes = maxBatchBytes;
+    this.flushInterval = flushInterval;
+    this.maxPendingBatches = maxPendingBatches;
+    this.timer = timer;
+  }
+
+  @Override
+  public Flux<TopicMessageEventDTO> apply(Flux<TopicMessageEventDTO> upstream) {
+    return Flux.create(sink -> {
+      var state = new State(sink);
+      sink.onRequest(n -> state.drain());
+      Disposable flushing = timer.schedulePeriodically(
+          state::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+      Disposable subscription = upstream.subscribe(state::onEvent, state::onError, state::onComplete);
+      sink.onDispose(() -> {
+        flushing.dispose();
+        subscription.dispose();
+      });
+    });
+  }
+
+  private class State {
+    private final FluxSink<TopicMessageEventDTO> sink;
+    // events waiting for subscriber's demand
+    private final Deque<TopicMessageEventDTO> pending = new ArrayDeque<>();
+    private int pendingBatches;
+    private List<TopicMessageDTO> batch = new ArrayList<>();
+    private long batchBytes;
+    @Nullable
+    private TopicMessageEventDTO consuming;
+    private int sampleRate = 1;
+    private long sampleCounter;
+    private long skipped;
+    private boolean completed;
+
+    State(FluxSink<TopicMessageEventDTO> sink) {
+      this.sink = sink;
+    }
+
+    synchronized void onEvent(TopicMessageEventDTO event) {
+      if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE) {
+        addMessage(event.getMessage());
+      } else if (event.getType() == TopicMessageEventDTO.TypeEnum.CONSUMING) {
+        consuming = event;
+      } else {
+        flush();
+        enqueue(event);
+      }
+    }
+
+    private void addMessage(TopicMessageDTO message) {
+      if (sampleRate > 1 && sampleCounter++ % sampleRate != 0) {
+        skipped++;
+        return;
+      }
+      batch.add(message);
+      batchBytes += AbstractEmitter.estimateSize(message);
+      if (batch.size() >= maxBatchSize || batchBytes >= maxBatchBytes) {
+        flush();
+      }
+    }
+
+    synchronized void flush() {
+      // nothing is added after completion, so the rest is queued regardless of the limit
+      if (pendingBatches >= maxPendingBatches && !completed) {
+        // client doesn't keep up, current batch is dropped and following records are sampled
+        if (!batch.isEmpty()) {
+          skipped += batch.size();
+          sampleRate = Math.min(sampleRate * 2, MAX_SAMPLE_RATE);
+        }
+      } else {
+        if (skipped > 0) {
+          enqueue(new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.SKIPPED).skipped(skipped));
+          skipped = 0;
+        }
+        if (!batch.isEmpty()) {
+          enqueue(new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.MESSAGES).messages(batch));
+          pendingBatches++;
+        }
+        if (consuming != null) {
+          enqueue(consuming);
+          consuming = null;
+        }
+      }
+      batch = new ArrayList<>();
+      batchBytes = 0;
+      drain();
+    }
+
+    private void enqueue(TopicMessageEventDTO event) {
+      pending.addLast(event);
+    }
+
+    synchronized void drain() {
+      while (!pending.isEmpty() && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+        TopicMessageEventDTO event = pending.removeFirst();
+        if (event.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES) {
+          pendingBatches--;
+        }
+        sink.next(event);
+      }
+      if (pending.isEmpty()) {
+        sampleRate = 1;
+        if (completed) {
+          sink.complete();
+        }
+      }
+    }
+
+    synchronized void onError(Throwable th) {
+      sink.error(th);
+    }
+
+    synchronized void onComplete() {
+      completed = true;
+      flush();
+    }
+  }
+}
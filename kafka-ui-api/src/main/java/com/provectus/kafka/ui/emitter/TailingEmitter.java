@@ -1,7 +1,6 @@
 package com.provectus.kafka.ui.emitter;
 
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
-import com.provectus.kafka.ui.serde.RecordSerDe;
 import com.provectus.kafka.ui.util.OffsetsSeek;
 import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +16,10 @@ public class TailingEmitter extends AbstractEmitter
   private final Supplier<KafkaConsumer<Bytes, Bytes>> consumerSupplier;
   private final OffsetsSeek offsetsSeek;
 
-  public TailingEmitter(RecordSerDe recordDeserializer,
+  public TailingEmitter(MessagesProcessing messagesProcessing,
                         Supplier<KafkaConsumer<Bytes, Bytes>> consumerSupplier,
                         OffsetsSeek offsetsSeek) {
-    super(recordDeserializer);
+    super(messagesProcessing);
     this.consumerSupplier = consumerSupplier;
     this.offsetsSeek = offsetsSeek;
   }
@@ -29,9 +28,9 @@ public class TailingEmitter extends AbstractEmitter
   public void accept(FluxSink<TopicMessageEventDTO> sink) {
     try (KafkaConsumer<Bytes, Bytes> consumer = consumerSupplier.get()) {
       log.debug("Starting topic tailing");
-      offsetsSeek.assignAndSeek(consumer);
+      discoverOffsets(() -> offsetsSeek.assignAndSeek(consumer));
+      sendPhase(sink, "Tailing");
       while (!sink.isCancelled()) {
-        sendPhase(sink, "Polling");
         var polled = poll(sink, consumer);
         polled.forEach(r -> sendMessage(sink, r));
       }
@@ -0,0 +1,99 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.Value;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Shares tailing of the same topic partitions between all its subscribers: records are polled
+ * by a single emitter (and so deserialized once) and multicasted. Each subscriber applies its own
+ * filter and has its own {@link TailingBatcher} - records are sampled for subscriber which doesn't
+ * keep up, so it doesn't slow down others. Emitter is cancelled when the last subscriber leaves.
+ */
+public class TailingHub {
+
+  @Value
+  public static class Key {
+    String cluster;
+    String topic;
+    // empty for all partitions
+    Set<Integer> partitions;
+  }
+
+  private final Map<Key, Session> sessions = new ConcurrentHashMap<>();
+
+  /**
+   * Subscribes to the existing session for the key, or starts a new one with emitter
+   * from emitterFactory. Emitter should not filter records, since it is shared.
+   */
+  public Flux<TopicMessageEventDTO> subscribe(
+      Key key,
+      Supplier<? extends Consumer<FluxSink<TopicMessageEventDTO>>> emitterFactory,
+      Predicate<TopicMessageEventDTO> filter) {
+    return Flux.defer(() -> {
+      Session session = acquire(key, emitterFactory);
+      return session.events
+          .filter(filter)
+          .transform(new TailingBatcher())
+          .doFinally(s -> release(key, session));
+    });
+  }
+
+  // session is created (and its emitter is connected) by the first subscriber, and removed when the
+  // last one leaves - both under the map's lock, so subscriber never joins session which is closing
+  private Session acquire(Key key, Supplier<? extends Consumer<FluxSink<TopicMessageEventDTO>>> emitterFactory) {
+    return sessions.compute(key, (k, session) -> {
+      if (session == null || session.terminated) {
+        session = new Session(emitterFactory);
+      }
+      if (session.subscribers++ == 0) {
+        session.connection = session.events.connect();
+      }
+      return session;
+    });
+  }
+
+  private void release(Key key, Session session) {
+    sessions.computeIfPresent(key, (k, current) -> {
+      if (current != session) {
+        // session was already replaced after its emitter terminated
+        return current;
+      }
+      if (--current.subscribers == 0) {
+        current.connection.dispose();
+        return null;
+      }
+      return current;
+    });
+  }
+
+  int sessionsCount() {
+    return sessions.size();
+  }
+
+  // subscribers and connection are guarded by sessions map's lock for the session's key
+  private static class Session {
+    private final ConnectableFlux<TopicMessageEventDTO> events;
+    private int subscribers;
+    private Disposable connection;
+    // set when emitter completes or fails, so that new subscribers start a new session
+    private volatile boolean terminated;
+
+    Session(Supplier<? extends Consumer<FluxSink<TopicMessageEventDTO>>> emitterFactory) {
+      this.events = Flux.defer(() -> Flux.create(emitterFactory.get()))
+          .subscribeOn(Schedulers.boundedElastic(), false)
+          .doOnTerminate(() -> terminated = true)
+          .publish();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.provectus.kafka.ui.emitter;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+
+/**
+ * K-way merge of records polled from multiple partitions into a single sequence ordered
+ * by timestamp (ascending for forward, descending for backward consuming).
+ * Records are buffered per partition in the order they were polled; next record is only
+ * returned when every partition that can still produce records has at least one record
+ * buffered, so memory usage is bounded by per-partition lookahead.
+ */
+class TimestampOrderedMerger {
+
+  private static final Comparator<ConsumerRecord<Bytes, Bytes>> TIMESTAMP_ORDER =
+      Comparator.<ConsumerRecord<Bytes, Bytes>>comparingLong(ConsumerRecord::timestamp)
+          .thenComparingInt(ConsumerRecord::partition)
+          .thenComparingLong(ConsumerRecord::offset);
+
+  private final Map<TopicPartition, ArrayDeque<ConsumerRecord<Bytes, Bytes>>> buffers =
+      new HashMap<>();
+  // non-empty buffers ordered by their head records
+  private final PriorityQueue<ArrayDeque<ConsumerRecord<Bytes, Bytes>>> heads;
+  // partitions that can still produce records
+  private final Set<TopicPartition> open = new HashSet<>();
+  // open partitions with empty buffers - we can't emit anything until they are polled
+  private final Set<TopicPartition> awaiting = new HashSet<>();
+
+  TimestampOrderedMerger(Collection<TopicPartition> partitions, boolean descending) {
+    Comparator<ConsumerRecord<Bytes, Bytes>> order =
+        descending ? TIMESTAMP_ORDER.reversed() : TIMESTAMP_ORDER;
+    this.heads = new PriorityQueue<>(
+        Math.max(1, partitions.size()),
+        (d1, d2) -> order.compare(d1.peekFirst(), d2.peekFirst())
+    );
+    for (TopicPartition tp : partitions) {
+      buffers.put(tp, new ArrayDeque<>());
+      open.add(tp);
+      awaiting.add(tp);
+    }
+  }
+
+  /**
+   * Adds record to partition's buffer. Records of a partition should be added in the
+   * order they should be emitted.
+   */
+  void add(ConsumerRecord<Bytes, Bytes> rec) {
+    var tp = new TopicPartition(rec.topic(), rec.partition());
+    var buffer = buffers.computeIfAbsent(tp, t -> new ArrayDeque<>());
+    buffer.addLast(rec);
+    if (buffer.size() == 1) {
+      heads.add(buffer);
+      awaiting.remove(tp);
+    }
+  }
+
+  /**
+   * Marks that partition will not produce records anymore.
+   */
+  void finish(TopicPartition tp) {
+    open.remove(tp);
+    awaiting.remove(tp);
+  }
+
+  boolean isOpen(TopicPartition tp) {
+    return open.contains(tp);
+  }
+
+  int buffered(TopicPartition tp) {
+    var buffer = buffers.get(tp);
+    return buffer == null ? 0 : buffer.size();
+  }
+
+  /**
+   * Returns next record in timestamp order or null if more records should be polled first.
+   */
+  @Nullable
+  ConsumerRecord<Bytes, Bytes> next() {
+    if (!awaiting.isEmpty() || heads.isEmpty()) {
+      return null;
+    }
+    var buffer = heads.poll();
+    var rec = buffer.pollFirst();
+    if (buffer.isEmpty()) {
+      var tp = new TopicPartition(rec.topic(), rec.partition());
+      if (open.contains(tp)) {
+        awaiting.add(tp);
+      }
+    } else {
+      heads.add(buffer);
+    }
+    return rec;
+  }
+
+  /**
+   * True when all partitions are finished and all buffered records were returned.
+   */
+  boolean isDone() {
+    return open.isEmpty() && heads.isEmpty();
+  }
+}
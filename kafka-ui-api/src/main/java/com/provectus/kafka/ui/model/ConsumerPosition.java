@@ -1,12 +1,24 @@
 package com.provectus.kafka.ui.model;
 
 import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 import org.apache.kafka.common.TopicPartition;
 
 @Value
+@AllArgsConstructor
 public class ConsumerPosition {
   SeekTypeDTO seekType;
   Map<TopicPartition, Long> seekTo;
   SeekDirectionDTO seekDirection;
+  // timestamp where scan stops: forward scan reads messages before it,
+  // backward - messages starting from it
+  @Nullable
+  Long boundTimestamp;
+
+  public ConsumerPosition(SeekTypeDTO seekType, Map<TopicPartition, Long> seekTo,
+                          SeekDirectionDTO seekDirection) {
+    this(seekType, seekTo, seekDirection, null);
+  }
 }
@@ -0,0 +1,145 @@
+package com.provectus.kafka.ui.model;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nullable;
+import lombok.Value;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.ByteUtils;
+
+/**
+ * Position of a paginated messages scan: offsets ranges which are left to read in each partition,
+ * scan direction and filter. Encoded into opaque url-safe string, which client passes back to
+ * continue the scan without offsets lookup.
+ */
+@Value
+public class Cursor {
+
+  private static final byte VERSION = 1;
+
+  String topic;
+  SeekDirectionDTO seekDirection;
+  @Nullable
+  String query;
+  @Nullable
+  MessageFilterTypeDTO filterQueryType;
+  Map<TopicPartition, Range> ranges;
+
+  /**
+   * Inclusive range of offsets.
+   */
+  @Value
+  public static class Range {
+    long from;
+    long to;
+  }
+
+  /**
+   * Position to seek consumer to: first offsets of ranges for forward scan,
+   * offsets next to last ones for backward (offsets before them are read).
+   */
+  public ConsumerPosition consumerPosition() {
+    return new ConsumerPosition(
+        SeekTypeDTO.OFFSET,
+        ranges.entrySet().stream()
+            .collect(Collectors.toMap(
+                Map.Entry::getKey,
+                e -> seekDirection == SeekDirectionDTO.BACKWARD
+                    ? e.getValue().getTo() + 1
+                    : e.getValue().getFrom())),
+        seekDirection
+    );
+  }
+
+  public String encode() {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+      out.writeByte(VERSION);
+      writeString(out, topic);
+      writeString(out, seekDirection.getValue());
+      writeString(out, query);
+      writeString(out, filterQueryType != null ? filterQueryType.getValue() : null);
+      ByteUtils.writeVarint(ranges.size(), out);
+      // partitions are written in order to keep deltas small
+      int prevPartition = 0;
+      for (var e : ranges.entrySet().stream()
+          .sorted(Map.Entry.comparingByKey(Comparator.comparingInt(TopicPartition::partition)))
+          .collect(Collectors.toList())) {
+        ByteUtils.writeVarint(e.getKey().partition() - prevPartition, out);
+        ByteUtils.writeVarlong(e.getValue().getFrom(), out);
+        ByteUtils.writeVarlong(e.getValue().getTo() - e.getValue().getFrom(), out);
+        prevPartition = e.getKey().partition();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+  }
+
+  public static Cursor decode(String encoded) {
+    try (var in = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(encoded))))) {
+      if (in.readByte() != VERSION) {
+        throw new ValidationException("Unsupported cursor version");
+      }
+      String topic = readString(in);
+      var direction = SeekDirectionDTO.fromValue(readString(in));
+      String query = readString(in);
+      String filterType = readString(in);
+      int count = ByteUtils.readVarint(in);
+      Map<TopicPartition, Range> ranges = new LinkedHashMap<>();
+      int partition = 0;
+      for (int i = 0; i < count; i++) {
+        partition += ByteUtils.readVarint(in);
+        long from = ByteUtils.readVarlong(in);
+        ranges.put(new TopicPartition(topic, partition), new Range(from, from + ByteUtils.readVarlong(in)));
+      }
+      return new Cursor(
+          topic,
+          direction,
+          query,
+          filterType != null ? MessageFilterTypeDTO.fromValue(filterType) : null,
+          ranges
+      );
+    } catch (IOException | IllegalArgumentException e) {
+      throw new ValidationException("Invalid cursor");
+    }
+  }
+
+  private static void writeString(DataOutput out, @Nullable String str) throws IOException {
+    if (str == null) {
+      ByteUtils.writeVarint(-1, out);
+      return;
+    }
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    ByteUtils.writeVarint(bytes.length, out);
+    out.write(bytes);
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    int length = ByteUtils.readVarint(in);
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length != length) {
+      throw new IOException("Unexpected end of cursor");
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -1,6 +1,7 @@
 package com.provectus.kafka.ui.model;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -8,6 +9,7 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.util.unit.DataSize;
 
 @Data
 @Builder(toBuilder = true)
@@ -32,4 +34,14 @@ public class KafkaCluster {
   private final Properties properties;
   private final boolean readOnly;
   private final boolean disableLogDirsCollection;
+  private final int deserializationParallelism;
+  private final DataSize messagesBufferSize;
+  private final Integer messagesPreviewLength;
+  private final int messagesSearchConcurrency;
+  private final int messagesScanConcurrency;
+  private final int messagesScanConcurrencyPerUser;
+  private final DataSize messagesScanBytesBudget;
+  private final Duration messagesScanTimeBudget;
+  private final DataSize messagesCacheSize;
+  private final List<String> keyIndexedTopics;
 }
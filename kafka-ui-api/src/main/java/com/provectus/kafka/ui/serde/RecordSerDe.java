@@ -30,6 +30,14 @@ public interface RecordSerDe {
 
   DeserializedKeyValue deserialize(ConsumerRecord<Bytes, Bytes> msg);
 
+  /**
+   * Returns true if record's key (or value) will be deserialized as UTF-8 string
+   * of its bytes without any conversion. In this case string filtering can be done on raw bytes.
+   */
+  default boolean deserializesToRawString(ConsumerRecord<Bytes, Bytes> msg, boolean isKey) {
+    return false;
+  }
+
   ProducerRecord<byte[], byte[]> serialize(String topic,
                                            @Nullable String key,
                                            @Nullable String data,
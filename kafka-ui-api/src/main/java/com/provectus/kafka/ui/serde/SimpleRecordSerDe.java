@@ -27,6 +27,11 @@ public class SimpleRecordSerDe implements RecordSerDe {
     return builder.build();
   }
 
+  @Override
+  public boolean deserializesToRawString(ConsumerRecord<Bytes, Bytes> msg, boolean isKey) {
+    return true;
+  }
+
   @Override
   public ProducerRecord<byte[], byte[]> serialize(String topic,
                                                   @Nullable String key,
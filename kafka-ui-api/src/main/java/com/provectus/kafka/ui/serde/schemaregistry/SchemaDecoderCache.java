@@ -0,0 +1,185 @@
+package com.provectus.kafka.ui.serde.schemaregistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+/**
+ * Schema id to resolved {@link Decoder} cache, keyed by primitive int to keep lookups on records
+ * deserialization path free of boxing. Table is copied on write and published through volatile
+ * field, so lookups are lock-free; since number of schemas is small and new ids are rare, copying
+ * is cheap. Ids which can't be decoded (unknown schema or unsupported format) are cached for
+ * {@link #UNKNOWN_TTL_NANOS}, so registry is not called for every record with such id, but schema
+ * registered later is picked up. Expired entries are dropped when table is copied. Once cache is
+ * full, new ids are resolved on every lookup.
+ */
+final class SchemaDecoderCache {
+
+  static final int MAX_SIZE = 4096;
+  static final long UNKNOWN_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final IntFunction<Decoder> resolver;
+  private final LongSupplier nanoClock;
+  private volatile Table table = new Table(16);
+
+  SchemaDecoderCache(IntFunction<Decoder> resolver) {
+    this(resolver, System::nanoTime);
+  }
+
+  SchemaDecoderCache(IntFunction<Decoder> resolver, LongSupplier nanoClock) {
+    this.resolver = resolver;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Returns true if bytes start with magic byte and schema id (Confluent wire format).
+   */
+  static boolean hasSchemaId(byte[] bytes) {
+    return bytes.length > 5 && bytes[0] == 0;
+  }
+
+  /**
+   * Reads big-endian schema id following magic byte, bytes should be checked with {@link #hasSchemaId}.
+   */
+  static int schemaId(byte[] bytes) {
+    return (bytes[1] & 0xFF) << 24
+        | (bytes[2] & 0xFF) << 16
+        | (bytes[3] & 0xFF) << 8
+        | (bytes[4] & 0xFF);
+  }
+
+  Decoder get(int schemaId) {
+    Decoder decoder = table.get(schemaId, nanoClock.getAsLong());
+    if (decoder != null) {
+      return decoder;
+    }
+    // resolved outside of lock, so slow registry calls don't block lookups of other ids
+    decoder = resolver.apply(schemaId);
+    synchronized (this) {
+      long now = nanoClock.getAsLong();
+      Decoder existing = table.get(schemaId, now);
+      if (existing != null) {
+        return existing;
+      }
+      // full table is not copied until some of its entries expire
+      if (table.size < MAX_SIZE || table.hasExpired(now)) {
+        table = table.with(schemaId, decoder, now + UNKNOWN_TTL_NANOS, now);
+      }
+    }
+    return decoder;
+  }
+
+  int size() {
+    return table.size;
+  }
+
+  @Value
+  static class Decoder {
+    static final Decoder UNKNOWN = new Decoder(MessageFormat.UNKNOWN, null, null);
+
+    MessageFormat format;
+    @Nullable
+    MessageFormatter formatter;
+    // pre-rendered to not convert id to string for every record
+    @Nullable
+    String schemaId;
+
+    boolean isResolved() {
+      return formatter != null;
+    }
+  }
+
+  /**
+   * Open addressing hash table with linear probing, null value marks empty slot. Unresolved
+   * decoders are valid until their expiration time (in nanos), resolved ones don't expire.
+   */
+  private static final class Table {
+    private final int[] keys;
+    private final Decoder[] values;
+    private final long[] expirations;
+    private final int mask;
+    // set by put while copy is not published
+    private int size;
+    private boolean expiring;
+    private long nextExpiration;
+
+    Table(int capacity) {
+      this.keys = new int[capacity];
+      this.values = new Decoder[capacity];
+      this.expirations = new long[capacity];
+      this.mask = capacity - 1;
+    }
+
+    @Nullable
+    Decoder get(int key, long now) {
+      for (int i = slot(key); ; i = (i + 1) & mask) {
+        Decoder value = values[i];
+        if (value == null) {
+          return null;
+        }
+        if (keys[i] == key) {
+          return isExpired(i, now) ? null : value;
+        }
+      }
+    }
+
+    /**
+     * Returns copy with the given key's value replaced, without expired entries. Value is not added
+     * if copy is full.
+     */
+    Table with(int key, Decoder value, long expiration, long now) {
+      int live = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (values[i] != null && keys[i] != key && !isExpired(i, now)) {
+          live++;
+        }
+      }
+      // load factor is kept at most 0.5
+      int capacity = keys.length;
+      while ((live + 1) * 2 > capacity) {
+        capacity *= 2;
+      }
+      Table copy = new Table(capacity);
+      for (int i = 0; i < keys.length; i++) {
+        if (values[i] != null && keys[i] != key && !isExpired(i, now)) {
+          copy.put(keys[i], values[i], expirations[i]);
+        }
+      }
+      if (copy.size < MAX_SIZE) {
+        copy.put(key, value, expiration);
+      }
+      return copy;
+    }
+
+    boolean hasExpired(long now) {
+      return expiring && now - nextExpiration >= 0;
+    }
+
+    private boolean isExpired(int slot, long now) {
+      // nanos are compared by difference, since they can overflow
+      return !values[slot].isResolved() && now - expirations[slot] >= 0;
+    }
+
+    private void put(int key, Decoder value, long expiration) {
+      int i = slot(key);
+      while (values[i] != null) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      values[i] = value;
+      expirations[i] = expiration;
+      size++;
+      if (!value.isResolved() && (!expiring || expiration - nextExpiration < 0)) {
+        expiring = true;
+        nextExpiration = expiration;
+      }
+    }
+
+    private int slot(int key) {
+      // fibonacci hashing spreads sequential registry ids
+      return ((key * 0x9E3779B9) >>> 16) & mask;
+    }
+  }
+}
@@ -26,7 +26,6 @@ import io.confluent.kafka.schemaregistry.json.JsonSchemaProvider;
 import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchema;
 import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchemaProvider;
 import java.net.URI;
-import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +51,7 @@ public class SchemaRegistryAwareRecordSerDe implements RecordSerDe {
   private final SchemaRegistryClient schemaRegistryClient;
 
   private final Map<MessageFormat, MessageFormatter> schemaRegistryFormatters;
+  private final SchemaDecoderCache decoders = new SchemaDecoderCache(this::resolveDecoder);
 
   private static SchemaRegistryClient createSchemaRegistryClient(KafkaCluster cluster) {
     List<SchemaProvider> schemaProviders =
@@ -112,37 +112,46 @@ public class SchemaRegistryAwareRecordSerDe implements RecordSerDe {
     }
   }
 
+  @Override
+  public boolean deserializesToRawString(ConsumerRecord<Bytes, Bytes> msg, boolean isKey) {
+    Bytes bytes = isKey ? msg.key() : msg.value();
+    // messages without schema id are deserialized with fallback (string) formatter
+    return bytes != null && bytes.get().length > 0 && !SchemaDecoderCache.hasSchemaId(bytes.get());
+  }
+
   private void fillDeserializedKvBuilder(ConsumerRecord<Bytes, Bytes> rec,
                                          boolean isKey,
                                          DeserializedKeyValueBuilder builder) {
-    Optional<Integer> schemaId = extractSchemaIdFromMsg(rec, isKey);
-    Optional<MessageFormat> format = schemaId.flatMap(this::getMessageFormatBySchemaId);
-    if (schemaId.isPresent() && format.isPresent() && schemaRegistryFormatters.containsKey(format.get())) {
-      var formatter = schemaRegistryFormatters.get(format.get());
-      try {
-        var deserialized = formatter.format(rec.topic(), isKey ? rec.key().get() : rec.value().get());
-        if (isKey) {
-          builder.key(deserialized);
-          builder.keyFormat(formatter.getFormat());
-          builder.keySchemaId(String.valueOf(schemaId.get()));
-        } else {
-          builder.value(deserialized);
-          builder.valueFormat(formatter.getFormat());
-          builder.valueSchemaId(String.valueOf(schemaId.get()));
+    byte[] bytes = isKey ? rec.key().get() : rec.value().get();
+    if (SchemaDecoderCache.hasSchemaId(bytes)) {
+      var decoder = decoders.get(SchemaDecoderCache.schemaId(bytes));
+      if (decoder.isResolved()) {
+        var formatter = decoder.getFormatter();
+        try {
+          var deserialized = formatter.format(rec.topic(), bytes);
+          if (isKey) {
+            builder.key(deserialized);
+            builder.keyFormat(formatter.getFormat());
+            builder.keySchemaId(decoder.getSchemaId());
+          } else {
+            builder.value(deserialized);
+            builder.valueFormat(formatter.getFormat());
+            builder.valueSchemaId(decoder.getSchemaId());
+          }
+          return;
+        } catch (Exception e) {
+          log.trace("Can't deserialize record {} with formatter {}",
+              rec, formatter.getClass().getSimpleName(), e);
         }
-        return;
-      } catch (Exception e) {
-        log.trace("Can't deserialize record {} with formatter {}",
-            rec, formatter.getClass().getSimpleName(), e);
       }
     }
 
     // fallback
     if (isKey) {
-      builder.key(FALLBACK_FORMATTER.format(rec.topic(), rec.key().get()));
+      builder.key(FALLBACK_FORMATTER.format(rec.topic(), bytes));
       builder.keyFormat(FALLBACK_FORMATTER.getFormat());
     } else {
-      builder.value(FALLBACK_FORMATTER.format(rec.topic(), rec.value().get()));
+      builder.value(FALLBACK_FORMATTER.format(rec.topic(), bytes));
       builder.valueFormat(FALLBACK_FORMATTER.getFormat());
     }
 
@@ -251,20 +260,13 @@ public class SchemaRegistryAwareRecordSerDe implements RecordSerDe {
     return jsonSchema;
   }
 
-  private Optional<MessageFormat> getMessageFormatBySchemaId(int schemaId) {
+  private SchemaDecoderCache.Decoder resolveDecoder(int schemaId) {
     return wrapClientCall(() -> schemaRegistryClient.getSchemaById(schemaId))
-        .map(ParsedSchema::schemaType)
-        .flatMap(MessageFormat::fromString);
-  }
-
-  private Optional<Integer> extractSchemaIdFromMsg(ConsumerRecord<Bytes, Bytes> msg, boolean isKey) {
-    Bytes bytes = isKey ? msg.key() : msg.value();
-    ByteBuffer buffer = ByteBuffer.wrap(bytes.get());
-    if (buffer.get() == 0 && buffer.remaining() > 4) {
-      int id = buffer.getInt();
-      return Optional.of(id);
-    }
-    return Optional.empty();
+        .flatMap(schema -> MessageFormat.fromString(schema.schemaType())
+            .filter(schemaRegistryFormatters::containsKey)
+            .map(format -> new SchemaDecoderCache.Decoder(
+                format, schemaRegistryFormatters.get(format), String.valueOf(schemaId))))
+        .orElse(SchemaDecoderCache.Decoder.UNKNOWN);
   }
 
   @SneakyThrows
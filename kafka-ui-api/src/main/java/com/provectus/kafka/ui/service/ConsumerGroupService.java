@@ -202,6 +202,11 @@ public class ConsumerGroupService {
 
   public KafkaConsumer<Bytes, Bytes> createConsumer(KafkaCluster cluster,
                                                     Map<String, Object> properties) {
+    return new KafkaConsumer<>(createConsumerProperties(cluster, properties));
+  }
+
+  public Properties createConsumerProperties(KafkaCluster cluster,
+                                             Map<String, Object> properties) {
     Properties props = new Properties();
     props.putAll(cluster.getProperties());
     props.put(ConsumerConfig.CLIENT_ID_CONFIG, "kafka-ui-" + UUID.randomUUID());
@@ -211,8 +216,7 @@ public class ConsumerGroupService {
     props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
     props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
     props.putAll(properties);
-
-    return new KafkaConsumer<>(props);
+    return props;
   }
 
 }
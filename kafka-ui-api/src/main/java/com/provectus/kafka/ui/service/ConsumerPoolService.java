@@ -0,0 +1,259 @@
+package com.provectus.kafka.ui.service;
+
+import com.provectus.kafka.ui.exception.ClusterNotFoundException;
+import com.provectus.kafka.ui.model.KafkaCluster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.utils.Bytes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps already-connected consumers per cluster, so message browsing does not pay
+ * for client bootstrap (connections, metadata fetch) on every request.
+ * Borrowed consumer is returned to the pool when it is closed. Pool is keyed by cluster
+ * name and consumer type, cluster's properties are taken from {@link ClustersStorage} when
+ * consumer is created. Consumers of each type are limited and measured separately.
+ */
+@Slf4j
+@Service
+public class ConsumerPoolService implements Closeable {
+
+  private static final String METRICS_PREFIX = "kafka.ui.consumer.pool";
+  private static final Duration HEALTH_CHECK_TIMEOUT = Duration.ofSeconds(5);
+  // broker returns at least one record batch even if it is larger than fetch limits
+  private static final Map<String, Object> SINGLE_RECORD_PROPERTIES = Map.of(
+      ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1,
+      ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 1,
+      ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 1
+  );
+
+  private final ConsumerGroupService consumerGroupService;
+  private final ClustersStorage clustersStorage;
+  private final MeterRegistry meterRegistry;
+  private final GenericKeyedObjectPool<PoolKey, PooledKafkaConsumer> pool;
+  private final Map<PoolKey, PoolMetrics> metrics = new ConcurrentHashMap<>();
+
+  public ConsumerPoolService(
+      ConsumerGroupService consumerGroupService,
+      ClustersStorage clustersStorage,
+      MeterRegistry meterRegistry,
+      @Value("${kafka.consumer-pool.max-size:16}") int maxSize,
+      @Value("${kafka.consumer-pool.idle-timeout-ms:300000}") long idleTimeoutMs,
+      @Value("${kafka.consumer-pool.eviction-interval-ms:60000}") long evictionIntervalMs) {
+    this.consumerGroupService = consumerGroupService;
+    this.clustersStorage = clustersStorage;
+    this.meterRegistry = meterRegistry;
+    this.pool = new GenericKeyedObjectPool<>(new PooledConsumerFactory(), poolConfig(maxSize));
+    this.pool.setMinEvictableIdleTimeMillis(idleTimeoutMs);
+    this.pool.setTimeBetweenEvictionRunsMillis(evictionIntervalMs);
+  }
+
+  private static GenericKeyedObjectPoolConfig poolConfig(int maxSize) {
+    var poolConfig = new GenericKeyedObjectPoolConfig();
+    poolConfig.setMaxTotalPerKey(maxSize);
+    poolConfig.setMaxIdlePerKey(maxSize);
+    // when pool is exhausted we fall back to non-pooled consumer instead of waiting
+    poolConfig.setBlockWhenExhausted(false);
+    poolConfig.setTestWhileIdle(true);
+    poolConfig.setJmxNamePrefix("kafka-consumers");
+    return poolConfig;
+  }
+
+  /**
+   * Returns consumer without assignment and with no positions set. Caller
+   * should close it after usage - this will return consumer back to the pool.
+   */
+  public KafkaConsumer<Bytes, Bytes> borrow(KafkaCluster cluster) {
+    return borrowFromPool(cluster, new PoolKey(cluster.getName(), ConsumerType.DEFAULT));
+  }
+
+  /**
+   * Returns consumer which polls one record and fetches as few bytes as possible (one record batch),
+   * for reading single records. Should be closed after usage, as consumer returned by {@link #borrow}.
+   */
+  public KafkaConsumer<Bytes, Bytes> borrowSingleRecordConsumer(KafkaCluster cluster) {
+    return borrowFromPool(cluster, new PoolKey(cluster.getName(), ConsumerType.SINGLE_RECORD));
+  }
+
+  private KafkaConsumer<Bytes, Bytes> borrowFromPool(KafkaCluster cluster, PoolKey key) {
+    PoolMetrics poolMetrics = metrics.computeIfAbsent(key, PoolMetrics::new);
+    long start = System.nanoTime();
+    PooledKafkaConsumer consumer;
+    try {
+      consumer = pool.borrowObject(key);
+    } catch (NoSuchElementException exhausted) {
+      log.debug("Consumers pool {} is exhausted, creating non-pooled consumer", key);
+      consumer = new PooledKafkaConsumer(createProperties(cluster, key.getType()), key, null);
+    } catch (Exception e) {
+      throw new IllegalStateException(
+          "Error borrowing consumer for cluster " + cluster.getName(), e);
+    }
+    poolMetrics.borrowTime.record(Duration.ofNanos(System.nanoTime() - start));
+    (consumer.borrows > 1 ? poolMetrics.hits : poolMetrics.misses).increment();
+    return consumer;
+  }
+
+  private Properties createProperties(KafkaCluster cluster, ConsumerType type) {
+    return consumerGroupService.createConsumerProperties(cluster,
+        type == ConsumerType.SINGLE_RECORD ? SINGLE_RECORD_PROPERTIES : Map.of());
+  }
+
+  @Override
+  public void close() {
+    pool.close();
+  }
+
+  private class PoolMetrics {
+    final Timer borrowTime;
+    final Counter hits;
+    final Counter misses;
+
+    PoolMetrics(PoolKey key) {
+      String name = key.getClusterName();
+      String type = key.getType().name().toLowerCase();
+      this.borrowTime = Timer.builder(METRICS_PREFIX + ".borrow")
+          .description("Time spent to get consumer from pool (including creation)")
+          .tag("cluster", name)
+          .tag("type", type)
+          .register(meterRegistry);
+      this.hits = Counter.builder(METRICS_PREFIX + ".borrows")
+          .description("Number of consumers borrowed from pool")
+          .tag("cluster", name)
+          .tag("type", type)
+          .tag("result", "hit")
+          .register(meterRegistry);
+      this.misses = Counter.builder(METRICS_PREFIX + ".borrows")
+          .description("Number of consumers borrowed from pool")
+          .tag("cluster", name)
+          .tag("type", type)
+          .tag("result", "miss")
+          .register(meterRegistry);
+      Gauge.builder(METRICS_PREFIX + ".active", pool, p -> p.getNumActive(key))
+          .description("Number of consumers currently in use")
+          .tag("cluster", name)
+          .tag("type", type)
+          .register(meterRegistry);
+      Gauge.builder(METRICS_PREFIX + ".idle", pool, p -> p.getNumIdle(key))
+          .description("Number of consumers waiting in pool")
+          .tag("cluster", name)
+          .tag("type", type)
+          .register(meterRegistry);
+    }
+  }
+
+  private class PooledConsumerFactory
+      extends BaseKeyedPooledObjectFactory<PoolKey, PooledKafkaConsumer> {
+
+    @Override
+    public PooledKafkaConsumer create(PoolKey key) {
+      KafkaCluster cluster = clustersStorage.getClusterByName(key.getClusterName())
+          .orElseThrow(() -> new ClusterNotFoundException(
+              String.format("No cluster for name '%s'", key.getClusterName())));
+      return new PooledKafkaConsumer(createProperties(cluster, key.getType()), key, pool);
+    }
+
+    @Override
+    public PooledObject<PooledKafkaConsumer> wrap(PooledKafkaConsumer consumer) {
+      return new DefaultPooledObject<>(consumer);
+    }
+
+    @Override
+    public void activateObject(PoolKey key, PooledObject<PooledKafkaConsumer> p) {
+      p.getObject().borrows++;
+    }
+
+    @Override
+    public void passivateObject(PoolKey key, PooledObject<PooledKafkaConsumer> p) {
+      // resetting assignment (and positions, paused partitions) for the next borrower,
+      // if consumer is broken exception will be thrown and consumer will be destroyed
+      p.getObject().unsubscribe();
+    }
+
+    @Override
+    public boolean validateObject(PoolKey key, PooledObject<PooledKafkaConsumer> p) {
+      try {
+        p.getObject().listTopics(HEALTH_CHECK_TIMEOUT);
+        return true;
+      } catch (Exception e) {
+        log.debug("Pooled consumer {} failed health check", key, e);
+        return false;
+      }
+    }
+
+    @Override
+    public void destroyObject(PoolKey key, PooledObject<PooledKafkaConsumer> p) {
+      try {
+        p.getObject().destroy();
+      } catch (Exception e) {
+        log.error("Error closing pooled consumer {}", key, e);
+      }
+    }
+  }
+
+  enum ConsumerType {
+    DEFAULT,
+    SINGLE_RECORD
+  }
+
+  @lombok.Value
+  static class PoolKey {
+    String clusterName;
+    ConsumerType type;
+  }
+
+  /**
+   * Consumer that is returned to the pool on {@link #close()}. Consumers created
+   * when pool was exhausted (pool == null) are closed as usual.
+   */
+  static class PooledKafkaConsumer extends KafkaConsumer<Bytes, Bytes> {
+
+    private final PoolKey key;
+    @Nullable
+    private final GenericKeyedObjectPool<PoolKey, PooledKafkaConsumer> pool;
+    private int borrows;
+
+    PooledKafkaConsumer(Properties properties,
+                        PoolKey key,
+                        @Nullable GenericKeyedObjectPool<PoolKey, PooledKafkaConsumer> pool) {
+      super(properties);
+      this.key = key;
+      this.pool = pool;
+    }
+
+    @Override
+    public void close() {
+      if (pool == null) {
+        destroy();
+        return;
+      }
+      try {
+        pool.returnObject(key, this);
+      } catch (Exception e) {
+        log.error("Error returning consumer to pool", e);
+        destroy();
+      }
+    }
+
+    private void destroy() {
+      super.close();
+    }
+  }
+}
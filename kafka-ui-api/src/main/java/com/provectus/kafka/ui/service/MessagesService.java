@@ -1,28 +1,66 @@
 package com.provectus.kafka.ui.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.provectus.kafka.ui.emitter.BackwardRecordEmitter;
+import com.provectus.kafka.ui.emitter.CursorTracker;
 import com.provectus.kafka.ui.emitter.ForwardRecordEmitter;
+import com.provectus.kafka.ui.emitter.LatestMessagesCache;
 import com.provectus.kafka.ui.emitter.MessageFilters;
+import com.provectus.kafka.ui.emitter.MessagesCopyJob;
+import com.provectus.kafka.ui.emitter.MessagesExporter;
+import com.provectus.kafka.ui.emitter.MessagesProcessing;
+import com.provectus.kafka.ui.emitter.SamplingRecordEmitter;
+import com.provectus.kafka.ui.emitter.ScanAdmission;
+import com.provectus.kafka.ui.emitter.ScanBudget;
+import com.provectus.kafka.ui.emitter.ScanMetrics;
+import com.provectus.kafka.ui.emitter.TailingBatcher;
 import com.provectus.kafka.ui.emitter.TailingEmitter;
+import com.provectus.kafka.ui.emitter.TailingHub;
+import com.provectus.kafka.ui.exception.NotFoundException;
 import com.provectus.kafka.ui.exception.TopicNotFoundException;
+import com.provectus.kafka.ui.exception.TopicOrPartitionNotFoundException;
 import com.provectus.kafka.ui.exception.ValidationException;
 import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.CreateTopicMessageDTO;
+import com.provectus.kafka.ui.model.Cursor;
 import com.provectus.kafka.ui.model.KafkaCluster;
 import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.MessagesCopyProgressDTO;
+import com.provectus.kafka.ui.model.MessagesCopyRequestDTO;
+import com.provectus.kafka.ui.model.MessagesExportFormatDTO;
 import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.model.TopicMessageNextPageCursorDTO;
 import com.provectus.kafka.ui.serde.DeserializationService;
 import com.provectus.kafka.ui.serde.RecordSerDe;
+import com.provectus.kafka.ui.service.index.KeyIndex;
+import com.provectus.kafka.ui.service.index.KeyIndexService;
+import com.provectus.kafka.ui.util.ClusterUtil;
 import com.provectus.kafka.ui.util.OffsetsSeekBackward;
 import com.provectus.kafka.ui.util.OffsetsSeekForward;
 import com.provectus.kafka.ui.util.ResultSizeLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +68,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.admin.OffsetSpec;
 import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -39,19 +81,55 @@ import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.BytesSerializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.common.utils.Utils;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MessagesService {
+
+  private static final Duration FETCH_RECORD_POLL_TIMEOUT = Duration.ofMillis(1000);
+  private static final int FETCH_RECORD_POLL_ATTEMPTS = 3;
+  // cached pages are checked against topic's offsets, ttl only limits staleness of their contents
+  private static final Duration LATEST_MESSAGES_CACHE_TTL = Duration.ofMinutes(1);
+  private static final Duration COPY_CHECKPOINT_INTERVAL = Duration.ofSeconds(2);
+  private static final Pattern COPY_JOB_ID = Pattern.compile("[a-zA-Z0-9._-]+");
+  private static final int COPY_MAX_POLL_RECORDS = 2000;
+  // records are sent in large compressed batches, idempotence prevents duplicates on retries
+  private static final Map<String, Object> COPY_PRODUCER_PROPERTIES = Map.of(
+      ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+      ProducerConfig.ACKS_CONFIG, "all",
+      ProducerConfig.LINGER_MS_CONFIG, 20,
+      ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+      ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"
+  );
+
   private final AdminClientService adminClientService;
   private final DeserializationService deserializationService;
+  private final ConsumerPoolService consumerPoolService;
   private final ConsumerGroupService consumerGroupService;
+  private final MeterRegistry meterRegistry;
+  private final KeyIndexService keyIndexService;
+  private final ObjectMapper objectMapper;
+  private final Scheduler messagesDeserializationScheduler;
+  private final TailingHub tailingHub = new TailingHub();
+  // cluster name -> admission of its scans
+  private final Map<String, ScanAdmission> scanAdmissions = new ConcurrentHashMap<>();
+  // cluster name -> cache of its latest messages pages
+  private final Map<String, LatestMessagesCache> latestMessagesCaches = new ConcurrentHashMap<>();
+  // cluster name/job id of running copy jobs
+  private final Set<String> runningCopyJobs = ConcurrentHashMap.newKeySet();
 
   private Mono<TopicDescription> withExistingTopic(KafkaCluster cluster, String topicName) {
     return adminClientService.get(cluster)
@@ -146,58 +224,642 @@ public class MessagesService {
                                                  MessageFilterTypeDTO filterQueryType,
                                                  int limit) {
     return withExistingTopic(cluster, topic)
+        .flatMap(td -> endOffsetsAsLatest(cluster, td, consumerPosition).map(position -> Tuples.of(td, position)))
+        .flatMapMany(t -> loadMessagesFrom(cluster, t.getT1(), t.getT2(), query, filterQueryType, limit));
+  }
+
+  /**
+   * Continues paginated scan from cursor, partitions offsets are taken from it without lookup.
+   */
+  public Flux<TopicMessageEventDTO> loadMessages(KafkaCluster cluster, String topic,
+                                                 Cursor cursor, int limit) {
+    if (!cursor.getTopic().equals(topic)) {
+      return Flux.error(new ValidationException("Cursor was created for another topic"));
+    }
+    return admitScan(cluster, withExistingTopic(cluster, topic)
         .flux()
-        .flatMap(td -> loadMessagesImpl(cluster, topic, consumerPosition, query, filterQueryType, limit));
+        .flatMap(td -> loadMessagesImpl(cluster, topic, cursor.consumerPosition(), cursor,
+            cursor.getQuery(), cursor.getFilterQueryType(), limit)));
+  }
+
+  private Flux<TopicMessageEventDTO> loadMessagesFrom(KafkaCluster cluster, TopicDescription topicDescription,
+                                                      ConsumerPosition position, String query,
+                                                      MessageFilterTypeDTO filterQueryType, int limit) {
+    String topic = topicDescription.name();
+    var messages = Flux.defer(() -> filterQueryType == MessageFilterTypeDTO.KEY_EQUALS
+        ? lookupKey(cluster, topicDescription, position, query, limit)
+        : loadMessagesImpl(cluster, topic, position, null, query, filterQueryType, limit));
+    // tailing runs until client disconnects, so it is neither limited nor budgeted
+    if (position.getSeekDirection() == SeekDirectionDTO.TAILING) {
+      return messages;
+    }
+    var cache = latestMessagesCache(cluster);
+    if (cache != null
+        && filterQueryType != MessageFilterTypeDTO.KEY_EQUALS
+        && LatestMessagesCache.cacheable(position.getSeekType(), position.getSeekDirection(),
+            position.getBoundTimestamp())) {
+      var partitions = position.getSeekTo().keySet().stream()
+          .map(TopicPartition::partition)
+          .collect(Collectors.toSet());
+      var key = new LatestMessagesCache.Key(topic, position.getSeekType(), partitions, query, filterQueryType, limit);
+      return loadLatestMessages(cluster, topicDescription, cache, key, admitScan(cluster, messages));
+    }
+    return admitScan(cluster, messages);
+  }
+
+  /**
+   * UI requests live mode and the latest messages with OFFSET seek type and partitions' end offsets
+   * it knows. Such position is replaced with LATEST one for the same partitions (empty seekTo if all
+   * of them are requested), so tailing session can be shared by all subscribers and the latest
+   * messages page can be cached.
+   */
+  private Mono<ConsumerPosition> endOffsetsAsLatest(KafkaCluster cluster,
+                                                    TopicDescription topicDescription,
+                                                    ConsumerPosition position) {
+    if (position.getSeekDirection() == SeekDirectionDTO.FORWARD
+        || position.getSeekType() != SeekTypeDTO.OFFSET
+        || position.getSeekTo().isEmpty()) {
+      return Mono.just(position);
+    }
+    var partitions = topicDescription.partitions().stream()
+        .map(p -> new TopicPartition(topicDescription.name(), p.partition()))
+        .collect(Collectors.toSet());
+    if (!partitions.containsAll(position.getSeekTo().keySet())) {
+      return Mono.just(position);
+    }
+    return adminClientService.get(cluster)
+        .flatMap(ac -> ac.listOffsets(position.getSeekTo().keySet(), OffsetSpec.latest()))
+        .map(endOffsets -> {
+          boolean atEnd = position.getSeekTo().entrySet().stream()
+              .allMatch(e -> e.getValue() >= endOffsets.getOrDefault(e.getKey(), Long.MAX_VALUE));
+          if (!atEnd) {
+            return position;
+          }
+          var seekTo = position.getSeekTo().keySet().equals(partitions) ? Map.<TopicPartition, Long>of()
+              : position.getSeekTo();
+          return new ConsumerPosition(SeekTypeDTO.LATEST, seekTo, position.getSeekDirection(),
+              position.getBoundTimestamp());
+        });
+  }
+
+  /**
+   * Scan waits in cluster's queue until it can be started, and is stopped when it exceeds cluster's budget.
+   */
+  private Flux<TopicMessageEventDTO> admitScan(KafkaCluster cluster, Flux<TopicMessageEventDTO> scan) {
+    return scanAdmission(cluster).admit(
+        scan.transform(new ScanBudget(cluster.getMessagesScanBytesBudget(), cluster.getMessagesScanTimeBudget())));
+  }
+
+  private ScanAdmission scanAdmission(KafkaCluster cluster) {
+    return scanAdmissions.computeIfAbsent(cluster.getName(), name -> new ScanAdmission(
+        cluster.getMessagesScanConcurrency(), cluster.getMessagesScanConcurrencyPerUser()));
+  }
+
+  @Nullable
+  private LatestMessagesCache latestMessagesCache(KafkaCluster cluster) {
+    if (cluster.getMessagesCacheSize() == null || cluster.getMessagesCacheSize().toBytes() <= 0) {
+      return null;
+    }
+    return latestMessagesCaches.computeIfAbsent(cluster.getName(), name -> new LatestMessagesCache(
+        cluster.getMessagesCacheSize().toBytes(), LATEST_MESSAGES_CACHE_TTL, Clock.systemUTC(), meterRegistry, name));
+  }
+
+  /**
+   * Serves cached page while offsets of requested partitions are the same. If only few records were
+   * appended since page was cached, only they are read and merged into the page, otherwise (or if
+   * they can't be merged) the full scan is done and its result is cached.
+   */
+  private Flux<TopicMessageEventDTO> loadLatestMessages(KafkaCluster cluster,
+                                                        TopicDescription topicDescription,
+                                                        LatestMessagesCache cache,
+                                                        LatestMessagesCache.Key key,
+                                                        Flux<TopicMessageEventDTO> scan) {
+    String topic = key.getTopic();
+    List<TopicPartition> partitions = topicDescription.partitions().stream()
+        .filter(p -> key.getPartitions().isEmpty() || key.getPartitions().contains(p.partition()))
+        .map(p -> new TopicPartition(topic, p.partition()))
+        .collect(Collectors.toList());
+    return adminClientService.get(cluster)
+        .flatMap(ac -> ac.listOffsets(partitions, OffsetSpec.earliest())
+            .zipWith(ac.listOffsets(partitions, OffsetSpec.latest())))
+        .flatMapMany(offsets -> {
+          var beginOffsets = offsets.getT1();
+          var endOffsets = offsets.getT2();
+          var cached = cache.get(key);
+          long appended = cached != null ? LatestMessagesCache.appendedSince(cached, beginOffsets, endOffsets) : -1;
+          if (appended == 0) {
+            cache.hit();
+            return pageEvents(cached);
+          }
+          if (appended > 0 && appended <= key.getLimit()) {
+            var tail = new Cursor(topic, SeekDirectionDTO.BACKWARD, key.getQuery(), key.getFilterQueryType(),
+                LatestMessagesCache.appendedRanges(cached, endOffsets));
+            return loadMessagesImpl(cluster, topic, tail.consumerPosition(), tail,
+                key.getQuery(), key.getFilterQueryType(), key.getLimit())
+                .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+                .map(TopicMessageEventDTO::getMessage)
+                .collectList()
+                .flatMapMany(tailMessages -> {
+                  var page = cache.extend(key, cached, tailMessages, endOffsets);
+                  if (page == null) {
+                    cache.miss();
+                    return scanAndCache(cache, key, scan, beginOffsets, endOffsets);
+                  }
+                  cache.extended();
+                  cache.put(key, page);
+                  return pageEvents(page);
+                });
+          }
+          cache.miss();
+          return scanAndCache(cache, key, scan, beginOffsets, endOffsets);
+        });
+  }
+
+  private Flux<TopicMessageEventDTO> scanAndCache(LatestMessagesCache cache,
+                                                  LatestMessagesCache.Key key,
+                                                  Flux<TopicMessageEventDTO> scan,
+                                                  Map<TopicPartition, Long> beginOffsets,
+                                                  Map<TopicPartition, Long> endOffsets) {
+    return Flux.defer(() -> {
+      List<TopicMessageDTO> messages = new ArrayList<>();
+      return scan.doOnNext(evt -> {
+        if (evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE) {
+          messages.add(evt.getMessage());
+        } else if (evt.getType() == TopicMessageEventDTO.TypeEnum.DONE
+            // records appended after offsets were listed would be read again as appended ones
+            && messages.stream().allMatch(msg -> msg.getOffset()
+                < endOffsets.getOrDefault(new TopicPartition(key.getTopic(), msg.getPartition()), 0L))) {
+          var nextPage = evt.getCursor() != null ? Cursor.decode(evt.getCursor().getId()) : null;
+          cache.put(key, cache.page(messages, nextPage, beginOffsets, endOffsets));
+        }
+      });
+    });
+  }
+
+  private static Flux<TopicMessageEventDTO> pageEvents(LatestMessagesCache.Page page) {
+    return Flux.fromIterable(page.getMessages())
+        .map(msg -> new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.MESSAGE).message(msg))
+        .concatWith(Mono.fromSupplier(() -> doneEvent(page.getNextPage())));
+  }
+
+  /**
+   * Searches messages in topics from the list or matching the pattern. Topics are scanned with
+   * the same emitters as single topic (up to cluster's messagesSearchConcurrency topics at once),
+   * found messages are tagged with their topic. All scans are cancelled when limit messages are found.
+   */
+  public Flux<TopicMessageEventDTO> searchMessages(KafkaCluster cluster,
+                                                   @Nullable List<String> topics,
+                                                   @Nullable String topicPattern,
+                                                   String query,
+                                                   MessageFilterTypeDTO filterQueryType,
+                                                   SeekDirectionDTO seekDirection,
+                                                   int limit) {
+    if (StringUtils.isEmpty(query)) {
+      return Flux.error(new ValidationException("Search query should be set"));
+    }
+    if (seekDirection == SeekDirectionDTO.TAILING) {
+      return Flux.error(new ValidationException("Tailing is not supported for search"));
+    }
+    var position = new ConsumerPosition(
+        seekDirection == SeekDirectionDTO.BACKWARD ? SeekTypeDTO.LATEST : SeekTypeDTO.BEGINNING,
+        Map.of(),
+        seekDirection
+    );
+    return searchedTopics(cluster, topics, topicPattern)
+        .flatMapMany(names -> Flux.fromIterable(names)
+            .flatMap(
+                topic -> loadMessages(cluster, topic, position, query, filterQueryType, limit)
+                    .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+                    .map(evt -> new TopicMessageEventDTO()
+                        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+                        .topic(topic)
+                        .message(evt.getMessage()))
+                    // topic can be deleted while searched, other topics are still scanned
+                    .onErrorResume(e -> {
+                      log.warn("Error searching messages in topic {}", topic, e);
+                      return Flux.empty();
+                    }),
+                Math.max(1, cluster.getMessagesSearchConcurrency())))
+        .take(limit)
+        .concatWith(Mono.fromSupplier(() -> doneEvent(null)));
+  }
+
+  private Mono<List<String>> searchedTopics(KafkaCluster cluster,
+                                            @Nullable List<String> topics,
+                                            @Nullable String topicPattern) {
+    Predicate<String> searched;
+    if (topics != null && !topics.isEmpty()) {
+      searched = Set.copyOf(topics)::contains;
+    } else if (topicPattern != null) {
+      try {
+        searched = Pattern.compile(topicPattern).asMatchPredicate();
+      } catch (PatternSyntaxException e) {
+        return Mono.error(new ValidationException("Invalid topic pattern: " + e.getMessage()));
+      }
+    } else {
+      return Mono.error(new ValidationException("Topics or topicPattern should be set"));
+    }
+    return adminClientService.get(cluster)
+        .flatMap(ac -> ac.listTopics(false))
+        .map(names -> names.stream().filter(searched).sorted().collect(Collectors.toList()))
+        .filter(names -> !names.isEmpty())
+        .switchIfEmpty(Mono.error(new NotFoundException("No topics found for search")));
+  }
+
+  // default partitioner writes all records with the same key to the same partition,
+  // so only that partition is scanned
+  private Flux<TopicMessageEventDTO> lookupKey(KafkaCluster cluster, TopicDescription topicDescription,
+                                               ConsumerPosition consumerPosition, String key, int limit) {
+    String topic = topicDescription.name();
+    byte[] keyBytes = serializeKey(deserializationService.getRecordDeserializerForCluster(cluster), topic, key);
+    var partition = new TopicPartition(topic,
+        Utils.toPositive(Utils.murmur2(keyBytes)) % topicDescription.partitions().size());
+    SeekTypeDTO seekType = consumerPosition.getSeekType();
+    Map<TopicPartition, Long> seekTo;
+    if (consumerPosition.getSeekTo().isEmpty()) {
+      // default position is kept for key's partition: the end for backward scan (offset is not used
+      // by LATEST seek type), the beginning otherwise (zero for both offset and timestamp seek types)
+      if (consumerPosition.getSeekDirection() == SeekDirectionDTO.BACKWARD) {
+        seekType = SeekTypeDTO.LATEST;
+      }
+      seekTo = Map.of(partition, 0L);
+    } else if (consumerPosition.getSeekTo().containsKey(partition)) {
+      seekTo = Map.of(partition, consumerPosition.getSeekTo().get(partition));
+    } else {
+      // key's partition is not requested
+      return Flux.just(doneEvent(null));
+    }
+    var position = new ConsumerPosition(seekType, seekTo,
+        consumerPosition.getSeekDirection(), consumerPosition.getBoundTimestamp());
+    return loadMessagesImpl(cluster, topic, position, null, key, MessageFilterTypeDTO.KEY_EQUALS, limit);
+  }
+
+  private static byte[] serializeKey(RecordSerDe serde, String topic, String key) {
+    if (StringUtils.isEmpty(key)) {
+      throw new ValidationException("Key should be set");
+    }
+    byte[] keyBytes = serde.serialize(topic, key, null, null).key();
+    if (keyBytes == null) {
+      throw new ValidationException("Key can't be serialized");
+    }
+    return keyBytes;
+  }
+
+  /**
+   * Copies topic's records from the given position to the target topic, see {@link MessagesCopyJob}.
+   * Job is stopped when subscription is cancelled and can be continued with the same jobId and request,
+   * only one job with the given jobId can run at once.
+   */
+  public Flux<MessagesCopyProgressDTO> copyMessages(KafkaCluster cluster, String topic,
+                                                    ConsumerPosition consumerPosition,
+                                                    MessagesCopyRequestDTO request) {
+    String jobId = Optional.ofNullable(request.getJobId())
+        .filter(id -> !id.isEmpty())
+        .orElseGet(() -> UUID.randomUUID().toString());
+    if (!COPY_JOB_ID.matcher(jobId).matches()) {
+      return Flux.error(new ValidationException("Invalid jobId: " + jobId));
+    }
+    if (topic.equals(request.getTargetTopic())) {
+      return Flux.error(new ValidationException("Target topic should differ from the source topic"));
+    }
+    if (consumerPosition.getSeekType() == SeekTypeDTO.SAMPLE) {
+      return Flux.error(new ValidationException("Sample can't be copied"));
+    }
+    boolean keepPartitions = Boolean.TRUE.equals(request.getKeepPartitions());
+    return withExistingTopic(cluster, topic)
+        .zipWith(withExistingTopic(cluster, request.getTargetTopic()))
+        .flatMapMany(topics -> {
+          if (keepPartitions && topics.getT2().partitions().size() < topics.getT1().partitions().size()) {
+            return Flux.error(new ValidationException("Target topic has less partitions than the source topic"));
+          }
+          var job = new MessagesCopyJob(
+              jobId,
+              copyRequestDigest(consumerPosition, request),
+              () -> consumerGroupService.createConsumer(cluster, Map.of(
+                  ConsumerConfig.GROUP_ID_CONFIG, "kafka-ui-copy-" + jobId,
+                  ConsumerConfig.MAX_POLL_RECORDS_CONFIG, COPY_MAX_POLL_RECORDS)),
+              () -> createCopyProducer(cluster),
+              new OffsetsSeekForward(topic, consumerPosition),
+              request.getTargetTopic(),
+              keepPartitions,
+              Optional.ofNullable(request.getRateLimit()).orElse(0),
+              getCopyFilter(cluster, topic, request.getQ(), request.getFilterQueryType()),
+              COPY_CHECKPOINT_INTERVAL
+          );
+          String runningJobKey = cluster.getName() + "/" + jobId;
+          return Flux.<MessagesCopyProgressDTO>create(sink -> {
+            // job is marked as running in worker thread, so it is unmarked only when job's loop is exited
+            if (!runningCopyJobs.add(runningJobKey)) {
+              sink.error(new ValidationException("Copy job " + jobId + " is already running"));
+              return;
+            }
+            try {
+              job.accept(sink);
+            } finally {
+              runningCopyJobs.remove(runningJobKey);
+            }
+          }).subscribeOn(Schedulers.boundedElastic(), false);
+        });
+  }
+
+  /**
+   * Hex of the first 16 bytes of request's SHA-256, so changed request is not taken for the committed one.
+   */
+  private static String copyRequestDigest(ConsumerPosition position, MessagesCopyRequestDTO request) {
+    String seekTo = position.getSeekTo().entrySet().stream()
+        .map(e -> e.getKey().partition() + "=" + e.getValue())
+        .sorted()
+        .collect(Collectors.joining(","));
+    // enums are converted to names, so digest is the same after restart; query can contain
+    // any characters, so it goes last and can't be confused with other fields
+    String spec = String.join("|", String.valueOf(position.getSeekType()), seekTo,
+        String.valueOf(position.getBoundTimestamp()), String.valueOf(request.getFilterQueryType()),
+        request.getTargetTopic(), String.valueOf(Boolean.TRUE.equals(request.getKeepPartitions())),
+        String.valueOf(request.getQ()));
+    byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-256").digest(spec.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    StringBuilder digest = new StringBuilder();
+    for (int i = 0; i < 16; i++) {
+      digest.append(String.format("%02x", hash[i]));
+    }
+    return digest.toString();
+  }
+
+  private KafkaProducer<Bytes, Bytes> createCopyProducer(KafkaCluster cluster) {
+    Properties properties = new Properties();
+    properties.putAll(cluster.getProperties());
+    properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, cluster.getBootstrapServers());
+    properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, BytesSerializer.class);
+    properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BytesSerializer.class);
+    properties.putAll(COPY_PRODUCER_PROPERTIES);
+    return new KafkaProducer<>(properties);
+  }
+
+  // records are deserialized only if query is set and they pass raw filter
+  private Predicate<ConsumerRecord<Bytes, Bytes>> getCopyFilter(KafkaCluster cluster, String topic,
+                                                               @Nullable String query,
+                                                               @Nullable MessageFilterTypeDTO filterQueryType) {
+    if (StringUtils.isEmpty(query)) {
+      return rec -> true;
+    }
+    RecordSerDe serde = deserializationService.getRecordDeserializerForCluster(cluster);
+    var rawFilter = getRawMsgFilter(ScanMetrics.noop(), topic, query, filterQueryType, serde);
+    if (filterQueryType == MessageFilterTypeDTO.KEY_EQUALS) {
+      return rawFilter;
+    }
+    var messageFilter = MessageFilters.createMsgFilter(
+        query, Optional.ofNullable(filterQueryType).orElse(MessageFilterTypeDTO.STRING_CONTAINS));
+    return rec -> rawFilter.test(rec) && messageFilter.test(ClusterUtil.mapToTopicMessage(rec, serde));
   }
 
   private Flux<TopicMessageEventDTO> loadMessagesImpl(KafkaCluster cluster, String topic,
-                                                 ConsumerPosition consumerPosition, String query,
+                                                 ConsumerPosition consumerPosition,
+                                                 @Nullable Cursor cursor,
+                                                 String query,
                                                  MessageFilterTypeDTO filterQueryType,
                                                  int limit) {
 
     java.util.function.Consumer<? super FluxSink<TopicMessageEventDTO>> emitter;
-    RecordSerDe recordDeserializer =
-        deserializationService.getRecordDeserializerForCluster(cluster);
-    if (consumerPosition.getSeekDirection().equals(SeekDirectionDTO.FORWARD)) {
-      emitter = new ForwardRecordEmitter(
-          () -> consumerGroupService.createConsumer(cluster),
+    var metrics = ScanMetrics.create(meterRegistry, cluster.getName(), topic, consumerPosition.getSeekDirection());
+    var messagesProcessing = createMessagesProcessing(cluster, topic, metrics, query, filterQueryType);
+    if (consumerPosition.getSeekType() == SeekTypeDTO.SAMPLE) {
+      emitter = new SamplingRecordEmitter(
+          () -> metrics.timeConsumerCreation(() -> consumerPoolService.borrow(cluster)),
           new OffsetsSeekForward(topic, consumerPosition),
-          recordDeserializer
-      );
-    } else if (consumerPosition.getSeekDirection().equals(SeekDirectionDTO.BACKWARD)) {
-      emitter = new BackwardRecordEmitter(
-          (Map<String, Object> props) -> consumerGroupService.createConsumer(cluster, props),
-          new OffsetsSeekBackward(topic, consumerPosition, limit),
-          recordDeserializer
+          limit,
+          messagesProcessing
       );
-    } else {
+      // sample is random, so there is no next page
+      return Flux.create(emitter)
+          .filter(getMsgFilter(metrics, query, filterQueryType))
+          .takeWhile(new ResultSizeLimiter(limit))
+          .concatWith(Mono.fromSupplier(() -> doneEvent(null)))
+          .subscribeOn(Schedulers.boundedElastic(), false)
+          .share();
+    }
+    if (consumerPosition.getSeekDirection() == SeekDirectionDTO.TAILING) {
+      if (consumerPosition.getSeekType() == SeekTypeDTO.LATEST
+          && filterQueryType != MessageFilterTypeDTO.KEY_EQUALS) {
+        // tailing from the latest offsets is the same for every subscriber, so it can be shared,
+        // unless records are filtered before deserialization
+        return tailingHub.subscribe(
+            new TailingHub.Key(cluster.getName(), topic, consumerPosition.getSeekTo().keySet().stream()
+                .map(TopicPartition::partition)
+                .collect(Collectors.toSet())),
+            () -> new TailingEmitter(
+                createMessagesProcessing(cluster, topic, metrics, null, null),
+                () -> metrics.timeConsumerCreation(() -> consumerPoolService.borrow(cluster)),
+                new OffsetsSeekForward(topic, consumerPosition)
+            ),
+            getMsgFilter(metrics, query, filterQueryType)
+        );
+      }
       emitter = new TailingEmitter(
-          recordDeserializer,
-          () -> consumerGroupService.createConsumer(cluster),
+          messagesProcessing,
+          () -> metrics.timeConsumerCreation(() -> consumerPoolService.borrow(cluster)),
           new OffsetsSeekForward(topic, consumerPosition)
       );
+      return Flux.create(emitter)
+          .filter(getMsgFilter(metrics, query, filterQueryType))
+          // requests are not scheduled on the emitter's thread, since it is busy while emitter runs
+          .subscribeOn(Schedulers.boundedElastic(), false)
+          .transform(new TailingBatcher())
+          .share();
+    }
+    var cursorTracker =
+        new CursorTracker(topic, consumerPosition.getSeekDirection(), query, filterQueryType);
+    if (consumerPosition.getSeekDirection() == SeekDirectionDTO.FORWARD) {
+      emitter = new ForwardRecordEmitter(
+          () -> metrics.timeConsumerCreation(() -> consumerPoolService.borrow(cluster)),
+          cursor != null
+              ? new OffsetsSeekForward(topic, cursor)
+              : new OffsetsSeekForward(topic, consumerPosition),
+          messagesProcessing,
+          cursorTracker
+      );
+    } else {
+      emitter = new BackwardRecordEmitter(
+          () -> metrics.timeConsumerCreation(() -> consumerPoolService.borrow(cluster)),
+          cursor != null
+              ? new OffsetsSeekBackward(topic, cursor, limit)
+              : new OffsetsSeekBackward(topic, consumerPosition, limit),
+          messagesProcessing,
+          cursorTracker
+      );
     }
     return Flux.create(emitter)
-        .filter(getMsgFilter(query, filterQueryType))
-        .takeWhile(createTakeWhilePredicate(consumerPosition, limit))
-        .subscribeOn(Schedulers.boundedElastic())
+        .doOnNext(cursorTracker::scanned)
+        .doOnComplete(cursorTracker::scanCompleted)
+        .filter(getMsgFilter(metrics, query, filterQueryType))
+        .takeWhile(new ResultSizeLimiter(limit))
+        .doOnNext(cursorTracker::delivered)
+        .concatWith(Mono.fromSupplier(() -> doneEvent(cursorTracker.nextPageCursor())))
+        .subscribeOn(Schedulers.boundedElastic(), false)
         .share();
   }
 
-  private Predicate<TopicMessageEventDTO> createTakeWhilePredicate(
-      ConsumerPosition consumerPosition, int limit) {
-    return consumerPosition.getSeekDirection() == SeekDirectionDTO.TAILING
-        ? evt -> true // no limit for tailing
-        : new ResultSizeLimiter(limit);
+  private static TopicMessageEventDTO doneEvent(@Nullable Cursor nextPageCursor) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.DONE)
+        .cursor(nextPageCursor != null
+            ? new TopicMessageNextPageCursorDTO().id(nextPageCursor.encode())
+            : null);
+  }
+
+  /**
+   * Exports topic's records from the given position as newline-delimited JSON chunks.
+   * Records are polled only when the next chunk is requested. Export takes a slot of cluster's
+   * scans queue, but is not limited by scan budget, since it is expected to read the whole topic.
+   */
+  public Flux<byte[]> exportMessages(KafkaCluster cluster, String topic,
+                                     ConsumerPosition consumerPosition,
+                                     MessagesExportFormatDTO format,
+                                     boolean gzip) {
+    Flux<byte[]> export = withExistingTopic(cluster, topic)
+        .flatMapMany(td -> Flux.<byte[], MessagesExporter>generate(
+            () -> new MessagesExporter(
+                consumerPoolService.borrow(cluster),
+                new OffsetsSeekForward(topic, consumerPosition),
+                format == MessagesExportFormatDTO.RAW
+                    ? null
+                    : deserializationService.getRecordDeserializerForCluster(cluster),
+                objectMapper,
+                gzip
+            ),
+            MessagesService::exportNextChunk,
+            MessagesExporter::close)
+            // requests are scheduled on worker, so records are not polled on the caller's thread
+            .subscribeOn(Schedulers.boundedElastic()));
+    // chunks are written to response as is, so queue position is not reported
+    return scanAdmission(cluster).admit(export, phase -> null);
+  }
+
+  private static MessagesExporter exportNextChunk(MessagesExporter exporter, SynchronousSink<byte[]> sink) {
+    byte[] chunk = exporter.nextChunk();
+    if (chunk == null) {
+      sink.complete();
+    } else {
+      sink.next(chunk);
+    }
+    return exporter;
+  }
+
+  /**
+   * Finds the latest records with the given key using topic's key index.
+   */
+  public Flux<TopicMessageDTO> loadMessagesByKey(KafkaCluster cluster, String topic,
+                                                 String key, int limit) {
+    return withExistingTopic(cluster, topic)
+        .publishOn(Schedulers.boundedElastic())
+        .flatMapIterable(td -> findMessagesByKey(cluster, topic, key, limit));
+  }
+
+  private List<TopicMessageDTO> findMessagesByKey(KafkaCluster cluster, String topic,
+                                                  String key, int limit) {
+    RecordSerDe serde = deserializationService.getRecordDeserializerForCluster(cluster);
+    byte[] keyBytes = serde.serialize(topic, key, null, null).key();
+    if (keyBytes == null) {
+      return List.of();
+    }
+    var entries = keyIndexService.lookup(cluster, topic, keyBytes, limit);
+    List<TopicMessageDTO> result = new ArrayList<>();
+    try (KafkaConsumer<Bytes, Bytes> consumer = consumerPoolService.borrow(cluster)) {
+      for (KeyIndex.Entry entry : entries) {
+        fetchRecord(consumer, new TopicPartition(topic, entry.getPartition()), entry.getOffset())
+            // hashes can collide
+            .filter(rec -> rec.key() != null && Arrays.equals(rec.key().get(), keyBytes))
+            .ifPresent(rec -> result.add(ClusterUtil.mapToTopicMessage(rec, serde)));
+      }
+    }
+    result.sort(Comparator.comparing(TopicMessageDTO::getTimestamp).reversed());
+    return result;
+  }
+
+  /**
+   * Fetches single record by its offset with pooled single record consumer, which reads only
+   * the first record batch at the offset.
+   */
+  public Mono<TopicMessageDTO> loadMessage(KafkaCluster cluster, String topic, int partition, long offset) {
+    return withExistingTopic(cluster, topic)
+        .publishOn(Schedulers.boundedElastic())
+        .flatMap(td -> {
+          if (td.partitions().stream().noneMatch(p -> p.partition() == partition)) {
+            return Mono.error(new TopicOrPartitionNotFoundException());
+          }
+          RecordSerDe serde = deserializationService.getRecordDeserializerForCluster(cluster);
+          try (KafkaConsumer<Bytes, Bytes> consumer = consumerPoolService.borrowSingleRecordConsumer(cluster)) {
+            return Mono.justOrEmpty(fetchRecord(consumer, new TopicPartition(topic, partition), offset)
+                .map(rec -> ClusterUtil.mapToTopicMessage(rec, serde)));
+          }
+        })
+        .switchIfEmpty(Mono.error(new NotFoundException(
+            String.format("Message with offset %d not found in partition %d", offset, partition))));
+  }
+
+  private Optional<ConsumerRecord<Bytes, Bytes>> fetchRecord(Consumer<Bytes, Bytes> consumer,
+                                                             TopicPartition tp, long offset) {
+    consumer.assign(List.of(tp));
+    consumer.seek(tp, offset);
+    for (int attempt = 0; attempt < FETCH_RECORD_POLL_ATTEMPTS; attempt++) {
+      var records = consumer.poll(FETCH_RECORD_POLL_TIMEOUT).records(tp);
+      for (ConsumerRecord<Bytes, Bytes> rec : records) {
+        if (rec.offset() >= offset) {
+          // record could already be deleted by retention or compaction
+          return rec.offset() == offset ? Optional.of(rec) : Optional.empty();
+        }
+      }
+      if (consumer.position(tp) > offset) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private MessagesProcessing createMessagesProcessing(KafkaCluster cluster, String topic, ScanMetrics metrics,
+                                                      String query, MessageFilterTypeDTO filterQueryType) {
+    RecordSerDe recordDeserializer =
+        deserializationService.getRecordDeserializerForCluster(cluster);
+    return new MessagesProcessing(
+        recordDeserializer,
+        getRawMsgFilter(metrics, topic, query, filterQueryType, recordDeserializer),
+        cluster.getDeserializationParallelism(),
+        messagesDeserializationScheduler,
+        Optional.ofNullable(cluster.getMessagesBufferSize()).map(DataSize::toBytes).orElse(Long.MAX_VALUE),
+        metrics
+    );
+  }
+
+  private Predicate<ConsumerRecord<Bytes, Bytes>> getRawMsgFilter(ScanMetrics metrics,
+                                                                 String topic,
+                                                                 String query,
+                                                                 MessageFilterTypeDTO filterQueryType,
+                                                                 RecordSerDe recordDeserializer) {
+    if (filterQueryType == MessageFilterTypeDTO.KEY_EQUALS) {
+      return metrics.timedFilter(
+          MessageFilters.keyEqualsRawFilter(serializeKey(recordDeserializer, topic, query)));
+    }
+    if (StringUtils.isEmpty(query)) {
+      return rec -> true;
+    }
+    return metrics.timedFilter(MessageFilters.createRawFilter(
+        query,
+        Optional.ofNullable(filterQueryType).orElse(MessageFilterTypeDTO.STRING_CONTAINS),
+        recordDeserializer
+    ));
   }
 
-  private Predicate<TopicMessageEventDTO> getMsgFilter(String query, MessageFilterTypeDTO filterQueryType) {
+  private Predicate<TopicMessageEventDTO> getMsgFilter(ScanMetrics metrics, String query,
+                                                       MessageFilterTypeDTO filterQueryType) {
     if (StringUtils.isEmpty(query)) {
       return evt -> true;
     }
     filterQueryType = Optional.ofNullable(filterQueryType)
         .orElse(MessageFilterTypeDTO.STRING_CONTAINS);
-    var messageFilter = MessageFilters.createMsgFilter(query, filterQueryType);
+    var messageFilter = metrics.timedFilter(MessageFilters.createMsgFilter(query, filterQueryType));
     return evt -> {
       // we only apply filter for message events
       if (evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE) {
@@ -0,0 +1,270 @@
+package com.provectus.kafka.ui.service.index;
+
+import com.google.common.hash.Hashing;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only on-disk hash index of topic's record keys: key hash -> (partition, offset, timestamp).
+ * Consists of memory-mapped files:
+ * <ul>
+ *   <li>buckets - fixed array of entries chains heads (entry number + 1, 0 for empty bucket)</li>
+ *   <li>entries - appended entries, each references previous entry of its bucket, so chains
+ *   are walked from the newest entries to the oldest</li>
+ *   <li>checkpoint - number of persisted entries and next offsets to index for each partition</li>
+ * </ul>
+ * Entries which were appended after the last checkpoint are dropped on reopening, buckets
+ * are rebuilt if they reference such entries. Appends should be done from a single thread.
+ */
+@Slf4j
+public class KeyIndex implements Closeable {
+
+  // hash, offset, timestamp, previous entry number + 1, partition
+  private static final int ENTRY_SIZE = 8 + 8 + 8 + 8 + 4;
+  private static final int MAX_SEGMENT_ENTRIES = 1 << 24;
+  // buckets are mapped as a single buffer, so its size should fit into int
+  private static final int MAX_BUCKETS = 1 << 27;
+
+  private static final String BUCKETS_FILE = "buckets.idx";
+  private static final String ENTRIES_FILE = "entries.idx";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String ENTRIES_PROPERTY = "entries";
+  private static final String BUCKETS_PROPERTY = "buckets";
+  private static final String PARTITION_PROPERTY_PREFIX = "partition.";
+
+  @Value
+  public static class Entry {
+    int partition;
+    long offset;
+    long timestamp;
+  }
+
+  private final Path dir;
+  private final int bucketsCount;
+  private final long maxEntries;
+  private final int segmentEntries;
+  private final FileChannel bucketsChannel;
+  private final FileChannel entriesChannel;
+  private final MappedByteBuffer buckets;
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  private final Map<Integer, Long> nextOffsets = new HashMap<>();
+  private long entriesCount;
+
+  /**
+   * Opens existing index or creates a new one. Buckets count is rounded up to the power of 2,
+   * index stops accepting entries when its files size reaches maxBytes.
+   */
+  static KeyIndex open(Path dir, int buckets, long maxBytes) throws IOException {
+    return new KeyIndex(dir, buckets, maxBytes);
+  }
+
+  static long hash(byte[] key) {
+    return Hashing.murmur3_128().hashBytes(key).asLong();
+  }
+
+  private KeyIndex(Path dir, int buckets, long maxBytes) throws IOException {
+    this.dir = dir;
+    this.bucketsCount = buckets <= 1 ? 1 : Math.min(MAX_BUCKETS, Integer.highestOneBit(buckets - 1) << 1);
+    long bucketsBytes = (long) bucketsCount * Long.BYTES;
+    this.maxEntries = (maxBytes - bucketsBytes) / ENTRY_SIZE;
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Index size limit %d bytes is less than buckets size %d", maxBytes, bucketsBytes));
+    }
+    this.segmentEntries = (int) Math.min(MAX_SEGMENT_ENTRIES, maxEntries);
+    Files.createDirectories(dir);
+
+    boolean rebuildBuckets = false;
+    Optional<Properties> checkpoint = readCheckpoint();
+    if (checkpoint.isPresent()) {
+      entriesCount = Math.min(maxEntries, Long.parseLong(checkpoint.get().getProperty(ENTRIES_PROPERTY)));
+      checkpoint.get().stringPropertyNames().stream()
+          .filter(p -> p.startsWith(PARTITION_PROPERTY_PREFIX))
+          .forEach(p -> nextOffsets.put(
+              Integer.parseInt(p.substring(PARTITION_PROPERTY_PREFIX.length())),
+              Long.parseLong(checkpoint.get().getProperty(p))));
+      rebuildBuckets = !String.valueOf(bucketsCount).equals(checkpoint.get().getProperty(BUCKETS_PROPERTY));
+    } else {
+      // nothing was persisted - starting from scratch
+      Files.deleteIfExists(dir.resolve(BUCKETS_FILE));
+      Files.deleteIfExists(dir.resolve(ENTRIES_FILE));
+    }
+    if (rebuildBuckets) {
+      Files.deleteIfExists(dir.resolve(BUCKETS_FILE));
+    }
+    this.bucketsChannel = FileChannel.open(dir.resolve(BUCKETS_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.entriesChannel = FileChannel.open(dir.resolve(ENTRIES_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buckets = bucketsChannel.map(FileChannel.MapMode.READ_WRITE, 0, bucketsBytes);
+
+    if (rebuildBuckets || hasUncheckpointedEntriesReferences()) {
+      log.info("Rebuilding key index buckets in {}", dir);
+      rebuildBuckets();
+    }
+  }
+
+  /**
+   * Appends entry, returns false if index size limit is reached.
+   */
+  synchronized boolean append(long hash, int partition, long offset, long timestamp) {
+    if (entriesCount >= maxEntries) {
+      return false;
+    }
+    int bucket = bucket(hash);
+    long head = buckets.getLong(bucket * Long.BYTES);
+    writeEntry(entriesCount, hash, partition, offset, timestamp, head);
+    buckets.putLong(bucket * Long.BYTES, entriesCount + 1);
+    entriesCount++;
+    return true;
+  }
+
+  synchronized void markIndexed(int partition, long nextOffset) {
+    nextOffsets.put(partition, nextOffset);
+  }
+
+  synchronized Optional<Long> nextOffset(int partition) {
+    return Optional.ofNullable(nextOffsets.get(partition));
+  }
+
+  synchronized long size() {
+    return entriesCount;
+  }
+
+  /**
+   * Returns up to limit entries with given hash, the most recently appended first.
+   */
+  synchronized List<Entry> lookup(long hash, int limit) {
+    List<Entry> result = new ArrayList<>();
+    long next = buckets.getLong(bucket(hash) * Long.BYTES);
+    while (next > 0 && result.size() < limit) {
+      long entry = next - 1;
+      MappedByteBuffer segment = segment(entry);
+      int pos = positionInSegment(entry);
+      if (segment.getLong(pos) == hash) {
+        result.add(new Entry(segment.getInt(pos + 32), segment.getLong(pos + 8), segment.getLong(pos + 16)));
+      }
+      long prev = segment.getLong(pos + 24);
+      // chains always reference older entries, anything else means corrupted file
+      if (prev > entry) {
+        log.warn("Corrupted key index entries chain in {}", dir);
+        break;
+      }
+      next = prev;
+    }
+    return result;
+  }
+
+  /**
+   * Flushes mapped files and persists entries count and partitions offsets.
+   */
+  synchronized void checkpoint() {
+    try {
+      buckets.force();
+      segments.forEach(MappedByteBuffer::force);
+      Properties props = new Properties();
+      props.setProperty(ENTRIES_PROPERTY, String.valueOf(entriesCount));
+      props.setProperty(BUCKETS_PROPERTY, String.valueOf(bucketsCount));
+      nextOffsets.forEach((p, o) -> props.setProperty(PARTITION_PROPERTY_PREFIX + p, String.valueOf(o)));
+      Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tmp)) {
+        props.store(writer, null);
+      }
+      Files.move(tmp, dir.resolve(CHECKPOINT_FILE),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    checkpoint();
+    bucketsChannel.close();
+    entriesChannel.close();
+  }
+
+  private Optional<Properties> readCheckpoint() throws IOException {
+    Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(checkpoint)) {
+      return Optional.empty();
+    }
+    Properties props = new Properties();
+    try (Reader reader = Files.newBufferedReader(checkpoint)) {
+      props.load(reader);
+    }
+    return Optional.of(props);
+  }
+
+  private boolean hasUncheckpointedEntriesReferences() {
+    for (int i = 0; i < bucketsCount; i++) {
+      if (buckets.getLong(i * Long.BYTES) > entriesCount) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void rebuildBuckets() {
+    for (int i = 0; i < bucketsCount; i++) {
+      buckets.putLong(i * Long.BYTES, 0);
+    }
+    for (long entry = 0; entry < entriesCount; entry++) {
+      MappedByteBuffer segment = segment(entry);
+      int pos = positionInSegment(entry);
+      int bucket = bucket(segment.getLong(pos));
+      segment.putLong(pos + 24, buckets.getLong(bucket * Long.BYTES));
+      buckets.putLong(bucket * Long.BYTES, entry + 1);
+    }
+  }
+
+  private void writeEntry(long entry, long hash, int partition, long offset, long timestamp, long prev) {
+    MappedByteBuffer segment = segment(entry);
+    int pos = positionInSegment(entry);
+    segment.putLong(pos, hash);
+    segment.putLong(pos + 8, offset);
+    segment.putLong(pos + 16, timestamp);
+    segment.putLong(pos + 24, prev);
+    segment.putInt(pos + 32, partition);
+  }
+
+  private int bucket(long hash) {
+    return (int) (hash & (bucketsCount - 1));
+  }
+
+  private int positionInSegment(long entry) {
+    return (int) (entry % segmentEntries) * ENTRY_SIZE;
+  }
+
+  private MappedByteBuffer segment(long entry) {
+    int idx = (int) (entry / segmentEntries);
+    while (segments.size() <= idx) {
+      long firstEntry = (long) segments.size() * segmentEntries;
+      long entries = Math.min(segmentEntries, maxEntries - firstEntry);
+      try {
+        segments.add(entriesChannel.map(
+            FileChannel.MapMode.READ_WRITE, firstEntry * ENTRY_SIZE, entries * ENTRY_SIZE));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return segments.get(idx);
+  }
+}
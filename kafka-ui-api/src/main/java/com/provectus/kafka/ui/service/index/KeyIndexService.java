@@ -0,0 +1,223 @@
+package com.provectus.kafka.ui.service.index;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.KafkaCluster;
+import com.provectus.kafka.ui.service.ClustersStorage;
+import com.provectus.kafka.ui.service.ConsumerGroupService;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.utils.Bytes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains key indexes for topics listed in cluster's keyIndexedTopics property. Each index is
+ * built by a background consumer which continues from the last checkpointed offsets after restart.
+ * Records which were produced after the last indexed offset are not visible to lookups.
+ */
+@Slf4j
+@Service
+public class KeyIndexService implements Closeable {
+
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+  private static final Duration PARTITIONS_REFRESH_INTERVAL = Duration.ofMinutes(1);
+  private static final Duration RETRY_BACKOFF = Duration.ofSeconds(30);
+
+  private final ClustersStorage clustersStorage;
+  private final ConsumerGroupService consumerGroupService;
+  private final Path indexesDir;
+  private final int buckets;
+  private final long maxSizeBytes;
+  private final Duration checkpointInterval;
+  private final Map<String, TopicIndexer> indexers = new ConcurrentHashMap<>();
+
+  public KeyIndexService(
+      ClustersStorage clustersStorage,
+      ConsumerGroupService consumerGroupService,
+      @Value("${kafka.key-index.dir:key-index}") String indexesDir,
+      @Value("${kafka.key-index.buckets:1048576}") int buckets,
+      @Value("${kafka.key-index.max-size-mb:1024}") long maxSizeMb,
+      @Value("${kafka.key-index.checkpoint-interval-ms:10000}") long checkpointIntervalMs) {
+    this.clustersStorage = clustersStorage;
+    this.consumerGroupService = consumerGroupService;
+    this.indexesDir = Path.of(indexesDir);
+    this.buckets = buckets;
+    this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    this.checkpointInterval = Duration.ofMillis(checkpointIntervalMs);
+  }
+
+  @PostConstruct
+  public void startIndexing() {
+    for (KafkaCluster cluster : clustersStorage.getKafkaClusters()) {
+      for (String topic : Optional.ofNullable(cluster.getKeyIndexedTopics()).orElse(List.of())) {
+        try {
+          var index = KeyIndex.open(indexDir(cluster, topic), buckets, maxSizeBytes);
+          var indexer = new TopicIndexer(cluster, topic, index);
+          indexers.put(indexerId(cluster, topic), indexer);
+          indexer.start();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns positions of records with the key hash equal to the given key's hash, the most recently
+   * indexed first. Records should be checked to have the same key, since hashes can collide.
+   */
+  public List<KeyIndex.Entry> lookup(KafkaCluster cluster, String topic, byte[] key, int limit) {
+    var indexer = indexers.get(indexerId(cluster, topic));
+    if (indexer == null) {
+      throw new ValidationException(String.format("Key index is not enabled for topic '%s'", topic));
+    }
+    return indexer.index.lookup(KeyIndex.hash(key), limit);
+  }
+
+  @Override
+  public void close() {
+    indexers.values().forEach(TopicIndexer::stop);
+  }
+
+  private Path indexDir(KafkaCluster cluster, String topic) {
+    // cluster names can contain any characters, topic names are already file-name safe
+    return indexesDir
+        .resolve(cluster.getName().replaceAll("[^a-zA-Z0-9._-]", "_"))
+        .resolve(topic);
+  }
+
+  private static String indexerId(KafkaCluster cluster, String topic) {
+    return cluster.getName() + "/" + topic;
+  }
+
+  private class TopicIndexer implements Runnable {
+
+    private final KafkaCluster cluster;
+    private final String topic;
+    private final KeyIndex index;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile KafkaConsumer<Bytes, Bytes> consumer;
+
+    TopicIndexer(KafkaCluster cluster, String topic, KeyIndex index) {
+      this.cluster = cluster;
+      this.topic = topic;
+      this.index = index;
+      this.thread = new Thread(this, "kafka-ui-key-index-" + cluster.getName() + "-" + topic);
+      this.thread.setDaemon(true);
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    void stop() {
+      running = false;
+      var c = consumer;
+      if (c != null) {
+        c.wakeup();
+      }
+      // interrupts retry backoff sleep
+      thread.interrupt();
+      try {
+        thread.join(POLL_TIMEOUT.multipliedBy(5).toMillis());
+        index.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException e) {
+        log.error("Error closing key index for topic '{}'", topic, e);
+      }
+    }
+
+    @Override
+    public void run() {
+      log.info("Starting key indexing of topic '{}' in cluster '{}', {} entries indexed",
+          topic, cluster.getName(), index.size());
+      while (running) {
+        try (var c = consumerGroupService.createConsumer(cluster)) {
+          consumer = c;
+          index(c);
+        } catch (WakeupException e) {
+          // stopping
+        } catch (Exception e) {
+          if (running) {
+            log.error("Key indexing of topic '{}' failed, retrying in {}", topic, RETRY_BACKOFF, e);
+            sleep(RETRY_BACKOFF);
+          }
+        } finally {
+          consumer = null;
+        }
+      }
+    }
+
+    private void index(KafkaConsumer<Bytes, Bytes> c) {
+      long partitionsRefreshedAt = 0;
+      long checkpointedAt = System.currentTimeMillis();
+      while (running) {
+        if (System.currentTimeMillis() - partitionsRefreshedAt > PARTITIONS_REFRESH_INTERVAL.toMillis()) {
+          assignNewPartitions(c);
+          partitionsRefreshedAt = System.currentTimeMillis();
+        }
+        ConsumerRecords<Bytes, Bytes> records = c.poll(POLL_TIMEOUT);
+        for (ConsumerRecord<Bytes, Bytes> rec : records) {
+          if (rec.key() != null
+              && !index.append(KeyIndex.hash(rec.key().get()), rec.partition(), rec.offset(), rec.timestamp())) {
+            log.warn("Key index of topic '{}' reached its size limit, indexing stopped", topic);
+            running = false;
+            break;
+          }
+          index.markIndexed(rec.partition(), rec.offset() + 1);
+        }
+        if (System.currentTimeMillis() - checkpointedAt > checkpointInterval.toMillis()) {
+          index.checkpoint();
+          checkpointedAt = System.currentTimeMillis();
+        }
+      }
+      index.checkpoint();
+    }
+
+    private void assignNewPartitions(KafkaConsumer<Bytes, Bytes> c) {
+      Set<TopicPartition> partitions = c.partitionsFor(topic).stream()
+          .map(p -> new TopicPartition(topic, p.partition()))
+          .collect(Collectors.toSet());
+      Set<TopicPartition> newPartitions = new HashSet<>(partitions);
+      newPartitions.removeAll(c.assignment());
+      if (newPartitions.isEmpty()) {
+        return;
+      }
+      c.assign(partitions);
+      for (TopicPartition tp : newPartitions) {
+        index.nextOffset(tp.partition()).ifPresentOrElse(
+            offset -> c.seek(tp, offset),
+            () -> c.seekToBeginning(List.of(tp))
+        );
+      }
+    }
+
+    private void sleep(Duration duration) {
+      try {
+        Thread.sleep(duration.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+      }
+    }
+  }
+}
@@ -29,6 +29,11 @@ public class ClusterUtil {
 
   public static TopicMessageDTO mapToTopicMessage(ConsumerRecord<Bytes, Bytes> consumerRecord,
                                                   RecordSerDe recordDeserializer) {
+    return mapToTopicMessage(consumerRecord, recordDeserializer.deserialize(consumerRecord));
+  }
+
+  public static TopicMessageDTO mapToTopicMessage(ConsumerRecord<Bytes, Bytes> consumerRecord,
+                                                  RecordSerDe.DeserializedKeyValue parsed) {
 
     Map<String, String> headers = new HashMap<>();
     consumerRecord.headers().iterator()
@@ -51,7 +56,6 @@ public class ClusterUtil {
     topicMessage.setTimestampType(timestampType);
 
     topicMessage.setHeaders(headers);
-    var parsed = recordDeserializer.deserialize(consumerRecord);
     topicMessage.setKey(parsed.getKey());
     topicMessage.setContent(parsed.getValue());
     topicMessage.setKeyFormat(parsed.getKeyFormat() != null
@@ -69,6 +73,28 @@ public class ClusterUtil {
     return topicMessage;
   }
 
+  /**
+   * Shallow copy of message, for changing messages which can be shared between subscribers.
+   */
+  public static TopicMessageDTO copyTopicMessage(TopicMessageDTO msg) {
+    return new TopicMessageDTO()
+        .partition(msg.getPartition())
+        .offset(msg.getOffset())
+        .timestamp(msg.getTimestamp())
+        .timestampType(msg.getTimestampType())
+        .key(msg.getKey())
+        .headers(msg.getHeaders())
+        .content(msg.getContent())
+        .keyFormat(msg.getKeyFormat())
+        .valueFormat(msg.getValueFormat())
+        .keySize(msg.getKeySize())
+        .valueSize(msg.getValueSize())
+        .keySchemaId(msg.getKeySchemaId())
+        .valueSchemaId(msg.getValueSchemaId())
+        .headersSize(msg.getHeadersSize())
+        .truncated(msg.getTruncated());
+  }
+
   private static TopicMessageDTO.TimestampTypeEnum mapToTimestampType(TimestampType timestampType) {
     switch (timestampType) {
       case CREATE_TIME:
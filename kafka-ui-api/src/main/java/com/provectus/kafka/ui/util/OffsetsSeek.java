@@ -1,11 +1,15 @@
 package com.provectus.kafka.ui.util;
 
 import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.Cursor;
 import com.provectus.kafka.ui.model.SeekTypeDTO;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -18,10 +22,23 @@ import reactor.util.function.Tuples;
 public abstract class OffsetsSeek {
   protected final String topic;
   protected final ConsumerPosition consumerPosition;
+  // offsets ranges left to read, known in advance when scan is continued from cursor
+  @Nullable
+  private final Map<TopicPartition, Cursor.Range> knownRanges;
 
   protected OffsetsSeek(String topic, ConsumerPosition consumerPosition) {
+    this(topic, consumerPosition, null);
+  }
+
+  protected OffsetsSeek(String topic, Cursor cursor) {
+    this(topic, cursor.consumerPosition(), cursor.getRanges());
+  }
+
+  private OffsetsSeek(String topic, ConsumerPosition consumerPosition,
+                      @Nullable Map<TopicPartition, Cursor.Range> knownRanges) {
     this.topic = topic;
     this.consumerPosition = consumerPosition;
+    this.knownRanges = knownRanges;
   }
 
   public ConsumerPosition getConsumerPosition() {
@@ -29,6 +46,9 @@ public abstract class OffsetsSeek {
   }
 
   public Map<TopicPartition, Long> getPartitionsOffsets(Consumer<Bytes, Bytes> consumer) {
+    if (knownRanges != null) {
+      return new HashMap<>(consumerPosition.getSeekTo());
+    }
     SeekTypeDTO seekType = consumerPosition.getSeekType();
     List<TopicPartition> partitions = getRequestedPartitions(consumer);
     log.info("Positioning consumer for topic {} with {}", topic, consumerPosition);
@@ -54,7 +74,15 @@ public abstract class OffsetsSeek {
 
   public WaitingOffsets waitingOffsets(Consumer<Bytes, Bytes> consumer,
                                        Collection<TopicPartition> partitions) {
-    return new WaitingOffsets(topic, consumer, partitions);
+    if (knownRanges != null) {
+      return new WaitingOffsets(topic, partitions.stream()
+          .collect(Collectors.toMap(tp -> tp, knownRanges::get)));
+    }
+    var waitingOffsets = new WaitingOffsets(topic, consumer, partitions);
+    if (consumerPosition.getBoundTimestamp() != null && !waitingOffsets.endReached()) {
+      boundByTimestamp(consumer, waitingOffsets, consumerPosition.getBoundTimestamp());
+    }
+    return waitingOffsets;
   }
 
   public WaitingOffsets assignAndSeek(Consumer<Bytes, Bytes> consumer) {
@@ -67,6 +95,9 @@ public abstract class OffsetsSeek {
 
 
   public List<TopicPartition> getRequestedPartitions(Consumer<Bytes, Bytes> consumer) {
+    if (knownRanges != null) {
+      return new ArrayList<>(knownRanges.keySet());
+    }
     Map<TopicPartition, Long> partitionPositions = consumerPosition.getSeekTo();
     return consumer.partitionsFor(topic).stream()
         .filter(
@@ -81,6 +112,13 @@ public abstract class OffsetsSeek {
     return consumer.endOffsets(partitions);
   }
 
+  /**
+   * Narrows waiting offsets, so messages beyond bound timestamp (in scan direction) are not read.
+   */
+  protected abstract void boundByTimestamp(Consumer<Bytes, Bytes> consumer,
+                                           WaitingOffsets waitingOffsets,
+                                           long timestamp);
+
   protected abstract Map<TopicPartition, Long> offsetsFromBeginning(
       Consumer<Bytes, Bytes> consumer, List<TopicPartition> partitions);
 
@@ -111,6 +149,14 @@ public abstract class OffsetsSeek {
           .collect(Collectors.toMap(Tuple2::getT1, Tuple2::getT2));
     }
 
+    public WaitingOffsets(String topic, Map<TopicPartition, Cursor.Range> ranges) {
+      this.topic = topic;
+      this.endOffsets = ranges.entrySet().stream()
+          .collect(Collectors.toMap(e -> e.getKey().partition(), e -> e.getValue().getTo()));
+      this.beginOffsets = ranges.entrySet().stream()
+          .collect(Collectors.toMap(e -> e.getKey().partition(), e -> e.getValue().getFrom()));
+    }
+
     public List<TopicPartition> topicPartitions() {
       return this.endOffsets.keySet().stream()
           .map(p -> new TopicPartition(topic, p))
@@ -134,6 +180,34 @@ public abstract class OffsetsSeek {
 
     }
 
+    /**
+     * Sets last offset to read in partition, partition is marked as polled if nothing left to read.
+     */
+    public void limitEndOffset(int partition, long lastOffset) {
+      Long end = endOffsets.get(partition);
+      if (end != null && lastOffset < end) {
+        if (lastOffset < beginOffsets.get(partition)) {
+          markPolled(partition);
+        } else {
+          endOffsets.put(partition, lastOffset);
+        }
+      }
+    }
+
+    /**
+     * Sets first offset to read in partition, partition is marked as polled if nothing left to read.
+     */
+    public void limitBeginOffset(int partition, long firstOffset) {
+      Long begin = beginOffsets.get(partition);
+      if (begin != null && firstOffset > begin) {
+        if (firstOffset > endOffsets.get(partition)) {
+          markPolled(partition);
+        } else {
+          beginOffsets.put(partition, firstOffset);
+        }
+      }
+    }
+
     public boolean endReached() {
       return endOffsets.isEmpty();
     }
@@ -1,6 +1,7 @@
 package com.provectus.kafka.ui.util;
 
 import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.Cursor;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,6 +27,11 @@ public class OffsetsSeekBackward extends OffsetsSeek {
     this.maxMessages = maxMessages;
   }
 
+  public OffsetsSeekBackward(String topic, Cursor cursor, int maxMessages) {
+    super(topic, cursor);
+    this.maxMessages = maxMessages;
+  }
+
   public int msgsPerPartition(int partitionsSize) {
     return msgsPerPartition(maxMessages, partitionsSize);
   }
@@ -68,6 +74,22 @@ public class OffsetsSeekBackward extends OffsetsSeek {
     return findOffsets(consumer, offsetsForTimestamps, offsetsForTimestamps.keySet());
   }
 
+  @Override
+  protected void boundByTimestamp(Consumer<Bytes, Bytes> consumer,
+                                  WaitingOffsets waitingOffsets,
+                                  long timestamp) {
+    consumer.offsetsForTimes(
+        waitingOffsets.topicPartitions().stream().collect(Collectors.toMap(tp -> tp, tp -> timestamp))
+    ).forEach((tp, offsetAndTimestamp) -> {
+      if (offsetAndTimestamp != null) {
+        waitingOffsets.limitBeginOffset(tp.partition(), offsetAndTimestamp.offset());
+      } else {
+        // all partition's messages are before the bound
+        waitingOffsets.markPolled(tp.partition());
+      }
+    });
+  }
+
   protected Map<TopicPartition, Long> findOffsetsInt(
       Consumer<Bytes, Bytes> consumer, Map<TopicPartition, Long> seekTo,
       List<TopicPartition> partitions) {
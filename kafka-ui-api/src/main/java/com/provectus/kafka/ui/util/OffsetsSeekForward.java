@@ -1,6 +1,7 @@
 package com.provectus.kafka.ui.util;
 
 import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.Cursor;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +19,10 @@ public class OffsetsSeekForward extends OffsetsSeek {
     super(topic, consumerPosition);
   }
 
+  public OffsetsSeekForward(String topic, Cursor cursor) {
+    super(topic, cursor);
+  }
+
   protected Map<TopicPartition, Long> offsetsFromPositions(Consumer<Bytes, Bytes> consumer,
                                                            List<TopicPartition> partitions) {
     final Map<TopicPartition, Long> offsets =
@@ -53,6 +58,20 @@ public class OffsetsSeekForward extends OffsetsSeek {
     return offsetsForTimestamps;
   }
 
+  @Override
+  protected void boundByTimestamp(Consumer<Bytes, Bytes> consumer,
+                                  WaitingOffsets waitingOffsets,
+                                  long timestamp) {
+    consumer.offsetsForTimes(
+        waitingOffsets.topicPartitions().stream().collect(Collectors.toMap(tp -> tp, tp -> timestamp))
+    ).forEach((tp, offsetAndTimestamp) -> {
+      // null means that all partition's messages are before the bound
+      if (offsetAndTimestamp != null) {
+        waitingOffsets.limitEndOffset(tp.partition(), offsetAndTimestamp.offset() - 1);
+      }
+    });
+  }
+
   protected Map<TopicPartition, Long> offsetsFromBeginning(Consumer<Bytes, Bytes> consumer,
                                                            List<TopicPartition> partitions) {
     return consumer.beginningOffsets(partitions);
@@ -9,6 +9,7 @@ import com.provectus.kafka.ui.model.PartitionsIncreaseDTO;
 import com.provectus.kafka.ui.model.PartitionsIncreaseResponseDTO;
 import com.provectus.kafka.ui.model.TopicCreationDTO;
 import com.provectus.kafka.ui.model.TopicDetailsDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
 import com.provectus.kafka.ui.producer.KafkaTestProducer;
 import java.util.List;
@@ -16,6 +17,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -91,6 +93,44 @@ public class KafkaConsumerTests extends AbstractIntegrationTest {
     assertThat(count).isZero();
   }
 
+  @Test
+  public void shouldReturnMessageByOffset() {
+    var topicName = UUID.randomUUID().toString();
+    createTopic(new NewTopic(topicName, 1, (short) 1));
+
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      Flux.fromStream(
+          Stream.of("one", "two", "three")
+              .map(value -> Mono.fromFuture(producer.send(topicName, value)))
+      ).blockLast();
+    }
+
+    try {
+      TopicMessageDTO message = webTestClient.get()
+          .uri("/api/clusters/{clusterName}/topics/{topicName}/messages/{partition}/{offset}",
+              LOCAL, topicName, 0, 1)
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBody(TopicMessageDTO.class)
+          .returnResult()
+          .getResponseBody();
+
+      assertThat(message).isNotNull();
+      assertThat(message.getOffset()).isEqualTo(1);
+      assertThat(message.getContent()).isEqualTo("two");
+
+      webTestClient.get()
+          .uri("/api/clusters/{clusterName}/topics/{topicName}/messages/{partition}/{offset}",
+              LOCAL, topicName, 0, 3)
+          .exchange()
+          .expectStatus()
+          .isNotFound();
+    } finally {
+      deleteTopic(topicName);
+    }
+  }
+
   @Test
   public void shouldIncreasePartitionsUpTo10() {
     var topicName = UUID.randomUUID().toString();
@@ -0,0 +1,74 @@
+package com.provectus.kafka.ui.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+class CborSequenceEncoderTest {
+
+  private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+  private final CborSequenceEncoder encoder = new CborSequenceEncoder(cborMapper);
+
+  @Test
+  void eventsAreEncodedAsSequenceOfCborItems() throws IOException {
+    var events = List.of(
+        new TopicMessageEventDTO()
+            .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+            .message(new TopicMessageDTO()
+                .partition(1)
+                .offset(100L)
+                .timestamp(OffsetDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                .key("key")
+                .content("{\"field\": \"value with \\\"quotes\\\"\"}")
+                .headers(Map.of("h", "v"))),
+        new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.DONE)
+    );
+
+    byte[] encoded = DataBufferUtils.join(
+            encoder.encode(Flux.fromIterable(events), DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forClass(TopicMessageEventDTO.class), CborSequenceEncoder.APPLICATION_CBOR_SEQ,
+                Map.of()))
+        .map(buffer -> {
+          byte[] bytes = new byte[buffer.readableByteCount()];
+          buffer.read(bytes);
+          return bytes;
+        })
+        .block();
+
+    List<TopicMessageEventDTO> decoded = cborMapper.readerFor(TopicMessageEventDTO.class)
+        .<TopicMessageEventDTO>readValues(encoded)
+        .readAll();
+    assertThat(decoded).hasSize(2);
+    assertThat(decoded.get(0).getMessage())
+        .usingRecursiveComparison()
+        .ignoringFields("timestamp")
+        .isEqualTo(events.get(0).getMessage());
+    assertThat(decoded.get(0).getMessage().getTimestamp())
+        .isAtSameInstantAs(events.get(0).getMessage().getTimestamp());
+    assertThat(decoded.get(1).getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.DONE);
+  }
+
+  @Test
+  void encodesOnlyObjectsWithCborSequenceMediaType() {
+    var eventType = ResolvableType.forClass(TopicMessageEventDTO.class);
+    assertThat(encoder.canEncode(eventType, CborSequenceEncoder.APPLICATION_CBOR_SEQ)).isTrue();
+    assertThat(encoder.canEncode(eventType, null)).isTrue();
+    assertThat(encoder.canEncode(eventType, MediaType.TEXT_EVENT_STREAM)).isFalse();
+    assertThat(encoder.canEncode(ResolvableType.forClass(String.class), CborSequenceEncoder.APPLICATION_CBOR_SEQ))
+        .isFalse();
+  }
+}
@@ -0,0 +1,154 @@
+package com.provectus.kafka.ui.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares json (as sent in server-sent events data) and CBOR encodings of message events
+ * with wide record-like values. Reports events/sec, bytes/event are printed on setup.
+ * Not executed as a part of test suite, run with main method (from IDE or with test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageEventsEncodingBenchmark {
+
+  private static final int EVENTS = 1_000;
+  private static final ResolvableType EVENT_TYPE = ResolvableType.forClass(TopicMessageEventDTO.class);
+
+  // number of fields in message value
+  @Param({"10", "200"})
+  public int fields;
+
+  private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+  private List<TopicMessageEventDTO> events;
+  private ObjectWriter jsonWriter;
+  private CborSequenceEncoder cborEncoder;
+
+  @Setup
+  public void setup() {
+    events = new ArrayList<>(EVENTS);
+    for (int i = 0; i < EVENTS; i++) {
+      events.add(event(i, fields));
+    }
+    ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    jsonWriter = jsonMapper.writer();
+    cborEncoder = new CborSequenceEncoder(Jackson2ObjectMapperBuilder.cbor().build());
+    System.out.printf("fields=%d: json %d bytes/event, cbor %d bytes/event%n",
+        fields, totalSize(this::encodeJson) / EVENTS, totalSize(this::encodeCbor) / EVENTS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS)
+  public void json(Blackhole bh) {
+    for (TopicMessageEventDTO event : events) {
+      DataBuffer buffer = encodeJson(event);
+      bh.consume(buffer.readableByteCount());
+      DataBufferUtils.release(buffer);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS)
+  public void cbor(Blackhole bh) {
+    for (TopicMessageEventDTO event : events) {
+      DataBuffer buffer = encodeCbor(event);
+      bh.consume(buffer.readableByteCount());
+      DataBufferUtils.release(buffer);
+    }
+  }
+
+  private DataBuffer encodeJson(TopicMessageEventDTO event) {
+    DataBuffer buffer = bufferFactory.allocateBuffer();
+    try (OutputStream out = buffer.asOutputStream()) {
+      jsonWriter.writeValue(out, event);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return buffer;
+  }
+
+  private DataBuffer encodeCbor(TopicMessageEventDTO event) {
+    return cborEncoder.encodeValue(event, bufferFactory, EVENT_TYPE, CborSequenceEncoder.APPLICATION_CBOR_SEQ, null);
+  }
+
+  private long totalSize(Function<TopicMessageEventDTO, DataBuffer> encoding) {
+    long size = 0;
+    for (TopicMessageEventDTO event : events) {
+      DataBuffer buffer = encoding.apply(event);
+      size += buffer.readableByteCount();
+      DataBufferUtils.release(buffer);
+    }
+    return size;
+  }
+
+  private static TopicMessageEventDTO event(int idx, int fields) {
+    var rnd = ThreadLocalRandom.current();
+    StringBuilder content = new StringBuilder("{");
+    for (int i = 0; i < fields; i++) {
+      content.append(i > 0 ? "," : "")
+          .append(String.format(Locale.ROOT, "\"field_%d\":", i))
+          .append(i % 2 == 0
+              ? String.format(Locale.ROOT, "\"text value %d\"", rnd.nextInt(1_000_000))
+              : String.format(Locale.ROOT, "%.3f", rnd.nextDouble(1, 10_000)));
+    }
+    content.append('}');
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .message(new TopicMessageDTO()
+            .partition(idx % 10)
+            .offset((long) idx)
+            .timestamp(OffsetDateTime.now())
+            .timestampType(TopicMessageDTO.TimestampTypeEnum.CREATE_TIME)
+            .key("key-" + idx)
+            .content(content.toString())
+            .headers(Map.of("source", "web"))
+            .keySize(10L)
+            .valueSize((long) content.length())
+            .headersSize(9L));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder()
+            .include(MessageEventsEncodingBenchmark.class.getSimpleName())
+            .build()
+    ).run();
+  }
+}
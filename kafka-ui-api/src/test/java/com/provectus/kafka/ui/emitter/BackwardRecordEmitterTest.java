@@ -0,0 +1,113 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import com.provectus.kafka.ui.util.OffsetsSeekBackward;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class BackwardRecordEmitterTest {
+
+  private static final String TOPIC = "test";
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+  private static final long RECORDS_PER_PARTITION = 10;
+
+  private MockConsumer<Bytes, Bytes> consumer;
+
+  @BeforeEach
+  void setUp() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.updatePartitions(TOPIC, Stream.of(TP0, TP1)
+        .map(tp -> new PartitionInfo(TOPIC, tp.partition(), null, null, null, null))
+        .collect(Collectors.toList()));
+    consumer.updateBeginningOffsets(Map.of(TP0, 0L, TP1, 0L));
+    consumer.updateEndOffsets(Map.of(TP0, RECORDS_PER_PARTITION, TP1, RECORDS_PER_PARTITION));
+  }
+
+  @Test
+  void windowsAreReadWhenSomePartitionsRespondAfterEmptyPolls() {
+    // first poll fetches partition 0 only, then fetch returns nothing and only after that
+    // partition 1 records are fetched
+    consumer.schedulePollTask(() -> fetch(Set.of(TP0)));
+    consumer.schedulePollTask(() -> { });
+    for (int i = 0; i < 10; i++) {
+      consumer.schedulePollTask(() -> fetch(Set.of(TP0, TP1)));
+    }
+
+    List<TopicMessageEventDTO> events = run();
+
+    assertThat(messages(events)).containsExactlyElementsOf(
+        Stream.iterate(RECORDS_PER_PARTITION - 1, o -> o >= 0, o -> o - 1)
+            .flatMap(o -> Stream.of("1:" + o, "0:" + o))
+            .collect(Collectors.toList()));
+    assertThat(consumer.closed()).isTrue();
+  }
+
+  @Test
+  void partitionsWhichCantBeReadAreReportedAndNotSkippedSilently() {
+    for (int i = 0; i < 10; i++) {
+      consumer.schedulePollTask(() -> fetch(Set.of(TP0)));
+    }
+
+    List<TopicMessageEventDTO> events = run();
+
+    assertThat(messages(events)).hasSize((int) RECORDS_PER_PARTITION).allMatch(m -> m.startsWith("0:"));
+    assertThat(events)
+        .filteredOn(e -> e.getType() == TopicMessageEventDTO.TypeEnum.PHASE)
+        .extracting(e -> e.getPhase().getName())
+        .contains("Records of partitions [1] could not be read, skipping them");
+  }
+
+  private List<TopicMessageEventDTO> run() {
+    var emitter = new BackwardRecordEmitter(
+        () -> consumer,
+        new OffsetsSeekBackward(TOPIC,
+            new ConsumerPosition(SeekTypeDTO.LATEST, Map.of(), SeekDirectionDTO.BACKWARD),
+            (int) RECORDS_PER_PARTITION * 2),
+        new MessagesProcessing(new SimpleRecordSerDe())
+    );
+    return Flux.create(emitter).collectList().block();
+  }
+
+  private static List<String> messages(List<TopicMessageEventDTO> events) {
+    return events.stream()
+        .filter(e -> e.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .map(e -> e.getMessage().getPartition() + ":" + e.getMessage().getOffset())
+        .collect(Collectors.toList());
+  }
+
+  // emulating fetch from the current positions of non-paused partitions
+  private void fetch(Set<TopicPartition> responding) {
+    Set<TopicPartition> fetched = new HashSet<>(consumer.assignment());
+    fetched.removeAll(consumer.paused());
+    fetched.retainAll(responding);
+    for (TopicPartition tp : fetched) {
+      for (long offset = consumer.position(tp); offset < RECORDS_PER_PARTITION; offset++) {
+        // partition 1 records are a bit newer
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, tp.partition(), offset, offset * 10 + tp.partition(),
+            TimestampType.CREATE_TIME, 0L, 0, 0, null, Bytes.wrap(new byte[] {1}), new RecordHeaders()));
+      }
+    }
+  }
+}
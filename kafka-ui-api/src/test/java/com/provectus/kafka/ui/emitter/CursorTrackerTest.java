@@ -0,0 +1,103 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.Cursor;
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class CursorTrackerTest {
+
+  private static final String TOPIC = "test";
+
+  @Test
+  void forwardCursorStartsAfterDeliveredAndFilteredOutMessages() {
+    var tracker = new CursorTracker(TOPIC, SeekDirectionDTO.FORWARD, "q", MessageFilterTypeDTO.STRING_CONTAINS);
+    tracker.registerRanges(Map.of(tp(0), new Cursor.Range(0, 10), tp(1), new Cursor.Range(5, 10)));
+
+    deliver(tracker, 0, 0);
+    tracker.scanned(msg(1, 5)); // filtered out
+    deliver(tracker, 0, 1);
+    tracker.scanned(msg(1, 6)); // filtered out
+    tracker.scanned(msg(0, 2)); // rejected by limit
+
+    Cursor cursor = tracker.nextPageCursor();
+    assertThat(cursor.getRanges()).containsExactlyInAnyOrderEntriesOf(
+        Map.of(tp(0), new Cursor.Range(2, 10), tp(1), new Cursor.Range(7, 10)));
+    assertThat(cursor.getQuery()).isEqualTo("q");
+    assertThat(cursor.consumerPosition().getSeekTo())
+        .containsExactlyInAnyOrderEntriesOf(Map.of(tp(0), 2L, tp(1), 7L));
+  }
+
+  @Test
+  void backwardCursorEndsBeforeDeliveredMessagesAndSkipsFinishedPartitions() {
+    var tracker = new CursorTracker(TOPIC, SeekDirectionDTO.BACKWARD, null, null);
+    tracker.registerRanges(Map.of(tp(0), new Cursor.Range(0, 10), tp(1), new Cursor.Range(3, 4)));
+
+    deliver(tracker, 0, 10);
+    deliver(tracker, 1, 4);
+    deliver(tracker, 1, 3);
+    tracker.scanned(msg(0, 9)); // rejected by limit
+
+    Cursor cursor = tracker.nextPageCursor();
+    assertThat(cursor.getRanges()).containsExactlyInAnyOrderEntriesOf(Map.of(tp(0), new Cursor.Range(0, 9)));
+    assertThat(cursor.consumerPosition().getSeekTo()).containsExactlyInAnyOrderEntriesOf(Map.of(tp(0), 10L));
+  }
+
+  @Test
+  void noCursorWhenScanCompleted() {
+    var tracker = new CursorTracker(TOPIC, SeekDirectionDTO.FORWARD, null, null);
+    tracker.registerRanges(Map.of(tp(0), new Cursor.Range(0, 10)));
+    deliver(tracker, 0, 0);
+    tracker.scanCompleted();
+    assertThat(tracker.nextPageCursor()).isNull();
+  }
+
+  @Test
+  void cursorCanBeEncodedAndDecoded() {
+    var cursor = new Cursor(
+        TOPIC,
+        SeekDirectionDTO.BACKWARD,
+        "value.name == 'тест'",
+        MessageFilterTypeDTO.EXPRESSION,
+        Map.of(
+            tp(0), new Cursor.Range(0, 100),
+            tp(7), new Cursor.Range(5, 5),
+            tp(3), new Cursor.Range(1L << 40, 1L << 41))
+    );
+    assertThat(Cursor.decode(cursor.encode())).isEqualTo(cursor);
+
+    var noFilter = new Cursor(TOPIC, SeekDirectionDTO.FORWARD, null, null, Map.of());
+    assertThat(Cursor.decode(noFilter.encode())).isEqualTo(noFilter);
+  }
+
+  @Test
+  void decodingInvalidCursorThrowsValidationException() {
+    assertThrows(ValidationException.class, () -> Cursor.decode("not a cursor"));
+    String valid = new Cursor(TOPIC, SeekDirectionDTO.FORWARD, null, null, Map.of()).encode();
+    assertThrows(ValidationException.class, () -> Cursor.decode(valid.substring(0, valid.length() / 2)));
+  }
+
+  private static void deliver(CursorTracker tracker, int partition, long offset) {
+    var event = msg(partition, offset);
+    tracker.scanned(event);
+    tracker.delivered(event);
+  }
+
+  private static TopicMessageEventDTO msg(int partition, long offset) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .message(new TopicMessageDTO().partition(partition).offset(offset));
+  }
+
+  private static TopicPartition tp(int partition) {
+    return new TopicPartition(TOPIC, partition);
+  }
+}
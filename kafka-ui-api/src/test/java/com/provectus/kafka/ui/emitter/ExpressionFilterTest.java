@@ -0,0 +1,107 @@
+package com.provectus.kafka.ui.emitter;
+
+import static com.provectus.kafka.ui.emitter.ExpressionFilter.compile;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ExpressionFilterTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "value.name ==",
+      "value.name = 'a'",
+      "unknownField == 1",
+      "partition.nested == 1",
+      "headers == 'a'",
+      "key =~ value",
+      "key =~ '[a-'",
+      "value.name == 'unclosed"
+  })
+  void throwsValidationExceptionOnInvalidExpression(String expression) {
+    assertThrows(ValidationException.class, () -> compile(expression));
+  }
+
+  @Test
+  void canCheckMessageMetadata() {
+    var ts = OffsetDateTime.now();
+    var f = compile("partition == 1 && offset >= 100 && timestampMs == " + ts.toInstant().toEpochMilli());
+    assertTrue(f.test(msg().partition(1).offset(100L).timestamp(ts)));
+    assertFalse(f.test(msg().partition(2).offset(100L).timestamp(ts)));
+    assertFalse(f.test(msg().partition(1).offset(99L).timestamp(ts)));
+  }
+
+  @Test
+  void canCheckJsonFields() {
+    var f = compile("value.name.first == 'user1' && value.age > 18.5 && value.tags[1] == \"b\"");
+    assertTrue(f.test(msg().content("{\"name\": {\"first\": \"user1\"}, \"age\": 19, \"tags\": [\"a\", \"b\"]}")));
+    assertFalse(f.test(msg().content("{\"name\": {\"first\": \"user2\"}, \"age\": 19, \"tags\": [\"a\", \"b\"]}")));
+    assertFalse(f.test(msg().content("{\"name\": {\"first\": \"user1\"}, \"age\": 18, \"tags\": [\"a\", \"b\"]}")));
+    assertFalse(f.test(msg().content("{\"name\": {\"first\": \"user1\"}, \"age\": 19}")));
+    assertFalse(f.test(msg().content("not a json")));
+    assertFalse(f.test(msg().content(null)));
+  }
+
+  @Test
+  void canAccessFieldsWithSpecialNames() {
+    var f = compile("key[\"user-id\"] == 5 && value.active");
+    assertTrue(f.test(msg().key("{\"user-id\": 5}").content("{\"active\": true}")));
+    assertFalse(f.test(msg().key("{\"user-id\": 5}").content("{\"active\": \"true\"}")));
+  }
+
+  @Test
+  void canAccessFieldsNamedAsKeywords() {
+    var f = compile("value.not == 1 and value.null and headers.or == 'x' && not value.true.false");
+    assertTrue(f.test(msg()
+        .content("{\"not\": 1, \"null\": true, \"true\": {\"false\": false}}")
+        .headers(Map.of("or", "x"))));
+    assertFalse(f.test(msg()
+        .content("{\"not\": 2, \"null\": true, \"true\": {\"false\": false}}")
+        .headers(Map.of("or", "x"))));
+  }
+
+  @Test
+  void canCheckTextAndHeaders() {
+    var f = compile("keyAsText =~ '^user-\\d+$' && (headers.source == 'web' || headers['x-src'] == 'app')");
+    assertTrue(f.test(msg().key("user-123").headers(Map.of("source", "web"))));
+    assertTrue(f.test(msg().key("user-123").headers(Map.of("x-src", "app"))));
+    assertFalse(f.test(msg().key("user-abc").headers(Map.of("source", "web"))));
+    assertFalse(f.test(msg().key("user-123").headers(Map.of())));
+  }
+
+  @Test
+  void nullChecksAndTypeMismatches() {
+    assertTrue(compile("value.missing == null").test(msg().content("{}")));
+    assertTrue(compile("value.nullField == null").test(msg().content("{\"nullField\": null}")));
+    assertFalse(compile("value.obj == null").test(msg().content("{\"obj\": {}}")));
+    // comparing different types evaluates to false
+    assertFalse(compile("value.num == '1'").test(msg().content("{\"num\": 1}")));
+    assertFalse(compile("value.num < 'a'").test(msg().content("{\"num\": 1}")));
+    assertFalse(compile("value.missing < 10").test(msg().content("{}")));
+    assertTrue(compile("value.num == 1.0").test(msg().content("{\"num\": 1}")));
+  }
+
+  @Test
+  void operatorsPrecedence() {
+    var m = msg().partition(1).offset(5L);
+    assertTrue(compile("partition == 2 || partition == 1 && offset == 5").test(m));
+    assertFalse(compile("(partition == 2 || partition == 1) && offset == 6").test(m));
+    assertTrue(compile("!partition == 2 && not offset == 6").test(m));
+    assertFalse(compile("not (partition == 1 and offset == 5)").test(m));
+  }
+
+  private TopicMessageDTO msg() {
+    return new TopicMessageDTO()
+        .timestamp(OffsetDateTime.now())
+        .partition(1)
+        .offset(0L);
+  }
+}
@@ -0,0 +1,163 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.Cursor;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class LatestMessagesCacheTest {
+
+  private static final String TOPIC = "test";
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+
+  private final MutableClock clock = new MutableClock();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void leastRecentlyUsedPagesAreEvicted() {
+    long pageSize = AbstractEmitter.estimateSize(message(0, 0));
+    var cache = new LatestMessagesCache(pageSize * 2, Duration.ofMinutes(1), clock, registry, "local");
+    var page = cache.page(List.of(message(0, 0)), null, Map.of(), Map.of());
+
+    cache.put(key(1), page);
+    cache.put(key(2), page);
+    cache.get(key(1));
+    cache.put(key(3), page);
+
+    assertThat(cache.get(key(1))).isNotNull();
+    assertThat(cache.get(key(2))).isNull();
+    assertThat(cache.get(key(3))).isNotNull();
+    assertThat(registry.get("kafka.ui.messages.cache.size").gauge().value()).isEqualTo(pageSize * 2);
+  }
+
+  @Test
+  void expiredPagesAreNotServed() {
+    var cache = new LatestMessagesCache(1_000_000, Duration.ofMinutes(1), clock, registry, "local");
+    cache.put(key(1), cache.page(List.of(message(0, 0)), null, Map.of(), Map.of()));
+
+    clock.advance(Duration.ofSeconds(30));
+    assertThat(cache.get(key(1))).isNotNull();
+    clock.advance(Duration.ofSeconds(31));
+    assertThat(cache.get(key(1))).isNull();
+  }
+
+  @Test
+  void appendedRecordsAreCountedOnlyIfNothingWasDeleted() {
+    var cache = new LatestMessagesCache(1_000_000, Duration.ofMinutes(1), clock, registry, "local");
+    var page = cache.page(List.of(), null, Map.of(TP0, 0L, TP1, 0L), Map.of(TP0, 10L, TP1, 5L));
+
+    assertThat(LatestMessagesCache.appendedSince(page, Map.of(TP0, 0L, TP1, 0L), Map.of(TP0, 10L, TP1, 5L)))
+        .isZero();
+    assertThat(LatestMessagesCache.appendedSince(page, Map.of(TP0, 0L, TP1, 0L), Map.of(TP0, 12L, TP1, 6L)))
+        .isEqualTo(3);
+    assertThat(LatestMessagesCache.appendedRanges(page, Map.of(TP0, 12L, TP1, 5L)))
+        .containsExactly(Map.entry(TP0, new Cursor.Range(10, 11)));
+    // records were deleted
+    assertThat(LatestMessagesCache.appendedSince(page, Map.of(TP0, 3L, TP1, 0L), Map.of(TP0, 12L, TP1, 6L)))
+        .isEqualTo(-1);
+  }
+
+  @Test
+  void extendedPageKeepsNewestMessagesAndDroppedOnesAreLeftForNextPage() {
+    var cache = new LatestMessagesCache(1_000_000, Duration.ofMinutes(1), clock, registry, "local");
+    var key = key(3);
+    var cursor = new Cursor(TOPIC, SeekDirectionDTO.BACKWARD, null, null, Map.of(TP0, new Cursor.Range(0, 7)));
+    // partition 1 was read completely
+    var cached = cache.page(
+        List.of(message(0, 9), message(0, 8), message(1, 0)),
+        cursor,
+        Map.of(TP0, 0L, TP1, 0L),
+        Map.of(TP0, 10L, TP1, 1L));
+
+    var extended = cache.extend(key, cached, List.of(message(0, 11), message(0, 10)), Map.of(TP0, 12L, TP1, 1L));
+
+    assertThat(extended.getMessages())
+        .extracting(TopicMessageDTO::getOffset)
+        .containsExactly(11L, 10L, 9L);
+    assertThat(extended.getEndOffsets()).containsEntry(TP0, 12L);
+    assertThat(extended.getNextPage().getRanges()).containsOnly(
+        Map.entry(TP0, new Cursor.Range(0, 8)),
+        Map.entry(TP1, new Cursor.Range(0, 0)));
+  }
+
+  @Test
+  void pageIsNotExtendedIfDroppedMessagesAreInterleavedWithKeptOnes() {
+    var cache = new LatestMessagesCache(1_000_000, Duration.ofMinutes(1), clock, registry, "local");
+    var cursor = new Cursor(TOPIC, SeekDirectionDTO.BACKWARD, null, null, Map.of(TP0, new Cursor.Range(0, 6)));
+    // message at offset 9 is older than messages at offsets 7 and 8
+    var cached = cache.page(
+        List.of(message(0, 8, 50), message(0, 7, 40), message(0, 9, 30)),
+        cursor,
+        Map.of(TP0, 0L),
+        Map.of(TP0, 10L));
+
+    // offset 9 is dropped, offsets 7 and 8 are kept
+    var extended = cache.extend(key(3), cached, List.of(message(0, 10)), Map.of(TP0, 11L));
+
+    assertThat(extended).isNull();
+  }
+
+  @Test
+  void cacheableScansStartFromTheEndOfPartitions() {
+    assertThat(LatestMessagesCache.cacheable(SeekTypeDTO.LATEST, SeekDirectionDTO.BACKWARD, null)).isTrue();
+    assertThat(LatestMessagesCache.cacheable(SeekTypeDTO.BEGINNING, SeekDirectionDTO.BACKWARD, null)).isTrue();
+    assertThat(LatestMessagesCache.cacheable(SeekTypeDTO.OFFSET, SeekDirectionDTO.BACKWARD, null)).isFalse();
+    assertThat(LatestMessagesCache.cacheable(SeekTypeDTO.LATEST, SeekDirectionDTO.BACKWARD, 1000L)).isFalse();
+    assertThat(LatestMessagesCache.cacheable(SeekTypeDTO.BEGINNING, SeekDirectionDTO.FORWARD, null)).isFalse();
+  }
+
+  private static LatestMessagesCache.Key key(int limit) {
+    return new LatestMessagesCache.Key(TOPIC, SeekTypeDTO.BEGINNING, Set.of(), null, null, limit);
+  }
+
+  // timestamps grow with offsets, partition 1 messages are older
+  private static TopicMessageDTO message(int partition, long offset) {
+    return message(partition, offset, offset * 10 - partition * 100);
+  }
+
+  private static TopicMessageDTO message(int partition, long offset, long epochSecond) {
+    return new TopicMessageDTO()
+        .partition(partition)
+        .offset(offset)
+        .timestamp(OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC))
+        .content("message");
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.now();
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
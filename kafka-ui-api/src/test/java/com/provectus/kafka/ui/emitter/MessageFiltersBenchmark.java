@@ -0,0 +1,137 @@
+package com.provectus.kafka.ui.emitter;
+
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares groovy-script and expression filters on order-like json messages (~1KB), and
+ * search of any of {@link #TERMS} order ids with groovy `||` chain and CONTAINS_ANY filter.
+ * Not executed as a part of test suite, run with main method (from IDE or with test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageFiltersBenchmark {
+
+  private static final int MESSAGES = 1_000;
+  private static final int TERMS = 500;
+
+  @Param({"value.customer.country == 'DE' && value.total > 500"})
+  public String expression;
+
+  private List<TopicMessageDTO> messages;
+  private Predicate<TopicMessageDTO> groovyFilter;
+  private Predicate<TopicMessageDTO> expressionFilter;
+  private Predicate<TopicMessageDTO> groovyTermsFilter;
+  private Predicate<TopicMessageDTO> containsAnyFilter;
+
+  @Setup
+  public void setup() {
+    messages = new ArrayList<>(MESSAGES);
+    for (int i = 0; i < MESSAGES; i++) {
+      messages.add(orderMessage(i));
+    }
+    groovyFilter = MessageFilters.groovyScriptFilter(expression);
+    expressionFilter = MessageFilters.createMsgFilter(
+        expression, MessageFilterTypeDTO.EXPRESSION);
+    // every 10th message matches
+    List<String> orderIds = new ArrayList<>(TERMS);
+    for (int i = 0; i < TERMS; i++) {
+      orderIds.add("\"order-" + i * 10 + "\"");
+    }
+    groovyTermsFilter = MessageFilters.groovyScriptFilter(orderIds.stream()
+        .map(id -> "valueAsText.contains('" + id + "')")
+        .collect(Collectors.joining(" || ")));
+    containsAnyFilter = MessageFilters.createMsgFilter(
+        String.join(",", orderIds), MessageFilterTypeDTO.CONTAINS_ANY);
+  }
+
+  @Benchmark
+  public void groovyScript(Blackhole bh) {
+    for (TopicMessageDTO msg : messages) {
+      bh.consume(groovyFilter.test(msg));
+    }
+  }
+
+  @Benchmark
+  public void expression(Blackhole bh) {
+    for (TopicMessageDTO msg : messages) {
+      bh.consume(expressionFilter.test(msg));
+    }
+  }
+
+  @Benchmark
+  public void groovyTerms(Blackhole bh) {
+    for (TopicMessageDTO msg : messages) {
+      bh.consume(groovyTermsFilter.test(msg));
+    }
+  }
+
+  @Benchmark
+  public void containsAny(Blackhole bh) {
+    for (TopicMessageDTO msg : messages) {
+      bh.consume(containsAnyFilter.test(msg));
+    }
+  }
+
+  private static TopicMessageDTO orderMessage(int idx) {
+    var rnd = ThreadLocalRandom.current();
+    String[] countries = {"DE", "US", "FR", "PL", "UA"};
+    StringBuilder items = new StringBuilder();
+    for (int i = 0; i < 5; i++) {
+      items.append(i > 0 ? "," : "")
+          .append(String.format(Locale.ROOT,
+              "{\"sku\":\"SKU-%06d\",\"name\":\"Item number %d\",\"qty\":%d,\"price\":%.2f}",
+              rnd.nextInt(1_000_000), i, rnd.nextInt(1, 5), rnd.nextDouble(1, 300)));
+    }
+    String content = String.format(Locale.ROOT,
+        "{\"orderId\":\"order-%d\",\"createdAt\":\"%s\",\"status\":\"CREATED\","
+            + "\"customer\":{\"id\":%d,\"email\":\"user%d@example.com\",\"country\":\"%s\","
+            + "\"address\":{\"city\":\"City %d\",\"street\":\"Street %d\",\"zip\":\"%05d\"}},"
+            + "\"items\":[%s],\"total\":%.2f,\"currency\":\"EUR\"}",
+        idx, OffsetDateTime.now(), rnd.nextInt(100_000), idx, countries[rnd.nextInt(countries.length)],
+        idx, idx, rnd.nextInt(100_000), items, rnd.nextDouble(1, 1000));
+    return new TopicMessageDTO()
+        .partition(idx % 10)
+        .offset((long) idx)
+        .timestamp(OffsetDateTime.now())
+        .key("order-" + idx)
+        .content(content)
+        .headers(Map.of("source", "web"));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder()
+            .include(MessageFiltersBenchmark.class.getSimpleName())
+            .build()
+    ).run();
+  }
+}
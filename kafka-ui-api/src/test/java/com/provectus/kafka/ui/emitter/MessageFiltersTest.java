@@ -1,20 +1,34 @@
 package com.provectus.kafka.ui.emitter;
 
 import static com.provectus.kafka.ui.emitter.MessageFilters.containsStringFilter;
+import static com.provectus.kafka.ui.emitter.MessageFilters.containsStringRawFilter;
+import static com.provectus.kafka.ui.emitter.MessageFilters.createMsgFilter;
+import static com.provectus.kafka.ui.emitter.MessageFilters.createRawFilter;
 import static com.provectus.kafka.ui.emitter.MessageFilters.groovyScriptFilter;
+import static com.provectus.kafka.ui.emitter.MessageFilters.keyEqualsRawFilter;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
 import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.serde.RecordSerDe;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -57,6 +71,148 @@ class MessageFiltersTest {
 
   }
 
+  @Nested
+  class StringContainsRawFilter {
+
+    Predicate<ConsumerRecord<Bytes, Bytes>> filter =
+        containsStringRawFilter("abC", new SimpleRecordSerDe());
+
+    @Test
+    void returnsTrueWhenStringContainedInKeyOrValueBytes() {
+      assertTrue(filter.test(rec("contains abCd", "some str")));
+      assertTrue(filter.test(rec("some str", "contains abCd")));
+      assertTrue(filter.test(rec(null, "abC")));
+    }
+
+    @Test
+    void returnsFalseOtherwise() {
+      assertFalse(filter.test(rec("some str", "some str")));
+      assertFalse(filter.test(rec(null, null)));
+      assertFalse(filter.test(rec("aBc", "AbC")));
+      assertFalse(filter.test(rec("ab", "bC")));
+    }
+
+    @Test
+    void matchesMultiByteCharacters() {
+      var f = containsStringRawFilter("привет", new SimpleRecordSerDe());
+      assertTrue(f.test(rec(null, "{\"greeting\": \"привет мир\"}")));
+      assertFalse(f.test(rec(null, "{\"greeting\": \"hello\"}")));
+    }
+
+    @Test
+    void passesRecordsThatCantBeCheckedOnRawBytes() {
+      RecordSerDe nonStringSerde = mock(RecordSerDe.class);
+      var f = containsStringRawFilter("abC", nonStringSerde);
+      assertTrue(f.test(rec(null, "some str")));
+      assertFalse(f.test(rec(null, null)));
+    }
+
+    @Test
+    void notAppliedForNonStringFilters() {
+      var f = createRawFilter("abC", MessageFilterTypeDTO.GROOVY_SCRIPT, new SimpleRecordSerDe());
+      assertTrue(f.test(rec("some str", "some str")));
+    }
+
+    @Test
+    void keyEqualsFilterComparesKeyBytes() {
+      var f = keyEqualsRawFilter("abC".getBytes(StandardCharsets.UTF_8));
+      assertTrue(f.test(rec("abC", "some str")));
+      assertFalse(f.test(rec("abCd", "abC")));
+      assertFalse(f.test(rec("aBc", "some str")));
+      assertFalse(f.test(rec(null, "abC")));
+    }
+
+    private ConsumerRecord<Bytes, Bytes> rec(@Nullable String key, @Nullable String value) {
+      return new ConsumerRecord<>("test", 0, 0,
+          key == null ? null : new Bytes(key.getBytes(StandardCharsets.UTF_8)),
+          value == null ? null : new Bytes(value.getBytes(StandardCharsets.UTF_8)));
+    }
+  }
+
+  @Nested
+  class ContainsAnyFilter {
+
+    Predicate<TopicMessageDTO> filter = createMsgFilter("order-17, he,\nshers", MessageFilterTypeDTO.CONTAINS_ANY);
+
+    @Test
+    void returnsTrueWhenAnyTermContainedInKeyOrContentOrHeaders() {
+      assertTrue(filter.test(msg().key("order-170").content("some str")));
+      assertTrue(filter.test(msg().key("some str").content("ushers")));
+      assertTrue(filter.test(msg().content("{\"id\": \"order-17\"}")));
+      assertTrue(filter.test(msg().headers(Map.of("h", "she"))));
+    }
+
+    @Test
+    void returnsFalseOtherwise() {
+      assertFalse(filter.test(msg().key("order-1").content("hash")));
+      assertFalse(filter.test(msg().key(null).content(null)));
+      assertFalse(filter.test(msg().headers(Map.of("he", "shs"))));
+    }
+
+    @Test
+    void matchesSameAsNaiveSearch() {
+      var random = new Random(42);
+      List<String> terms = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        terms.add(RandomStringUtils.random(1 + random.nextInt(4), 0, 0, false, false, "abc".toCharArray(), random));
+      }
+      var chars = AhoCorasickMatcher.forChars(terms);
+      var bytes = AhoCorasickMatcher.forUtf8Bytes(terms);
+      for (int i = 0; i < 1_000; i++) {
+        String text = RandomStringUtils.random(random.nextInt(10), 0, 0, false, false, "abcd".toCharArray(), random);
+        boolean expected = terms.stream().anyMatch(text::contains);
+        assertThat(chars.containedIn(text)).as(text).isEqualTo(expected);
+        assertThat(bytes.containedIn(text.getBytes(StandardCharsets.UTF_8))).as(text).isEqualTo(expected);
+      }
+    }
+
+    @Test
+    void rawFilterChecksKeyValueAndHeadersBytes() {
+      var f = createRawFilter("привет,order-17", MessageFilterTypeDTO.CONTAINS_ANY, new SimpleRecordSerDe());
+      assertTrue(f.test(rec("order-17", null)));
+      assertTrue(f.test(rec(null, "{\"greeting\": \"привет мир\"}")));
+      var withHeader = rec(null, "some str");
+      withHeader.headers().add("h", "x-order-17".getBytes(StandardCharsets.UTF_8));
+      assertTrue(f.test(withHeader));
+      assertFalse(f.test(rec("order-1", "hello")));
+    }
+
+    @Test
+    void throwsExceptionWhenNoTerms() {
+      assertThrows(ValidationException.class, () -> createMsgFilter(" ,\n", MessageFilterTypeDTO.CONTAINS_ANY));
+    }
+
+    private ConsumerRecord<Bytes, Bytes> rec(@Nullable String key, @Nullable String value) {
+      return new ConsumerRecord<>("test", 0, 0,
+          key == null ? null : new Bytes(key.getBytes(StandardCharsets.UTF_8)),
+          value == null ? null : new Bytes(value.getBytes(StandardCharsets.UTF_8)));
+    }
+  }
+
+  @Nested
+  class RegexFilter {
+
+    @Test
+    void returnsTrueWhenPatternFoundInKeyOrContentOrHeaders() {
+      var f = createMsgFilter("order-\\d{3}\\b", MessageFilterTypeDTO.REGEX);
+      assertTrue(f.test(msg().key("order-123").content("some str")));
+      assertTrue(f.test(msg().content("{\"id\": \"order-456\"}")));
+      assertTrue(f.test(msg().headers(Map.of("h", "order-789"))));
+      assertFalse(f.test(msg().key("order-1234").content("order-12")));
+    }
+
+    @Test
+    void supportsInlineFlags() {
+      var f = createMsgFilter("(?i)error", MessageFilterTypeDTO.REGEX);
+      assertTrue(f.test(msg().content("ERROR: failed")));
+    }
+
+    @Test
+    void throwsExceptionOnInvalidPattern() {
+      assertThrows(ValidationException.class, () -> createMsgFilter("order-(", MessageFilterTypeDTO.REGEX));
+    }
+  }
+
   @Nested
   class GroovyScriptFilter {
 
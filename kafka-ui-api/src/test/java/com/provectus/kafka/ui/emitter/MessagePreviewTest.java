@@ -0,0 +1,61 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MessagePreviewTest {
+
+  private final MessagePreview preview = MessagePreview.create(5);
+
+  @Test
+  void longKeyAndContentAreTruncated() {
+    var msg = new TopicMessageDTO().offset(10L).key("1234567").content("abcdefgh").valueSize(8L);
+
+    var result = preview.apply(event(msg)).getMessage();
+
+    assertThat(result.getKey()).isEqualTo("12345");
+    assertThat(result.getContent()).isEqualTo("abcde");
+    assertThat(result.getOffset()).isEqualTo(10L);
+    assertThat(result.getValueSize()).isEqualTo(8L);
+    assertThat(result.getTruncated()).isTrue();
+    // original message can be shared, so it is not changed
+    assertThat(msg.getContent()).isEqualTo("abcdefgh");
+  }
+
+  @Test
+  void shortMessagesAreNotChanged() {
+    var msg = new TopicMessageDTO().key("123").content(null);
+    assertThat(preview.apply(event(msg)).getMessage()).isSameAs(msg);
+  }
+
+  @Test
+  void surrogatePairsAreNotSplit() {
+    var msg = new TopicMessageDTO().content("abcd😀ef");
+    assertThat(preview.apply(event(msg)).getMessage().getContent()).isEqualTo("abcd");
+  }
+
+  @Test
+  void batchedMessagesAreTruncated() {
+    var batch = new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGES)
+        .messages(List.of(new TopicMessageDTO().content("1"), new TopicMessageDTO().content("1234567")));
+
+    assertThat(preview.apply(batch).getMessages())
+        .extracting(TopicMessageDTO::getContent)
+        .containsExactly("1", "12345");
+  }
+
+  @Test
+  void previewIsDisabledByDefault() {
+    assertThat(MessagePreview.create(null)).isNull();
+    assertThat(MessagePreview.create(0)).isNull();
+  }
+
+  private static TopicMessageEventDTO event(TopicMessageDTO msg) {
+    return new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.MESSAGE).message(msg);
+  }
+}
@@ -0,0 +1,87 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MessageProjectionTest {
+
+  private static final String VALUE = "{\"id\": 1, \"order\": {\"total\": 10.5, \"notes\": \"n\"},"
+      + " \"items\": [{\"sku\": \"a\", \"qty\": 1}, {\"sku\": \"b\", \"qty\": 2}],"
+      + " \"field.with.dots\": true, \"big\": {\"nested\": [1, 2, 3]}}";
+
+  @Test
+  void leavesOnlySelectedFields() {
+    assertThat(projectValue("value.id", "value.order.total"))
+        .isEqualTo("{\"id\":1,\"order\":{\"total\":10.5}}");
+    assertThat(projectValue("value.items[*].sku"))
+        .isEqualTo("{\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\"}]}");
+    assertThat(projectValue("value.items[1]", "value[\"field.with.dots\"]"))
+        .isEqualTo("{\"items\":[{\"sku\":\"b\",\"qty\":2}],\"field.with.dots\":true}");
+  }
+
+  @Test
+  void missingFieldsAndScalarsOnPathAreSkipped() {
+    assertThat(projectValue("value.missing", "value.id.inner", "value.order.notes"))
+        .isEqualTo("{\"order\":{\"notes\":\"n\"}}");
+  }
+
+  @Test
+  void keyAndValueAreProjectedSeparately() {
+    var projection = MessageProjection.compile(List.of("key.userId"));
+    var projected = projection.apply(event("{\"userId\": \"u\", \"ts\": 1}", VALUE));
+
+    assertThat(projected.getMessage().getKey()).isEqualTo("{\"userId\":\"u\"}");
+    assertThat(projected.getMessage().getContent()).isEqualTo(VALUE);
+    assertThat(projected.getMessage().getOffset()).isEqualTo(5);
+  }
+
+  @Test
+  void nonJsonValuesAndNonMessageEventsAreNotChanged() {
+    var projection = MessageProjection.compile(List.of("value.id"));
+    assertThat(projection.apply(event(null, "plain text")).getMessage().getContent()).isEqualTo("plain text");
+    assertThat(projection.apply(event(null, "{\"id\": broken")).getMessage().getContent())
+        .isEqualTo("{\"id\": broken");
+
+    var done = new TopicMessageEventDTO().type(TopicMessageEventDTO.TypeEnum.DONE);
+    assertThat(projection.apply(done)).isSameAs(done);
+  }
+
+  @Test
+  void sourceEventIsNotModified() {
+    var source = event(null, VALUE);
+    MessageProjection.compile(List.of("value.id")).apply(source);
+    assertThat(source.getMessage().getContent()).isEqualTo(VALUE);
+  }
+
+  @Test
+  void emptyPathsMeanNoProjection() {
+    assertThat(MessageProjection.compile(null)).isNull();
+    assertThat(MessageProjection.compile(List.of())).isNull();
+  }
+
+  @Test
+  void throwsValidationExceptionOnInvalidPaths() {
+    assertThatThrownBy(() -> MessageProjection.compile(List.of("headers.a")))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> MessageProjection.compile(List.of("value..a")))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> MessageProjection.compile(List.of("value[x]")))
+        .isInstanceOf(ValidationException.class);
+  }
+
+  private static String projectValue(String... paths) {
+    return MessageProjection.compile(List.of(paths)).apply(event(null, VALUE)).getMessage().getContent();
+  }
+
+  private static TopicMessageEventDTO event(String key, String value) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .message(new TopicMessageDTO().partition(0).offset(5L).key(key).content(value));
+  }
+}
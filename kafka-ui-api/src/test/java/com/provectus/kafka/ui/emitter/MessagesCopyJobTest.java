@@ -0,0 +1,154 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.MessagesCopyProgressDTO;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.util.OffsetsSeekForward;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.BytesSerializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class MessagesCopyJobTest {
+
+  private static final String SOURCE = "source";
+  private static final String TARGET = "target";
+  private static final TopicPartition TP0 = new TopicPartition(SOURCE, 0);
+  private static final TopicPartition TP1 = new TopicPartition(SOURCE, 1);
+  private static final String DIGEST = "digest";
+
+  private MockConsumer<Bytes, Bytes> consumer;
+  private MockProducer<Bytes, Bytes> producer;
+
+  @BeforeEach
+  void setUp() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    Node node = new Node(0, "localhost", 9092);
+    consumer.updatePartitions(SOURCE, List.of(
+        new PartitionInfo(SOURCE, 0, node, null, null),
+        new PartitionInfo(SOURCE, 1, node, null, null)));
+    consumer.updateBeginningOffsets(Map.of(TP0, 0L, TP1, 0L));
+    consumer.updateEndOffsets(Map.of(TP0, 3L, TP1, 2L));
+    // records are added after assignment
+    consumer.schedulePollTask(() -> {
+      for (int i = 0; i < 3; i++) {
+        consumer.addRecord(record(0, i));
+      }
+      for (int i = 0; i < 2; i++) {
+        consumer.addRecord(record(1, i));
+      }
+    });
+    producer = new MockProducer<>(true, new BytesSerializer(), new BytesSerializer());
+  }
+
+  @Test
+  void recordsAreCopiedWithKeysHeadersAndPartitions() {
+    List<MessagesCopyProgressDTO> progress = run(rec -> true);
+
+    assertThat(producer.history())
+        .extracting(ProducerRecord::topic, ProducerRecord::partition, r -> r.key().toString())
+        .containsExactlyInAnyOrder(
+            tuple(TARGET, 0, key(0, 0).toString()),
+            tuple(TARGET, 0, key(0, 1).toString()),
+            tuple(TARGET, 0, key(0, 2).toString()),
+            tuple(TARGET, 1, key(1, 0).toString()),
+            tuple(TARGET, 1, key(1, 1).toString()));
+    assertThat(producer.history())
+        .allMatch(r -> new String(r.headers().lastHeader("h").value()).equals("v"));
+    var done = progress.get(progress.size() - 1);
+    assertThat(done.getState()).isEqualTo(MessagesCopyProgressDTO.StateEnum.DONE);
+    assertThat(done.getCopied()).isEqualTo(5);
+    assertThat(done.getRemaining()).isZero();
+  }
+
+  @Test
+  void filteredRecordsAreNotCopied() {
+    List<MessagesCopyProgressDTO> progress = run(rec -> rec.partition() == 1);
+
+    assertThat(producer.history()).hasSize(2);
+    var done = progress.get(progress.size() - 1);
+    assertThat(done.getCopied()).isEqualTo(2);
+    assertThat(done.getFiltered()).isEqualTo(3);
+  }
+
+  @Test
+  void jobIsContinuedFromCommittedPositions() {
+    // partition 0 was copied up to offset 1 of range [0, 1], partition 1 - up to offset 0 of [0, 1]
+    // (mock consumer returns committed offsets of assigned partitions only)
+    consumer.assign(List.of(TP0, TP1));
+    consumer.commitSync(Map.of(
+        TP0, new OffsetAndMetadata(2, "1/" + DIGEST),
+        TP1, new OffsetAndMetadata(1, "1/" + DIGEST)));
+
+    List<MessagesCopyProgressDTO> progress = run(rec -> true);
+
+    assertThat(producer.history())
+        .extracting(r -> r.key().toString())
+        .containsExactly(key(1, 1).toString());
+    assertThat(progress.get(progress.size() - 1).getRemaining()).isZero();
+  }
+
+  @Test
+  void jobIsNotContinuedWithAnotherRequest() {
+    consumer.assign(List.of(TP0, TP1));
+    consumer.commitSync(Map.of(
+        TP0, new OffsetAndMetadata(2, "1/other"),
+        TP1, new OffsetAndMetadata(1, "1/other")));
+
+    assertThatThrownBy(() -> run(rec -> true))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("another position, filter or target");
+    assertThat(producer.history()).isEmpty();
+  }
+
+  private List<MessagesCopyProgressDTO> run(Predicate<ConsumerRecord<Bytes, Bytes>> filter) {
+    var job = new MessagesCopyJob(
+        "test",
+        DIGEST,
+        () -> consumer,
+        () -> producer,
+        new OffsetsSeekForward(SOURCE,
+            new ConsumerPosition(SeekTypeDTO.BEGINNING, Map.of(), SeekDirectionDTO.FORWARD)),
+        TARGET,
+        true,
+        0,
+        filter,
+        Duration.ofMinutes(1)
+    );
+    return Flux.create(job).collect(Collectors.toList()).block(Duration.ofSeconds(10));
+  }
+
+  private static ConsumerRecord<Bytes, Bytes> record(int partition, long offset) {
+    var headers = new RecordHeaders(List.of(new RecordHeader("h", "v".getBytes())));
+    return new ConsumerRecord<>(SOURCE, partition, offset, 0L, TimestampType.CREATE_TIME, 0L, 0, 0,
+        key(partition, offset), Bytes.wrap(new byte[] {1, 2, 3}), headers);
+  }
+
+  private static Bytes key(int partition, long offset) {
+    return Bytes.wrap((partition + "-" + offset).getBytes());
+  }
+}
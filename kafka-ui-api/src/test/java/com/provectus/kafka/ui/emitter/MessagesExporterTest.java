@@ -0,0 +1,156 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import com.provectus.kafka.ui.util.OffsetsSeekForward;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MessagesExporterTest {
+
+  private static final String TOPIC = "test";
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+  private static final int TP0_RECORDS = 5_000;
+  private static final int TP1_RECORDS = 5;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private MockConsumer<Bytes, Bytes> consumer;
+
+  @BeforeEach
+  void initConsumer() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.updatePartitions(
+        TOPIC,
+        Stream.of(TP0, TP1)
+            .map(tp -> new PartitionInfo(TOPIC, tp.partition(), null, null, null, null))
+            .collect(Collectors.toList()));
+    consumer.updateBeginningOffsets(Map.of(TP0, 0L, TP1, 0L));
+    consumer.updateEndOffsets(Map.of(TP0, (long) TP0_RECORDS, TP1, (long) TP1_RECORDS));
+    consumer.schedulePollTask(() -> {
+      for (int i = 0; i < TP0_RECORDS; i++) {
+        consumer.addRecord(record(TP0, i));
+      }
+      // records produced after export started should not be exported
+      for (int i = 0; i < TP1_RECORDS + 3; i++) {
+        consumer.addRecord(record(TP1, i));
+      }
+    });
+  }
+
+  @Test
+  void exportsRawRecordsInChunks() throws IOException {
+    var exporter = createExporter(false, false);
+    List<byte[]> chunks = readAll(exporter);
+    exporter.close();
+
+    assertThat(chunks.size()).isGreaterThan(1);
+    assertThat(chunks.subList(0, chunks.size() - 1))
+        .allMatch(chunk -> chunk.length >= MessagesExporter.CHUNK_SIZE);
+    assertThat(consumer.closed()).isTrue();
+
+    List<JsonNode> lines = parseLines(new ByteArrayInputStream(concat(chunks)));
+    assertThat(lines).hasSize(TP0_RECORDS + TP1_RECORDS);
+    JsonNode line = lines.stream()
+        .filter(l -> l.get("partition").asInt() == 1 && l.get("offset").asLong() == 3)
+        .findFirst()
+        .orElseThrow();
+    assertThat(Base64.getDecoder().decode(line.get("key").asText())).isEqualTo("key-1-3".getBytes());
+    assertThat(Base64.getDecoder().decode(line.get("value").asText())).isEqualTo(value(TP1, 3).getBytes());
+    assertThat(line.get("timestamp").asLong()).isEqualTo(3);
+    assertThat(line.get("headers")).hasSize(2);
+    assertThat(line.get("headers"))
+        .allMatch(h -> h.get("key").asText().equals("trace"))
+        .extracting(h -> new String(Base64.getDecoder().decode(h.get("value").asText())))
+        .containsExactly("first", "second");
+  }
+
+  @Test
+  void exportsDeserializedRecordsCompressed() throws IOException {
+    var exporter = createExporter(true, true);
+    byte[] compressed = concat(readAll(exporter));
+
+    List<JsonNode> lines = parseLines(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+    assertThat(lines).hasSize(TP0_RECORDS + TP1_RECORDS);
+    assertThat(lines)
+        .filteredOn(l -> l.get("partition").asInt() == 0)
+        .extracting(l -> l.get("content").asText())
+        .containsExactlyElementsOf(
+            Stream.iterate(0, i -> i + 1).limit(TP0_RECORDS).map(i -> value(TP0, i)).collect(Collectors.toList()));
+    // compressible values
+    assertThat(compressed.length).isLessThan(MessagesExporter.CHUNK_SIZE);
+  }
+
+  private MessagesExporter createExporter(boolean deserialize, boolean gzip) {
+    return new MessagesExporter(
+        consumer,
+        new OffsetsSeekForward(TOPIC,
+            new ConsumerPosition(SeekTypeDTO.BEGINNING, Map.of(), SeekDirectionDTO.FORWARD)),
+        deserialize ? new SimpleRecordSerDe() : null,
+        objectMapper,
+        gzip
+    );
+  }
+
+  private static List<byte[]> readAll(MessagesExporter exporter) {
+    List<byte[]> chunks = new ArrayList<>();
+    byte[] chunk;
+    while ((chunk = exporter.nextChunk()) != null) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  private static byte[] concat(List<byte[]> chunks) {
+    var out = new ByteArrayOutputStream();
+    chunks.forEach(out::writeBytes);
+    return out.toByteArray();
+  }
+
+  private List<JsonNode> parseLines(InputStream in) throws IOException {
+    List<JsonNode> result = new ArrayList<>();
+    for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+      result.add(objectMapper.readTree(line));
+    }
+    return result;
+  }
+
+  private static ConsumerRecord<Bytes, Bytes> record(TopicPartition tp, long offset) {
+    var rec = new ConsumerRecord<>(
+        tp.topic(), tp.partition(), offset, offset, TimestampType.CREATE_TIME, 0L, 0, 0,
+        Bytes.wrap(("key-" + tp.partition() + "-" + offset).getBytes()),
+        Bytes.wrap(value(tp, offset).getBytes()));
+    // header with repeated key
+    rec.headers().add("trace", "first".getBytes()).add("trace", "second".getBytes());
+    return rec;
+  }
+
+  private static String value(TopicPartition tp, long offset) {
+    return "value of " + tp + " at " + offset + " ".repeat(100);
+  }
+}
@@ -0,0 +1,89 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.model.TopicMessageSchemaDTO;
+import com.provectus.kafka.ui.serde.RecordSerDe;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class MessagesProcessingTest {
+
+  private final Scheduler scheduler = Schedulers.newParallel("test-deserialization", 4);
+
+  @AfterEach
+  void disposeScheduler() {
+    scheduler.dispose();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4, 16})
+  void messagesAreSentInPollingOrderRegardlessOfParallelism(int parallelism) {
+    Predicate<ConsumerRecord<Bytes, Bytes>> skipEvery7th = rec -> rec.offset() % 7 != 0;
+    var processing = new MessagesProcessing(new SlowSerDe(), skipEvery7th, parallelism, scheduler,
+        Long.MAX_VALUE, ScanMetrics.noop());
+
+    List<Long> sentOffsets = Flux.<TopicMessageEventDTO>create(sink -> {
+      var emitter = new TestEmitter(processing);
+      for (int i = 0; i < 200; i++) {
+        emitter.sendMessage(sink, new ConsumerRecord<>("test", 0, i, null, Bytes.wrap(new byte[] {1})));
+      }
+      emitter.flushMessages(sink);
+      sink.complete();
+    })
+        .filter(e -> e.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .map(e -> e.getMessage().getOffset())
+        .collectList()
+        .block();
+
+    assertThat(sentOffsets).containsExactlyElementsOf(
+        IntStream.range(0, 200)
+            .filter(i -> i % 7 != 0)
+            .mapToObj(i -> (long) i)
+            .collect(Collectors.toList())
+    );
+  }
+
+  private static class TestEmitter extends AbstractEmitter {
+    TestEmitter(MessagesProcessing messagesProcessing) {
+      super(messagesProcessing);
+    }
+  }
+
+  // deserializes with random delays, so parallel deserialization completes out of order
+  private static class SlowSerDe implements RecordSerDe {
+    private final SimpleRecordSerDe delegate = new SimpleRecordSerDe();
+
+    @Override
+    @SneakyThrows
+    public DeserializedKeyValue deserialize(ConsumerRecord<Bytes, Bytes> msg) {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+      return delegate.deserialize(msg);
+    }
+
+    @Override
+    public ProducerRecord<byte[], byte[]> serialize(String topic, String key, String data, Integer partition) {
+      return delegate.serialize(topic, key, data, partition);
+    }
+
+    @Override
+    public TopicMessageSchemaDTO getTopicSchema(String topic) {
+      return delegate.getTopicSchema(topic);
+    }
+  }
+}
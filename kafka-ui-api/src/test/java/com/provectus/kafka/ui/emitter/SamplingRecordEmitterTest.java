@@ -0,0 +1,108 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.ConsumerPosition;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import com.provectus.kafka.ui.util.OffsetsSeekForward;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class SamplingRecordEmitterTest {
+
+  private static final String TOPIC = "test";
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+  private static final TopicPartition TP2 = new TopicPartition(TOPIC, 2);
+
+  @Test
+  void samplesAreSplitProportionallyToPartitionsSizes() {
+    var plan = SamplingRecordEmitter.plan(
+        Map.of(TP0, 0L, TP1, 1_000L, TP2, 5L),
+        Map.of(TP0, 3_000_000L, TP1, 1_001_000L, TP2, 5L),
+        100,
+        new Random(42)
+    );
+
+    assertThat(plan).containsOnlyKeys(TP0, TP1);
+    assertThat(sampled(plan.get(TP0))).isEqualTo(75);
+    assertThat(sampled(plan.get(TP1))).isEqualTo(25);
+    assertThat(plan.get(TP0)).hasSize(SamplingRecordEmitter.MAX_FETCHES_PER_PARTITION);
+    // each fetch is taken from its own quarter of partition
+    for (int i = 0; i < plan.get(TP1).size(); i++) {
+      var fetch = plan.get(TP1).get(i);
+      assertThat(fetch.getFrom()).isGreaterThanOrEqualTo(1_000L + 250_000L * i);
+      assertThat(fetch.getFrom() + fetch.getCount()).isLessThanOrEqualTo(1_000L + 250_000L * (i + 1));
+    }
+  }
+
+  @Test
+  void smallPartitionsAreReadFully() {
+    var plan = SamplingRecordEmitter.plan(Map.of(TP0, 10L), Map.of(TP0, 17L), 100, new Random(42));
+    assertThat(plan.get(TP0))
+        .flatExtracting(f -> Stream.iterate(f.getFrom(), o -> o + 1).limit(f.getCount()).collect(Collectors.toList()))
+        .containsExactly(10L, 11L, 12L, 13L, 14L, 15L, 16L);
+  }
+
+  @Test
+  void emitsSampledRecords() {
+    var consumer = new MockConsumer<Bytes, Bytes>(OffsetResetStrategy.EARLIEST);
+    consumer.updatePartitions(TOPIC, Stream.of(TP0, TP1)
+        .map(tp -> new PartitionInfo(TOPIC, tp.partition(), null, null, null, null))
+        .collect(Collectors.toList()));
+    consumer.updateBeginningOffsets(Map.of(TP0, 0L, TP1, 0L));
+    consumer.updateEndOffsets(Map.of(TP0, 1_000L, TP1, 1_000L));
+    // emulating fetch from the current positions of non-paused partitions
+    for (int i = 0; i < 20; i++) {
+      consumer.schedulePollTask(() -> {
+        Set<TopicPartition> fetched = new HashSet<>(consumer.assignment());
+        fetched.removeAll(consumer.paused());
+        fetched.forEach(tp -> addRecords(consumer, tp, consumer.position(tp), 30));
+      });
+    }
+
+    var emitter = new SamplingRecordEmitter(
+        () -> consumer,
+        new OffsetsSeekForward(TOPIC, new ConsumerPosition(SeekTypeDTO.SAMPLE, Map.of(), SeekDirectionDTO.FORWARD)),
+        40,
+        new MessagesProcessing(new SimpleRecordSerDe())
+    );
+    List<TopicMessageDTO> sampled = Flux.create(emitter)
+        .filter(e -> e.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .map(TopicMessageEventDTO::getMessage)
+        .collectList()
+        .block();
+
+    assertThat(sampled).hasSize(40);
+    assertThat(sampled.stream().map(m -> m.getPartition() + ":" + m.getOffset()).distinct()).hasSize(40);
+    assertThat(sampled.stream().filter(m -> m.getPartition() == 0)).hasSize(20);
+    assertThat(consumer.closed()).isTrue();
+  }
+
+  private static void addRecords(MockConsumer<Bytes, Bytes> consumer, TopicPartition tp, long from, int count) {
+    for (long offset = from; offset < from + count && offset < 1_000; offset++) {
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, tp.partition(), offset, null, Bytes.wrap(new byte[] {1})));
+    }
+  }
+
+  private static int sampled(List<SamplingRecordEmitter.Fetch> fetches) {
+    return fetches.stream().mapToInt(SamplingRecordEmitter.Fetch::getCount).sum();
+  }
+}
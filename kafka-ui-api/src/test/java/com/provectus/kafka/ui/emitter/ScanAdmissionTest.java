@@ -0,0 +1,125 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+class ScanAdmissionTest {
+
+  private final ScanAdmission admission = new ScanAdmission(2, 1);
+
+  @Test
+  void scansOverLimitWaitInQueue() {
+    final var first = new Scan("user1");
+    final var second = new Scan("user2");
+    final var third = new Scan("user3");
+
+    assertThat(first.started()).isTrue();
+    assertThat(second.started()).isTrue();
+    assertThat(third.started()).isFalse();
+    assertThat(third.phases()).containsExactly("Waiting for free scan slot, 0 scans ahead in queue");
+
+    first.finish();
+
+    assertThat(third.started()).isTrue();
+    assertThat(admission.running()).isEqualTo(2);
+    second.finish();
+    third.finish();
+    assertThat(admission.running()).isZero();
+  }
+
+  @Test
+  void scansOfUserAtLimitAreSkipped() {
+    final var first = new Scan("user1");
+    final var secondOfUser1 = new Scan("user1");
+    final var other = new Scan("user2");
+
+    assertThat(secondOfUser1.started()).isFalse();
+    assertThat(secondOfUser1.phases()).containsExactly("Waiting for one of 1 running scans of the user to finish");
+    assertThat(other.started()).isTrue();
+
+    first.finish();
+    assertThat(secondOfUser1.started()).isTrue();
+  }
+
+  @Test
+  void queuePositionIsUpdated() {
+    final var running1 = new Scan("user1");
+    final var running2 = new Scan("user2");
+    final var waiting1 = new Scan("user3");
+    final var waiting2 = new Scan("user4");
+
+    assertThat(waiting2.phases()).containsExactly("Waiting for free scan slot, 1 scans ahead in queue");
+
+    waiting1.cancel();
+
+    assertThat(admission.waiting()).isEqualTo(1);
+    assertThat(waiting2.phases()).containsExactly(
+        "Waiting for free scan slot, 1 scans ahead in queue",
+        "Waiting for free scan slot, 0 scans ahead in queue");
+    running1.finish();
+    assertThat(waiting2.started()).isTrue();
+    running2.finish();
+  }
+
+  @Test
+  void exportsShareSlotsWithScansWithoutPhaseEvents() {
+    final var scan = new Scan("user1");
+    final var otherScan = new Scan("user2");
+    List<byte[]> chunks = new ArrayList<>();
+    final Disposable export = admission.admit(Flux.just(new byte[] {1}), phase -> null)
+        .contextWrite(Context.of(ScanAdmission.USER_CONTEXT_KEY, "user3"))
+        .subscribe(chunks::add);
+
+    assertThat(admission.waiting()).isEqualTo(1);
+    assertThat(chunks).isEmpty();
+
+    scan.finish();
+    assertThat(chunks).hasSize(1);
+    assertThat(export.isDisposed()).isTrue();
+    otherScan.finish();
+    assertThat(admission.running()).isZero();
+  }
+
+  private class Scan {
+    private final Sinks.Many<TopicMessageEventDTO> upstream = Sinks.many().unicast().onBackpressureBuffer();
+    private final List<TopicMessageEventDTO> received = new ArrayList<>();
+    private final Disposable subscription;
+    private boolean started;
+
+    Scan(String user) {
+      subscription = admission.admit(upstream.asFlux().doOnSubscribe(s -> started = true))
+          .contextWrite(Context.of(ScanAdmission.USER_CONTEXT_KEY, user))
+          .subscribe(received::add);
+    }
+
+    boolean started() {
+      return started;
+    }
+
+    List<String> phases() {
+      List<String> phases = new ArrayList<>();
+      for (TopicMessageEventDTO evt : received) {
+        if (evt.getType() == TopicMessageEventDTO.TypeEnum.PHASE) {
+          phases.add(evt.getPhase().getName());
+        }
+      }
+      return phases;
+    }
+
+    void finish() {
+      upstream.tryEmitComplete();
+    }
+
+    void cancel() {
+      subscription.dispose();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageConsumingDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class ScanBudgetTest {
+
+  @Test
+  void scanIsStoppedWhenBytesBudgetExhausted() {
+    var scan = Flux.just(message(), consuming(500), message(), consuming(1500), message());
+
+    StepVerifier.create(scan.transform(new ScanBudget(DataSize.ofBytes(1000), null)))
+        .expectNextCount(4)
+        .assertNext(evt -> {
+          assertThat(evt.getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.BUDGET_EXHAUSTED);
+          assertThat(evt.getPhase().getName()).contains("1000B");
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void scanIsStoppedWhenTimeBudgetExhausted() {
+    StepVerifier.withVirtualTime(() -> Flux.just(message()).concatWith(Flux.never())
+            .transform(new ScanBudget(null, Duration.ofMinutes(1))))
+        .expectNextCount(1)
+        .thenAwait(Duration.ofMinutes(1))
+        .assertNext(evt -> assertThat(evt.getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.BUDGET_EXHAUSTED))
+        .verifyComplete();
+  }
+
+  @Test
+  void scanWithinBudgetIsNotChanged() {
+    var scan = Flux.just(message(), consuming(500), message());
+
+    StepVerifier.create(scan.transform(new ScanBudget(DataSize.ofBytes(1000), Duration.ofMinutes(1))))
+        .expectNextCount(3)
+        .verifyComplete();
+  }
+
+  private static TopicMessageEventDTO message() {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .message(new TopicMessageDTO().content("test"));
+  }
+
+  private static TopicMessageEventDTO consuming(long bytes) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.CONSUMING)
+        .consuming(new TopicMessageConsumingDTO().bytesConsumed(bytes));
+  }
+}
@@ -0,0 +1,58 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+class ScanMetricsTest {
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void stagesAreMeasuredWithScanTags() {
+    var metrics = ScanMetrics.create(registry, "local", "test", SeekDirectionDTO.FORWARD);
+    var processing = new MessagesProcessing(new SimpleRecordSerDe(), rec -> true, 1, Schedulers.immediate(),
+        Long.MAX_VALUE, metrics);
+    var rec = new ConsumerRecord<>("test", 0, 0, 0, TimestampType.CREATE_TIME, 0L, 3, 5,
+        Bytes.wrap("key".getBytes()), Bytes.wrap("value".getBytes()));
+
+    metrics.timeConsumerCreation(() -> "consumer");
+    metrics.polled(new ConsumerRecords<>(Map.of(new TopicPartition("test", 0), List.of(rec))), 10);
+    processing.deserialize(rec);
+    metrics.timedFilter(r -> true).test(rec);
+
+    for (String timer : List.of("consumer.creation", "poll", "deserialization", "mapping", "filtering")) {
+      assertThat(registry.get("kafka.ui.messages." + timer)
+          .tags("cluster", "local", "topic", "test", "direction", "FORWARD")
+          .timer()
+          .count())
+          .as(timer)
+          .isEqualTo(1);
+    }
+    assertThat(registry.get("kafka.ui.messages.polled.records").counter().count()).isEqualTo(1);
+    assertThat(registry.get("kafka.ui.messages.polled.bytes").counter().count()).isEqualTo(8);
+  }
+
+  @Test
+  void scansWithSameTagsShareMeters() {
+    ScanMetrics.create(registry, "local", "test", SeekDirectionDTO.FORWARD).timeConsumerCreation(() -> 1);
+    ScanMetrics.create(registry, "local", "test", SeekDirectionDTO.FORWARD).timeConsumerCreation(() -> 2);
+    ScanMetrics.create(registry, "local", "test", SeekDirectionDTO.BACKWARD).timeConsumerCreation(() -> 3);
+
+    assertThat(registry.get("kafka.ui.messages.consumer.creation").tag("direction", "FORWARD").timer().count())
+        .isEqualTo(2);
+    assertThat(registry.get("kafka.ui.messages.consumer.creation").timers()).hasSize(2);
+  }
+}
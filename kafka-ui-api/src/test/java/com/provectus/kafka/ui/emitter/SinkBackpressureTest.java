@@ -0,0 +1,99 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.serde.SimpleRecordSerDe;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+class SinkBackpressureTest {
+
+  @Test
+  void tracksEventsSentWithoutDemand() {
+    var backpressure = new SinkBackpressure(100);
+    backpressure.requested(2);
+    backpressure.sent(60);
+    backpressure.sent(60);
+    assertThat(backpressure.bufferedBytes()).isZero();
+
+    backpressure.sent(60);
+    backpressure.sent(50);
+    assertThat(backpressure.bufferedBytes()).isEqualTo(110);
+    assertThat(backpressure.isFull()).isTrue();
+
+    // buffered events are delivered first, rest of demand is used by next events
+    backpressure.requested(3);
+    assertThat(backpressure.bufferedBytes()).isZero();
+    backpressure.sent(60);
+    backpressure.sent(60);
+    assertThat(backpressure.bufferedBytes()).isEqualTo(60);
+    assertThat(backpressure.isFull()).isFalse();
+  }
+
+  @Test
+  void unboundedDemandReleasesBuffer() {
+    var backpressure = new SinkBackpressure(100);
+    backpressure.sent(200);
+    assertThat(backpressure.isFull()).isTrue();
+    backpressure.requested(Long.MAX_VALUE);
+    backpressure.sent(200);
+    assertThat(backpressure.isFull()).isFalse();
+  }
+
+  @Test
+  void emitterWaitsForDemandWhenBufferIsFull() throws Exception {
+    // each message is estimated to take at least 128 bytes
+    var processing = new MessagesProcessing(new SimpleRecordSerDe(), rec -> true, 1, Schedulers.immediate(), 1024,
+        ScanMetrics.noop());
+    var sentCount = new AtomicInteger();
+    Flux<TopicMessageEventDTO> flux = Flux.<TopicMessageEventDTO>create(sink -> {
+      var emitter = new TestEmitter(processing);
+      for (int i = 0; i < 100 && !sink.isCancelled(); i++) {
+        emitter.sendMessage(sink, new ConsumerRecord<>("test", 0, i, null, Bytes.wrap(new byte[] {1})));
+        sentCount.incrementAndGet();
+      }
+      sink.complete();
+    }).subscribeOn(Schedulers.boundedElastic(), false);
+
+    List<TopicMessageEventDTO> received = new CopyOnWriteArrayList<>();
+    var subscriber = new BaseSubscriber<TopicMessageEventDTO>() {
+      @Override
+      protected void hookOnSubscribe(Subscription subscription) {
+        request(1);
+      }
+
+      @Override
+      protected void hookOnNext(TopicMessageEventDTO value) {
+        received.add(value);
+      }
+    };
+    flux.subscribe(subscriber);
+
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> sentCount.get() > 1);
+    // giving emitter time to send more than it should
+    Thread.sleep(300);
+    // 1 requested + up to 1024 bytes buffered
+    assertThat(sentCount.get()).isBetween(2, 9);
+
+    subscriber.requestUnbounded();
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 100);
+    assertThat(sentCount.get()).isEqualTo(100);
+  }
+
+  private static class TestEmitter extends AbstractEmitter {
+    TestEmitter(MessagesProcessing messagesProcessing) {
+      super(messagesProcessing);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageConsumingDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class TailingBatcherTest {
+
+  private static final Duration NEVER = Duration.ofHours(1);
+
+  @Test
+  void batchIsFlushedWhenSizeReached() {
+    StepVerifier.create(messages(25).transform(batcher(10, Long.MAX_VALUE, NEVER, 100)))
+        .assertNext(evt -> assertThat(evt.getMessages()).extracting(TopicMessageDTO::getOffset)
+            .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(10))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(5))
+        .verifyComplete();
+  }
+
+  @Test
+  void batchIsFlushedWhenBytesReached() {
+    long messageSize = AbstractEmitter.estimateSize(message(0).getMessage());
+    StepVerifier.create(messages(5).transform(batcher(100, messageSize * 2, NEVER, 100)))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(2))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(2))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(1))
+        .verifyComplete();
+  }
+
+  @Test
+  void batchIsFlushedAfterInterval() {
+    var upstream = messages(3).concatWith(Flux.never());
+    StepVerifier.create(upstream.transform(batcher(100, Long.MAX_VALUE, Duration.ofMillis(50), 100)))
+        .assertNext(evt -> {
+          assertThat(evt.getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.MESSAGES);
+          assertThat(evt.getMessages()).hasSize(3);
+        })
+        .thenCancel()
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void latestConsumingStatsAreSentAfterBatch() {
+    var upstream = Flux.just(message(0), consuming(1), message(1), consuming(2), phase(), message(2));
+    StepVerifier.create(upstream.transform(batcher(100, Long.MAX_VALUE, NEVER, 100)))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(2))
+        .assertNext(evt -> assertThat(evt.getConsuming().getMessagesConsumed()).isEqualTo(2))
+        .assertNext(evt -> assertThat(evt.getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.PHASE))
+        .assertNext(evt -> assertThat(evt.getMessages()).hasSize(1))
+        .verifyComplete();
+  }
+
+  @Test
+  void recordsAreSampledWhenSubscriberDoesNotKeepUp() {
+    int total = 10_000;
+    // nothing is requested until upstream completes
+    StepVerifier.create(messages(total).transform(batcher(10, Long.MAX_VALUE, NEVER, 2)), 0)
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(100))
+        .thenRequest(Long.MAX_VALUE)
+        .recordWith(ArrayList::new)
+        .thenConsumeWhile(evt -> true)
+        .consumeRecordedWith(events -> {
+          var list = new ArrayList<>(events);
+          assertThat(list.get(0).getMessages()).hasSize(10);
+          assertThat(list.get(1).getMessages()).hasSize(10);
+          assertThat(list.get(2).getType()).isEqualTo(TopicMessageEventDTO.TypeEnum.SKIPPED);
+          long delivered = delivered(list);
+          // every record is either delivered or reported as skipped
+          assertThat(delivered + list.get(2).getSkipped()).isEqualTo(total);
+          assertThat(delivered).isLessThan(total);
+        })
+        .verifyComplete();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10_000, 500_000})
+  void retainedRecordsDoNotDependOnUpstreamSizeWhenSubscriberIsSlow(int total) {
+    int maxSize = 10;
+    int maxPending = 2;
+    var upstreamCompleted = new AtomicBoolean();
+    var upstream = messages(total).doOnComplete(() -> upstreamCompleted.set(true));
+    StepVerifier.create(upstream.transform(batcher(maxSize, Long.MAX_VALUE, NEVER, maxPending)), 0)
+        .expectSubscription()
+        // upstream is not paused by the subscriber which requested nothing
+        .then(() -> assertThat(upstreamCompleted).isTrue())
+        .thenRequest(Long.MAX_VALUE)
+        .recordWith(ArrayList::new)
+        .thenConsumeWhile(evt -> true)
+        .consumeRecordedWith(events -> {
+          long delivered = delivered(new ArrayList<>(events));
+          // only pending batches and the last (incomplete) batch were kept while subscriber was slow
+          assertThat(delivered).isLessThanOrEqualTo((long) (maxPending + 1) * maxSize);
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void nothingIsSkippedForSubscriberWhichKeepsUp() {
+    int total = 10_000;
+    List<TopicMessageEventDTO> events = messages(total)
+        .transform(batcher(10, Long.MAX_VALUE, NEVER, 2))
+        .collectList()
+        .block();
+
+    assertThat(events).noneMatch(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.SKIPPED);
+    assertThat(delivered(events)).isEqualTo(total);
+  }
+
+  private static long delivered(List<TopicMessageEventDTO> events) {
+    return events.stream()
+        .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES)
+        .mapToLong(evt -> evt.getMessages().size())
+        .sum();
+  }
+
+  private static TailingBatcher batcher(int maxSize, long maxBytes, Duration interval, int maxPending) {
+    return new TailingBatcher(maxSize, maxBytes, interval, maxPending, Schedulers.parallel());
+  }
+
+  private static Flux<TopicMessageEventDTO> messages(int count) {
+    return Flux.range(0, count).map(TailingBatcherTest::message);
+  }
+
+  private static TopicMessageEventDTO message(int offset) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .message(new TopicMessageDTO().offset((long) offset).content("message " + offset));
+  }
+
+  private static TopicMessageEventDTO consuming(int consumed) {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.CONSUMING)
+        .consuming(new TopicMessageConsumingDTO().messagesConsumed(consumed));
+  }
+
+  private static TopicMessageEventDTO phase() {
+    return new TopicMessageEventDTO()
+        .type(TopicMessageEventDTO.TypeEnum.PHASE);
+  }
+}
@@ -7,6 +7,7 @@ import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
 import com.provectus.kafka.ui.model.SeekDirectionDTO;
 import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
 import com.provectus.kafka.ui.service.ClustersStorage;
 import com.provectus.kafka.ui.service.MessagesService;
@@ -71,8 +72,9 @@ class TailingEmitterTest extends AbstractIntegrationTest {
         .pollInSameThread()
         .untilAsserted(() ->
             assertThat(fluxOutput)
-              .filteredOn(msg -> msg.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
-              .extracting(msg -> msg.getMessage().getContent())
+              .filteredOn(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES)
+              .flatExtracting(TopicMessageEventDTO::getMessages)
+              .extracting(TopicMessageDTO::getContent)
               .hasSameElementsAs(expectedValues)
         );
   }
@@ -96,8 +98,9 @@ class TailingEmitterTest extends AbstractIntegrationTest {
         .pollInSameThread()
         .untilAsserted(() ->
             assertThat(fluxOutput)
-              .filteredOn(msg -> msg.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
-              .extracting(msg -> msg.getMessage().getContent())
+              .filteredOn(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES)
+              .flatExtracting(TopicMessageEventDTO::getMessages)
+              .extracting(TopicMessageDTO::getContent)
               .hasSameElementsAs(expectedValues)
         );
   }
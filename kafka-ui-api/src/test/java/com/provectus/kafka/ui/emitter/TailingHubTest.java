@@ -0,0 +1,156 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+import reactor.core.Disposable;
+import reactor.core.publisher.FluxSink;
+
+class TailingHubTest {
+
+  private final TailingHub hub = new TailingHub();
+  private final AtomicInteger emittersCreated = new AtomicInteger();
+  private final AtomicInteger emittersRunning = new AtomicInteger();
+
+  @Test
+  void subscribersOfSameKeyShareEmitterAndApplyOwnFilters() {
+    var key = new TailingHub.Key("local", "test", Set.of());
+    List<String> all = new CopyOnWriteArrayList<>();
+    List<String> even = new CopyOnWriteArrayList<>();
+    final List<Disposable> subscribers = List.of(
+        subscribe(key, evt -> true, all),
+        subscribe(key, evt -> Integer.parseInt(evt.getMessage().getContent()) % 2 == 0, even)
+    );
+
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> even.size() >= 10);
+    assertThat(emittersCreated).hasValue(1);
+    assertThat(even).allMatch(v -> Integer.parseInt(v) % 2 == 0);
+    assertThat(all).anyMatch(v -> Integer.parseInt(v) % 2 != 0);
+
+    subscribers.forEach(Disposable::dispose);
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 0);
+    assertThat(hub.sessionsCount()).isZero();
+  }
+
+  @Test
+  void differentKeysHaveSeparateEmitters() {
+    List<Disposable> subscribers = List.of(
+        subscribe(new TailingHub.Key("local", "test", Set.of(0)), evt -> true, new CopyOnWriteArrayList<>()),
+        subscribe(new TailingHub.Key("local", "test", Set.of(1)), evt -> true, new CopyOnWriteArrayList<>())
+    );
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 2);
+    assertThat(hub.sessionsCount()).isEqualTo(2);
+    subscribers.forEach(Disposable::dispose);
+  }
+
+  @Test
+  void newSessionIsStartedAfterLastSubscriberLeft() {
+    var key = new TailingHub.Key("local", "test", Set.of());
+    List<String> received = new CopyOnWriteArrayList<>();
+    Disposable first = subscribe(key, evt -> true, received);
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> !received.isEmpty());
+    first.dispose();
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 0);
+
+    received.clear();
+    final Disposable second = subscribe(key, evt -> true, received);
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> !received.isEmpty());
+    assertThat(emittersCreated).hasValue(2);
+    second.dispose();
+  }
+
+  @Test
+  void subscriberWhichComesRightAfterLastSubscriberLeftStartsNewSession() {
+    var key = new TailingHub.Key("local", "test", Set.of());
+    List<String> received = new CopyOnWriteArrayList<>();
+    Disposable first = subscribe(key, evt -> true, new CopyOnWriteArrayList<>());
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 1);
+
+    // previous emitter may still be stopping when the next subscriber comes
+    first.dispose();
+    final Disposable second = subscribe(key, evt -> true, received);
+    final Disposable third = subscribe(key, evt -> true, new CopyOnWriteArrayList<>());
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.size() >= 10);
+    assertThat(emittersCreated).hasValue(2);
+    assertThat(emittersRunning).hasValue(1);
+    assertThat(hub.sessionsCount()).isEqualTo(1);
+
+    second.dispose();
+    third.dispose();
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 0);
+    assertThat(hub.sessionsCount()).isZero();
+  }
+
+  @Test
+  void concurrentSubscribersWhichComeAndLeaveDoNotLeakSessions() throws Exception {
+    var key = new TailingHub.Key("local", "test", Set.of());
+    List<Disposable> remaining = new CopyOnWriteArrayList<>();
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 200; i++) {
+            subscribe(key, evt -> true, new CopyOnWriteArrayList<>()).dispose();
+          }
+          remaining.add(subscribe(key, evt -> true, new CopyOnWriteArrayList<>()));
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    // all remaining subscribers share single session and emitter
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 1);
+    assertThat(hub.sessionsCount()).isEqualTo(1);
+
+    remaining.forEach(Disposable::dispose);
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emittersRunning.get() == 0);
+    assertThat(hub.sessionsCount()).isZero();
+  }
+
+  private Disposable subscribe(TailingHub.Key key,
+                               Predicate<TopicMessageEventDTO> filter,
+                               List<String> received) {
+    return hub.subscribe(key, this::createEmitter, filter)
+        .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES)
+        .subscribe(evt -> evt.getMessages().forEach(msg -> received.add(msg.getContent())));
+  }
+
+  // sends messages with increasing numbers until cancelled
+  private Consumer<FluxSink<TopicMessageEventDTO>> createEmitter() {
+    emittersCreated.incrementAndGet();
+    return sink -> {
+      emittersRunning.incrementAndGet();
+      try {
+        for (int i = 0; !sink.isCancelled(); i++) {
+          sink.next(new TopicMessageEventDTO()
+              .type(TopicMessageEventDTO.TypeEnum.MESSAGE)
+              .message(new TopicMessageDTO().content(String.valueOf(i))));
+          Thread.sleep(1);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        emittersRunning.decrementAndGet();
+      }
+      sink.complete();
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package com.provectus.kafka.ui.emitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+
+class TimestampOrderedMergerTest {
+
+  static final String TOPIC = "test";
+  static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+
+  @Test
+  void returnsRecordsInTimestampOrder() {
+    var merger = new TimestampOrderedMerger(List.of(TP0, TP1), false);
+    merger.add(rec(0, 0, 10));
+    merger.add(rec(0, 1, 30));
+    merger.add(rec(1, 0, 20));
+    merger.add(rec(1, 1, 40));
+    merger.finish(TP0);
+    merger.finish(TP1);
+
+    assertThat(drain(merger)).containsExactly(10L, 20L, 30L, 40L);
+    assertThat(merger.isDone()).isTrue();
+  }
+
+  @Test
+  void returnsRecordsInDescendingTimestampOrder() {
+    var merger = new TimestampOrderedMerger(List.of(TP0, TP1), true);
+    merger.add(rec(0, 1, 30));
+    merger.add(rec(0, 0, 10));
+    merger.add(rec(1, 1, 40));
+    merger.add(rec(1, 0, 20));
+    merger.finish(TP0);
+    merger.finish(TP1);
+
+    assertThat(drain(merger)).containsExactly(40L, 30L, 20L, 10L);
+  }
+
+  @Test
+  void waitsForRecordsFromOpenPartitions() {
+    var merger = new TimestampOrderedMerger(List.of(TP0, TP1), false);
+    merger.add(rec(0, 0, 10));
+    merger.add(rec(0, 1, 30));
+    // nothing polled from partition 1 yet - it can contain records with lower timestamps
+    assertThat(merger.next()).isNull();
+
+    merger.add(rec(1, 0, 20));
+    assertThat(drain(merger)).containsExactly(10L, 20L);
+    assertThat(merger.buffered(TP0)).isEqualTo(1);
+
+    merger.finish(TP1);
+    assertThat(drain(merger)).containsExactly(30L);
+    assertThat(merger.isDone()).isFalse();
+
+    merger.finish(TP0);
+    assertThat(merger.isDone()).isTrue();
+  }
+
+  private static List<Long> drain(TimestampOrderedMerger merger) {
+    List<Long> timestamps = new ArrayList<>();
+    ConsumerRecord<Bytes, Bytes> rec;
+    while ((rec = merger.next()) != null) {
+      timestamps.add(rec.timestamp());
+    }
+    return timestamps;
+  }
+
+  private static ConsumerRecord<Bytes, Bytes> rec(int partition, long offset, long timestamp) {
+    return new ConsumerRecord<>(
+        TOPIC, partition, offset, timestamp, TimestampType.CREATE_TIME, 0L, 0, 0, null, null);
+  }
+}
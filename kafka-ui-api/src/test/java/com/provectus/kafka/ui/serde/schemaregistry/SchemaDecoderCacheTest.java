@@ -0,0 +1,99 @@
+package com.provectus.kafka.ui.serde.schemaregistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SchemaDecoderCacheTest {
+
+  private final List<Integer> resolved = new ArrayList<>();
+  private final Set<Integer> unknownIds = new HashSet<>();
+  private long nanos;
+
+  private final SchemaDecoderCache cache = new SchemaDecoderCache(id -> {
+    resolved.add(id);
+    return unknownIds.contains(id)
+        ? SchemaDecoderCache.Decoder.UNKNOWN
+        : new SchemaDecoderCache.Decoder(MessageFormat.AVRO, (k, v) -> "", String.valueOf(id));
+  }, () -> nanos);
+
+  @Test
+  void schemaIdIsReadAfterMagicByte() {
+    for (int id : new int[] {0, 1, 255, 256, 65_536, Integer.MAX_VALUE, -1}) {
+      byte[] bytes = ByteBuffer.allocate(6).put((byte) 0).putInt(id).put((byte) 1).array();
+      assertThat(SchemaDecoderCache.hasSchemaId(bytes)).isTrue();
+      assertThat(SchemaDecoderCache.schemaId(bytes)).isEqualTo(id);
+    }
+    assertThat(SchemaDecoderCache.hasSchemaId(new byte[] {0, 0, 0, 0, 1})).isFalse();
+    assertThat(SchemaDecoderCache.hasSchemaId(new byte[] {1, 0, 0, 0, 1, 1})).isFalse();
+  }
+
+  @Test
+  void decodersAreResolvedOncePerId() {
+    for (int round = 0; round < 2; round++) {
+      for (int id = -100; id < 1_000; id++) {
+        assertThat(cache.get(id).getSchemaId()).isEqualTo(String.valueOf(id));
+      }
+    }
+    assertThat(resolved).hasSize(1_100).doesNotHaveDuplicates();
+    assertThat(cache.size()).isEqualTo(1_100);
+  }
+
+  @Test
+  void idsOverMaxSizeAreResolvedOnEveryLookup() {
+    for (int id = 0; id < SchemaDecoderCache.MAX_SIZE; id++) {
+      cache.get(id);
+    }
+    resolved.clear();
+
+    cache.get(SchemaDecoderCache.MAX_SIZE);
+    cache.get(SchemaDecoderCache.MAX_SIZE);
+    cache.get(0);
+
+    assertThat(resolved).containsExactly(SchemaDecoderCache.MAX_SIZE, SchemaDecoderCache.MAX_SIZE);
+    assertThat(cache.size()).isEqualTo(SchemaDecoderCache.MAX_SIZE);
+  }
+
+  @Test
+  void unknownIdsAreResolvedAgainAfterTtl() {
+    unknownIds.add(1);
+    assertThat(cache.get(1).isResolved()).isFalse();
+    nanos += SchemaDecoderCache.UNKNOWN_TTL_NANOS - 1;
+    assertThat(cache.get(1).isResolved()).isFalse();
+    assertThat(resolved).containsExactly(1);
+
+    // schema was registered
+    unknownIds.clear();
+    nanos += 1;
+    assertThat(cache.get(1).isResolved()).isTrue();
+    nanos += SchemaDecoderCache.UNKNOWN_TTL_NANOS;
+    assertThat(cache.get(1).isResolved()).isTrue();
+    assertThat(resolved).containsExactly(1, 1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void expiredUnknownIdsAreReplacedInFullCache() {
+    // negative nanos check that expiration is compared by difference
+    nanos = -SchemaDecoderCache.UNKNOWN_TTL_NANOS / 2;
+    unknownIds.add(0);
+    for (int id = 0; id < SchemaDecoderCache.MAX_SIZE; id++) {
+      cache.get(id);
+    }
+    cache.get(SchemaDecoderCache.MAX_SIZE);
+    assertThat(cache.size()).isEqualTo(SchemaDecoderCache.MAX_SIZE);
+
+    nanos += SchemaDecoderCache.UNKNOWN_TTL_NANOS;
+    cache.get(SchemaDecoderCache.MAX_SIZE);
+    resolved.clear();
+    cache.get(SchemaDecoderCache.MAX_SIZE);
+
+    assertThat(resolved).isEmpty();
+    assertThat(cache.size()).isEqualTo(SchemaDecoderCache.MAX_SIZE);
+  }
+}
@@ -0,0 +1,109 @@
+package com.provectus.kafka.ui.serde.schemaregistry;
+
+import com.provectus.kafka.ui.model.KafkaCluster;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures records deserialization: avro-encoded values with schema id, plain string values
+ * and values with magic byte, but with id of schema which is not in registry.
+ * Not executed as a part of test suite, run with main method (from IDE or with test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaRegistryAwareRecordSerDeBenchmark {
+
+  private static final int MESSAGES = 1_000;
+  private static final String TOPIC = "orders";
+
+  private SchemaRegistryAwareRecordSerDe serde;
+  private List<ConsumerRecord<Bytes, Bytes>> avroRecords;
+  private List<ConsumerRecord<Bytes, Bytes>> stringRecords;
+  private List<ConsumerRecord<Bytes, Bytes>> unknownSchemaRecords;
+
+  @Setup
+  public void setup() throws Exception {
+    var registryClient = new MockSchemaRegistryClient();
+    serde = new SchemaRegistryAwareRecordSerDe(KafkaCluster.builder().build(), registryClient);
+    var schema = new AvroSchema(
+        "{\"type\":\"record\",\"name\":\"Order\",\"fields\":["
+            + "{\"name\":\"id\",\"type\":\"string\"},"
+            + "{\"name\":\"customer\",\"type\":\"string\"},"
+            + "{\"name\":\"total\",\"type\":\"double\"}]}");
+    registryClient.register(TOPIC + "-value", schema);
+    var serializer = new KafkaAvroSerializer(registryClient);
+
+    avroRecords = new ArrayList<>(MESSAGES);
+    stringRecords = new ArrayList<>(MESSAGES);
+    unknownSchemaRecords = new ArrayList<>(MESSAGES);
+    for (int i = 0; i < MESSAGES; i++) {
+      GenericRecord order = new GenericData.Record(schema.rawSchema());
+      order.put("id", "order-" + i);
+      order.put("customer", "user" + i + "@example.com");
+      order.put("total", i * 1.5);
+      avroRecords.add(record(i, serializer.serialize(TOPIC, order)));
+      stringRecords.add(record(i, ("{\"id\":\"order-" + i + "\"}").getBytes()));
+      unknownSchemaRecords.add(record(i, ByteBuffer.allocate(13).put((byte) 0).putInt(100_000).array()));
+    }
+  }
+
+  @Benchmark
+  public void avro(Blackhole bh) {
+    for (ConsumerRecord<Bytes, Bytes> rec : avroRecords) {
+      bh.consume(serde.deserialize(rec));
+    }
+  }
+
+  @Benchmark
+  public void string(Blackhole bh) {
+    for (ConsumerRecord<Bytes, Bytes> rec : stringRecords) {
+      bh.consume(serde.deserialize(rec));
+    }
+  }
+
+  @Benchmark
+  public void unknownSchema(Blackhole bh) {
+    for (ConsumerRecord<Bytes, Bytes> rec : unknownSchemaRecords) {
+      bh.consume(serde.deserialize(rec));
+    }
+  }
+
+  private static ConsumerRecord<Bytes, Bytes> record(int idx, byte[] value) {
+    return new ConsumerRecord<>(TOPIC, idx % 10, idx, Bytes.wrap(("order-" + idx).getBytes()), Bytes.wrap(value));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder()
+            .include(SchemaRegistryAwareRecordSerDeBenchmark.class.getSimpleName())
+            .build()
+    ).run();
+  }
+}
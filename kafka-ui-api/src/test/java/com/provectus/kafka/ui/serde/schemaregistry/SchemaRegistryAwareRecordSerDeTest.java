@@ -174,6 +174,71 @@ class SchemaRegistryAwareRecordSerDeTest {
       assertThat(result.getValue()).isEqualTo("val");
     }
 
+    @Test
+    void schemaIsRequestedFromRegistryOnceForAllRecordsWithSameSchemaId() throws Exception {
+      int schemaId = 1234;
+      final var schema = new AvroSchema("{ \"type\": \"string\" }");
+      when(registryClient.getSchemaById(schemaId)).thenReturn(schema);
+      when(registryClient.getSchemaBySubjectAndId(null, schemaId)).thenReturn(schema);
+
+      for (int i = 0; i < 3; i++) {
+        var result = serde.deserialize(
+            new ConsumerRecord<>(
+                "test-topic",
+                1,
+                i,
+                null,
+                bytesWithMagicByteAndSchemaId(schemaId, jsonToAvro("\"str" + i + "\"", schema))
+            )
+        );
+        assertThat(result.getValueSchemaId()).isEqualTo(schemaId + "");
+        assertThat(result.getValueFormat()).isEqualTo(MessageFormat.AVRO);
+        assertThat(result.getValue()).isEqualTo("\"str" + i + "\"");
+      }
+
+      verify(registryClient, times(1)).getSchemaById(schemaId);
+    }
+
+    @Test
+    void notFoundSchemaIsRequestedFromRegistryOnce() throws Exception {
+      int nonExistingSchemaId = 12341234;
+      when(registryClient.getSchemaById(nonExistingSchemaId))
+          .thenThrow(new RestClientException("not fount", 404, 404));
+
+      for (int i = 0; i < 3; i++) {
+        var result = serde.deserialize(
+            new ConsumerRecord<>(
+                "test-topic",
+                1,
+                i,
+                null,
+                bytesWithMagicByteAndSchemaId(nonExistingSchemaId, "somedata".getBytes())
+            )
+        );
+        assertThat(result.getValueSchemaId()).isNull();
+        assertThat(result.getValueFormat()).isEqualTo(MessageFormat.UNKNOWN);
+      }
+
+      verify(registryClient, times(1)).getSchemaById(nonExistingSchemaId);
+    }
+
+    @Test
+    void useStringFormatterIfValueIsTooShortToContainSchemaId() {
+      var result = serde.deserialize(
+          new ConsumerRecord<>(
+              "test-topic",
+              1,
+              100,
+              null,
+              Bytes.wrap(new byte[] {0, 0, 0, 0, 1})
+          )
+      );
+
+      verifyZeroInteractions(registryClient);
+      assertThat(result.getValueSchemaId()).isNull();
+      assertThat(result.getValueFormat()).isEqualTo(MessageFormat.UNKNOWN);
+    }
+
     private void assertJsonsEqual(String expected, String actual) throws JsonProcessingException {
       var mapper = new JsonMapper();
       assertThat(mapper.readTree(actual)).isEqualTo(mapper.readTree(expected));
@@ -0,0 +1,106 @@
+package com.provectus.kafka.ui.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.provectus.kafka.ui.model.KafkaCluster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConsumerPoolServiceTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ClustersStorage clustersStorage = mock(ClustersStorage.class);
+
+  private final ConsumerPoolService poolService = new ConsumerPoolService(
+      new ConsumerGroupService(mock(AdminClientService.class)),
+      clustersStorage,
+      meterRegistry,
+      1,
+      300_000,
+      60_000
+  );
+
+  private final KafkaCluster cluster = KafkaCluster.builder()
+      .name("local")
+      .bootstrapServers("localhost:9092")
+      .properties(new Properties())
+      .build();
+
+  @BeforeEach
+  void registerCluster() {
+    when(clustersStorage.getClusterByName("local")).thenReturn(Optional.of(cluster));
+  }
+
+  @AfterEach
+  void closePool() {
+    poolService.close();
+  }
+
+  @Test
+  void consumerReturnedToPoolOnCloseAndReused() {
+    var consumer = poolService.borrow(cluster);
+    consumer.close();
+    var reused = poolService.borrow(cluster);
+    assertThat(reused).isSameAs(consumer);
+    reused.close();
+
+    assertThat(borrows("hit")).isEqualTo(1);
+    assertThat(borrows("miss")).isEqualTo(1);
+  }
+
+  @Test
+  void nonPooledConsumerCreatedWhenPoolExhausted() {
+    var pooled = poolService.borrow(cluster);
+    var nonPooled = poolService.borrow(cluster);
+    assertThat(nonPooled).isNotSameAs(pooled);
+    nonPooled.close();
+    pooled.close();
+
+    assertThat(meterRegistry.get("kafka.ui.consumer.pool.idle").gauge().value()).isEqualTo(1);
+    assertThat(meterRegistry.get("kafka.ui.consumer.pool.active").gauge().value()).isZero();
+  }
+
+  @Test
+  void singleRecordConsumersArePooledSeparately() {
+    var singleRecord = poolService.borrowSingleRecordConsumer(cluster);
+    // pool of default consumers is not exhausted by single record consumer
+    var consumer = poolService.borrow(cluster);
+    assertThat(consumer).isNotSameAs(singleRecord);
+    assertThat(meterRegistry.get("kafka.ui.consumer.pool.active").tag("type", "single_record").gauge().value())
+        .isEqualTo(1);
+    singleRecord.close();
+    consumer.close();
+
+    var reusedSingleRecord = poolService.borrowSingleRecordConsumer(cluster);
+    var reused = poolService.borrow(cluster);
+    assertThat(reusedSingleRecord).isSameAs(singleRecord);
+    assertThat(reused).isSameAs(consumer);
+    reusedSingleRecord.close();
+    reused.close();
+  }
+
+  @Test
+  void consumersAreSharedByClusterInstancesWithSameName() {
+    var consumer = poolService.borrow(cluster);
+    consumer.close();
+    var rebuiltCluster = cluster.toBuilder().readOnly(true).build();
+    var reused = poolService.borrow(rebuiltCluster);
+    assertThat(reused).isSameAs(consumer);
+    reused.close();
+  }
+
+  private double borrows(String result) {
+    return meterRegistry.get("kafka.ui.consumer.pool.borrows")
+        .tag("cluster", "local")
+        .tag("type", "default")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+}
@@ -1,14 +1,37 @@
 package com.provectus.kafka.ui.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+
 import com.provectus.kafka.ui.AbstractIntegrationTest;
 import com.provectus.kafka.ui.exception.TopicNotFoundException;
+import com.provectus.kafka.ui.exception.ValidationException;
+import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.CreateTopicMessageDTO;
 import com.provectus.kafka.ui.model.KafkaCluster;
+import com.provectus.kafka.ui.model.MessageFilterTypeDTO;
+import com.provectus.kafka.ui.model.MessagesCopyRequestDTO;
+import com.provectus.kafka.ui.model.SeekDirectionDTO;
+import com.provectus.kafka.ui.model.SeekTypeDTO;
+import com.provectus.kafka.ui.model.TopicMessageDTO;
+import com.provectus.kafka.ui.model.TopicMessageEventDTO;
+import com.provectus.kafka.ui.producer.KafkaTestProducer;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 class MessagesServiceTest extends AbstractIntegrationTest {
@@ -18,6 +41,12 @@ class MessagesServiceTest extends AbstractIntegrationTest {
   @Autowired
   MessagesService messagesService;
 
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  WebTestClient webTestClient;
+
   KafkaCluster cluster;
 
   @BeforeEach
@@ -49,4 +78,188 @@ class MessagesServiceTest extends AbstractIntegrationTest {
         .verify();
   }
 
-}
\ No newline at end of file
+  @Test
+  void searchMessagesFindsMessagesInAllMatchedTopics() throws Exception {
+    String prefix = "search-" + UUID.randomUUID();
+    List<String> topics = List.of(prefix + ".a", prefix + ".b", prefix + ".c");
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      for (String topic : topics) {
+        createTopic(new NewTopic(topic, 1, (short) 1));
+        producer.send(topic, "trace-42 in " + topic).get();
+        producer.send(topic, "other message").get();
+      }
+    }
+    try {
+      var found = messagesService.searchMessages(cluster, null, Pattern.quote(prefix) + "\\.(a|b)",
+              "trace-42", MessageFilterTypeDTO.STRING_CONTAINS, SeekDirectionDTO.FORWARD, 10)
+          .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+          .collectList()
+          .block();
+      assertThat(found)
+          .extracting(TopicMessageEventDTO::getTopic)
+          .containsExactlyInAnyOrder(prefix + ".a", prefix + ".b");
+      assertThat(found).allMatch(evt -> evt.getMessage().getContent().equals("trace-42 in " + evt.getTopic()));
+
+      StepVerifier.create(messagesService.searchMessages(cluster, topics, null,
+              "trace-42", MessageFilterTypeDTO.STRING_CONTAINS, SeekDirectionDTO.BACKWARD, 1))
+          .expectNextMatches(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+          .expectNextMatches(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.DONE)
+          .verifyComplete();
+    } finally {
+      topics.forEach(AbstractIntegrationTest::deleteTopic);
+    }
+  }
+
+  @Test
+  void latestMessagesAreServedFromCacheAndExtendedWithNewOnes() throws Exception {
+    String topic = "latest-" + UUID.randomUUID();
+    createTopic(new NewTopic(topic, 1, (short) 1));
+    double hits = cacheRequests("hit");
+    double extensions = cacheRequests("extended");
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      for (int i = 0; i < 3; i++) {
+        producer.send(topic, "message " + i).get();
+      }
+      assertThat(loadLatest(topic)).containsExactly("message 2", "message 1", "message 0");
+      assertThat(loadLatest(topic)).containsExactly("message 2", "message 1", "message 0");
+      assertThat(cacheRequests("hit")).isEqualTo(hits + 1);
+      // UI requests the latest messages with partitions' end offsets
+      var fromEndOffsets = new ConsumerPosition(SeekTypeDTO.OFFSET, Map.of(new TopicPartition(topic, 0), 3L),
+          SeekDirectionDTO.BACKWARD);
+      assertThat(loadLatest(topic, fromEndOffsets)).containsExactly("message 2", "message 1", "message 0");
+      assertThat(cacheRequests("hit")).isEqualTo(hits + 2);
+
+      producer.send(topic, "message 3").get();
+      assertThat(loadLatest(topic)).containsExactly("message 3", "message 2", "message 1");
+      assertThat(cacheRequests("extended")).isEqualTo(extensions + 1);
+    } finally {
+      deleteTopic(topic);
+    }
+  }
+
+  @Test
+  void liveModeSubscribersShareTailingSessionWhenTheyStartFromEndOffsets() throws Exception {
+    String topic = "tailing-" + UUID.randomUUID();
+    createTopic(new NewTopic(topic, 2, (short) 1));
+    double activeConsumers = activeConsumers();
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      // live mode of UI sends OFFSET seek type and partitions' end offsets (topic is empty)
+      var first = new CompletableFuture<String>();
+      var second = new CompletableFuture<String>();
+      final Disposable firstSubscription = liveMessages(topic).subscribe(first::complete);
+      final Disposable secondSubscription = liveMessages(topic).subscribe(second::complete);
+      // messages are sent until both subscribers get one, since tailing starts asynchronously
+      for (int i = 0; i < 60 && !(first.isDone() && second.isDone()); i++) {
+        producer.send(topic, "live message").get();
+        TimeUnit.MILLISECONDS.sleep(500);
+      }
+      assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("live message");
+      assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("live message");
+      // both subscribers are served by the same consumer
+      assertThat(activeConsumers()).isEqualTo(activeConsumers + 1);
+      firstSubscription.dispose();
+      secondSubscription.dispose();
+    } finally {
+      deleteTopic(topic);
+    }
+  }
+
+  @Test
+  void keyLookupWithoutSeekToReadsKeysPartitionBackwardFromTheEnd() throws Exception {
+    String topic = "key-lookup-" + UUID.randomUUID();
+    createTopic(new NewTopic(topic, 3, (short) 1));
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      for (int i = 0; i < 3; i++) {
+        producer.send(new ProducerRecord<>(topic, "order-1", "order-1 v" + i)).get();
+        producer.send(new ProducerRecord<>(topic, "order-" + (i + 2), "other")).get();
+      }
+    }
+    try {
+      var found = messagesService.loadMessages(cluster, topic,
+              new ConsumerPosition(SeekTypeDTO.OFFSET, Map.of(), SeekDirectionDTO.BACKWARD),
+              "order-1", MessageFilterTypeDTO.KEY_EQUALS, 10)
+          .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+          .map(evt -> evt.getMessage().getContent())
+          .collectList()
+          .block();
+      assertThat(found).containsExactly("order-1 v2", "order-1 v1", "order-1 v0");
+    } finally {
+      deleteTopic(topic);
+    }
+  }
+
+  @Test
+  void copyJobWithRunningJobIdIsRejected() throws Exception {
+    String source = "copy-source-" + UUID.randomUUID();
+    String target = "copy-target-" + UUID.randomUUID();
+    createTopic(new NewTopic(source, 1, (short) 1));
+    createTopic(new NewTopic(target, 1, (short) 1));
+    try (KafkaTestProducer<String, String> producer = KafkaTestProducer.forKafka(kafka)) {
+      for (int i = 0; i < 10; i++) {
+        producer.send(source, "message " + i).get();
+      }
+    }
+    var position = new ConsumerPosition(SeekTypeDTO.BEGINNING, Map.of(), SeekDirectionDTO.FORWARD);
+    // rate limit keeps the first job running for several seconds
+    var request = new MessagesCopyRequestDTO().jobId("copy-" + UUID.randomUUID()).targetTopic(target).rateLimit(2);
+    final Disposable running = messagesService.copyMessages(cluster, source, position, request).subscribe();
+    try {
+      TimeUnit.SECONDS.sleep(1);
+      StepVerifier.create(messagesService.copyMessages(cluster, source, position, request))
+          .expectErrorSatisfies(e -> assertThat(e)
+              .isInstanceOf(ValidationException.class)
+              .hasMessageContaining("is already running"))
+          .verify();
+    } finally {
+      running.dispose();
+      deleteTopic(source);
+      deleteTopic(target);
+    }
+  }
+
+  private Flux<String> liveMessages(String topic) {
+    return webTestClient.get()
+        .uri("/api/clusters/{clusterName}/topics/{topicName}/messages"
+                + "?seekType=OFFSET&seekTo=0::0&seekTo=1::0&seekDirection=TAILING",
+            LOCAL, topic)
+        .accept(TEXT_EVENT_STREAM)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .returnResult(TopicMessageEventDTO.class)
+        .getResponseBody()
+        .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGES)
+        .flatMapIterable(TopicMessageEventDTO::getMessages)
+        .map(TopicMessageDTO::getContent);
+  }
+
+  private double activeConsumers() {
+    // gauge is registered with the first borrowed consumer
+    var gauge = meterRegistry.find("kafka.ui.consumer.pool.active")
+        .tags("cluster", LOCAL, "type", "default")
+        .gauge();
+    return gauge != null ? gauge.value() : 0;
+  }
+
+  private List<String> loadLatest(String topic) {
+    return loadLatest(topic, new ConsumerPosition(SeekTypeDTO.BEGINNING, Map.of(), SeekDirectionDTO.BACKWARD));
+  }
+
+  private List<String> loadLatest(String topic, ConsumerPosition position) {
+    return messagesService.loadMessages(cluster, topic, position, null, null, 3)
+        .filter(evt -> evt.getType() == TopicMessageEventDTO.TypeEnum.MESSAGE)
+        .map(TopicMessageEventDTO::getMessage)
+        .map(TopicMessageDTO::getContent)
+        .collectList()
+        .block();
+  }
+
+  private double cacheRequests(String result) {
+    // counters are registered with the first cached request
+    var counter = meterRegistry.find("kafka.ui.messages.cache.requests")
+        .tags("cluster", LOCAL, "result", result)
+        .counter();
+    return counter != null ? counter.count() : 0;
+  }
+
+}
@@ -10,6 +10,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.provectus.kafka.ui.AbstractIntegrationTest;
 import com.provectus.kafka.ui.emitter.BackwardRecordEmitter;
 import com.provectus.kafka.ui.emitter.ForwardRecordEmitter;
+import com.provectus.kafka.ui.emitter.MessagesProcessing;
 import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.TopicMessageEventDTO;
 import com.provectus.kafka.ui.producer.KafkaTestProducer;
@@ -18,6 +19,7 @@ import com.provectus.kafka.ui.util.OffsetsSeekBackward;
 import com.provectus.kafka.ui.util.OffsetsSeekForward;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,7 +98,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         this::createConsumer,
         new OffsetsSeekForward(EMPTY_TOPIC,
             new ConsumerPosition(BEGINNING, Map.of(), FORWARD)
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var backwardEmitter = new BackwardRecordEmitter(
@@ -105,7 +107,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
             EMPTY_TOPIC,
             new ConsumerPosition(BEGINNING, Map.of(), BACKWARD),
             100
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     StepVerifier.create(
@@ -127,7 +129,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         this::createConsumer,
         new OffsetsSeekForward(TOPIC,
             new ConsumerPosition(BEGINNING, Map.of(), FORWARD)
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var backwardEmitter = new BackwardRecordEmitter(
@@ -135,7 +137,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         new OffsetsSeekBackward(TOPIC,
             new ConsumerPosition(BEGINNING, Map.of(), BACKWARD),
             PARTITIONS * MSGS_PER_PARTITION
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     List<String> expectedValues = SENT_RECORDS.stream().map(Record::getValue).collect(Collectors.toList());
@@ -156,7 +158,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         this::createConsumer,
         new OffsetsSeekForward(TOPIC,
             new ConsumerPosition(OFFSET, targetOffsets, FORWARD)
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var backwardEmitter = new BackwardRecordEmitter(
@@ -164,7 +166,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         new OffsetsSeekBackward(TOPIC,
             new ConsumerPosition(OFFSET, targetOffsets, BACKWARD),
             PARTITIONS * MSGS_PER_PARTITION
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var expectedValues = SENT_RECORDS.stream()
@@ -201,7 +203,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         this::createConsumer,
         new OffsetsSeekForward(TOPIC,
             new ConsumerPosition(TIMESTAMP, targetTimestamps, FORWARD)
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var backwardEmitter = new BackwardRecordEmitter(
@@ -209,7 +211,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         new OffsetsSeekBackward(TOPIC,
             new ConsumerPosition(TIMESTAMP, targetTimestamps, BACKWARD),
             PARTITIONS * MSGS_PER_PARTITION
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     var expectedValues = SENT_RECORDS.stream()
@@ -240,12 +242,17 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         new OffsetsSeekBackward(TOPIC,
             new ConsumerPosition(OFFSET, targetOffsets, BACKWARD),
             numMessages
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
+    // records are merged by timestamp, so we expect latest records across all partitions
     var expectedValues = SENT_RECORDS.stream()
         .filter(r -> r.getOffset() < targetOffsets.get(r.getTp()))
-        .filter(r -> r.getOffset() >= (targetOffsets.get(r.getTp()) - (numMessages / PARTITIONS)))
+        .sorted(Comparator.comparingLong(Record::getTimestamp)
+            .thenComparingInt(r -> r.getTp().partition())
+            .thenComparingLong(Record::getOffset)
+            .reversed())
+        .limit(numMessages)
         .map(Record::getValue)
         .collect(Collectors.toList());
 
@@ -266,7 +273,7 @@ class RecordEmitterTest extends AbstractIntegrationTest {
         new OffsetsSeekBackward(TOPIC,
             new ConsumerPosition(OFFSET, offsets, BACKWARD),
             100
-        ), new SimpleRecordSerDe()
+        ), new MessagesProcessing(new SimpleRecordSerDe())
     );
 
     expectEmitter(backwardEmitter,
@@ -0,0 +1,106 @@
+package com.provectus.kafka.ui.service.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyIndexTest {
+
+  private static final long MAX_BYTES = 1024 * 1024;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void returnsEntriesWithSameHashNewestFirst() throws Exception {
+    try (var index = KeyIndex.open(dir, 16, MAX_BYTES)) {
+      // more keys than buckets, so chains contain different hashes
+      for (int i = 0; i < 100; i++) {
+        index.append(hash("key-" + (i % 10)), i % 3, i, 1000L + i);
+      }
+      assertThat(index.lookup(hash("key-5"), 100))
+          .containsExactly(
+              new KeyIndex.Entry(2, 95, 1095),
+              new KeyIndex.Entry(1, 85, 1085),
+              new KeyIndex.Entry(0, 75, 1075),
+              new KeyIndex.Entry(2, 65, 1065),
+              new KeyIndex.Entry(1, 55, 1055),
+              new KeyIndex.Entry(0, 45, 1045),
+              new KeyIndex.Entry(2, 35, 1035),
+              new KeyIndex.Entry(1, 25, 1025),
+              new KeyIndex.Entry(0, 15, 1015),
+              new KeyIndex.Entry(2, 5, 1005));
+      assertThat(index.lookup(hash("key-5"), 2)).hasSize(2);
+      assertThat(index.lookup(hash("unknown"), 10)).isEmpty();
+    }
+  }
+
+  @Test
+  void checkpointedStateSurvivesReopening() throws Exception {
+    try (var index = KeyIndex.open(dir, 16, MAX_BYTES)) {
+      index.append(hash("a"), 0, 10, 100);
+      index.markIndexed(0, 11);
+      index.markIndexed(1, 5);
+    }
+    try (var index = KeyIndex.open(dir, 16, MAX_BYTES)) {
+      assertThat(index.lookup(hash("a"), 10)).containsExactly(new KeyIndex.Entry(0, 10, 100));
+      assertThat(index.nextOffset(0)).contains(11L);
+      assertThat(index.nextOffset(1)).contains(5L);
+      assertThat(index.nextOffset(2)).isEmpty();
+    }
+  }
+
+  @Test
+  void entriesAppendedAfterCheckpointAreDroppedOnReopening() throws Exception {
+    var index = KeyIndex.open(dir, 1, MAX_BYTES);
+    index.append(hash("a"), 0, 0, 100);
+    index.markIndexed(0, 1);
+    index.checkpoint();
+    index.append(hash("b"), 0, 1, 101);
+    index.markIndexed(0, 2);
+
+    // reopening without close, as after crash
+    try (var reopened = KeyIndex.open(dir, 1, MAX_BYTES)) {
+      assertThat(reopened.size()).isEqualTo(1);
+      assertThat(reopened.nextOffset(0)).contains(1L);
+      assertThat(reopened.lookup(hash("b"), 10)).isEmpty();
+      assertThat(reopened.lookup(hash("a"), 10)).containsExactly(new KeyIndex.Entry(0, 0, 100));
+
+      reopened.append(hash("b"), 0, 1, 101);
+      assertThat(reopened.lookup(hash("b"), 10)).containsExactly(new KeyIndex.Entry(0, 1, 101));
+    }
+  }
+
+  @Test
+  void bucketsAreRebuiltWhenBucketsCountChanged() throws Exception {
+    try (var index = KeyIndex.open(dir, 4, MAX_BYTES)) {
+      for (int i = 0; i < 50; i++) {
+        index.append(hash("key-" + i), 0, i, i);
+      }
+    }
+    try (var index = KeyIndex.open(dir, 64, MAX_BYTES)) {
+      for (int i = 0; i < 50; i++) {
+        assertThat(index.lookup(hash("key-" + i), 10)).containsExactly(new KeyIndex.Entry(0, i, i));
+      }
+    }
+  }
+
+  @Test
+  void stopsAcceptingEntriesWhenSizeLimitReached() throws Exception {
+    // 16 buckets * 8 bytes + 3 entries * 36 bytes
+    try (var index = KeyIndex.open(dir, 16, 16 * 8 + 3 * 36)) {
+      assertThat(index.append(hash("a"), 0, 0, 0)).isTrue();
+      assertThat(index.append(hash("a"), 0, 1, 0)).isTrue();
+      assertThat(index.append(hash("a"), 0, 2, 0)).isTrue();
+      assertThat(index.append(hash("a"), 0, 3, 0)).isFalse();
+      assertThat(index.lookup(hash("a"), 10)).hasSize(3);
+    }
+  }
+
+  private static long hash(String key) {
+    return KeyIndex.hash(key.getBytes(StandardCharsets.UTF_8));
+  }
+}
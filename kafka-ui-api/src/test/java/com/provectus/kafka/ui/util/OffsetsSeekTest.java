@@ -5,12 +5,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.provectus.kafka.ui.model.ConsumerPosition;
 import com.provectus.kafka.ui.model.SeekDirectionDTO;
 import com.provectus.kafka.ui.model.SeekTypeDTO;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
@@ -28,10 +30,20 @@ class OffsetsSeekTest {
   final TopicPartition tp3 = new TopicPartition(topic, 3); //offsets: start 25, end 30
 
   MockConsumer<Bytes, Bytes> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+  // MockConsumer doesn't support offsetsForTimes, results are taken from this map
+  Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes = new HashMap<>();
 
   @BeforeEach
   void initConsumer() {
-    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+      @Override
+      public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+          Map<TopicPartition, Long> timestampsToSearch) {
+        Map<TopicPartition, OffsetAndTimestamp> result = new HashMap<>();
+        timestampsToSearch.keySet().forEach(tp -> result.put(tp, offsetsForTimes.get(tp)));
+        return result;
+      }
+    };
     consumer.updatePartitions(
         topic,
         Stream.of(tp0, tp1, tp2, tp3)
@@ -162,6 +174,33 @@ class OffsetsSeekTest {
     assertThat(consumer.position(tp2)).isEqualTo(20L);
   }
 
+  @Test
+  void forwardSeekWithBoundTimestampLimitsEndOffsets() {
+    var seek = new OffsetsSeekForward(
+        topic,
+        new ConsumerPosition(SeekTypeDTO.BEGINNING, Map.of(), SeekDirectionDTO.FORWARD, 1000L)
+    );
+    offsetsForTimes.put(tp2, new OffsetAndTimestamp(15L, 1000L));
+    offsetsForTimes.put(tp3, new OffsetAndTimestamp(25L, 1200L));
+
+    var waitingOffsets = seek.assignAndSeek(consumer);
+    // tp3's first message is after bound, nothing to read there
+    assertThat(waitingOffsets.getEndOffsets()).containsExactlyInAnyOrderEntriesOf(Map.of(2, 14L));
+  }
+
+  @Test
+  void backwardSeekWithBoundTimestampLimitsBeginOffsets() {
+    var seek = new OffsetsSeekBackward(
+        topic,
+        new ConsumerPosition(SeekTypeDTO.LATEST, Map.of(), SeekDirectionDTO.BACKWARD, 1000L),
+        10
+    );
+    // no offset for tp3 - all its messages are before bound
+    offsetsForTimes.put(tp2, new OffsetAndTimestamp(15L, 1000L));
+
+    var waitingOffsets = seek.waitingOffsets(consumer, List.of(tp0, tp1, tp2, tp3));
+    assertThat(waitingOffsets.getBeginOffsets()).containsExactlyInAnyOrderEntriesOf(Map.of(2, 15L));
+  }
 
   @Nested
   class WaitingOffsetsTest {
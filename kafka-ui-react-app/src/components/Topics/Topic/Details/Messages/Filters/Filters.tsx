@@ -205,14 +205,23 @@ const Filters: React.FC<FiltersProps> = ({
         setIsFetching(true);
       };
       sse.onmessage = ({ data }) => {
-        const { type, message, phase, consuming }: TopicMessageEvent =
-          JSON.parse(data);
+        const {
+          type,
+          message,
+          messages,
+          phase,
+          consuming,
+        }: TopicMessageEvent = JSON.parse(data);
 
         switch (type) {
           case TopicMessageEventTypeEnum.MESSAGE:
             if (message) addMessage(message);
             break;
+          case TopicMessageEventTypeEnum.MESSAGES:
+            messages?.forEach(addMessage);
+            break;
           case TopicMessageEventTypeEnum.PHASE:
+          case TopicMessageEventTypeEnum.BUDGET_EXHAUSTED:
             if (phase?.name) updatePhase(phase.name);
             break;
           case TopicMessageEventTypeEnum.CONSUMING: